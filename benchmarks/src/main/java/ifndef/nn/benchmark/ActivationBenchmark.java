@@ -0,0 +1,78 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.activation.ReLU;
+import ifndef.nn.activation.Sigmoid;
+import ifndef.nn.activation.Tanh;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Bulk activation evaluation over one 64 x 32 batch, exact against fast. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ActivationBenchmark {
+
+    private static final int SIZE = 64 * 32;
+
+    @Param({"tanh", "sigmoid", "relu"})
+    public String activation;
+
+    @Param({"false", "true"})
+    public boolean fast;
+
+    private ActivationFunction function;
+    private double[] sums;
+    private double[] outputs;
+    private double[] gradient;
+    private double[] delta;
+
+    @Setup
+    public void setup() {
+        switch (activation) {
+            case "tanh": function = new Tanh(); break;
+            case "sigmoid": function = new Sigmoid(); break;
+            default: function = new ReLU(); break;
+        }
+        if (fast) {
+            function = function.fast();
+        }
+        Random random = new Random(42);
+        sums = new double[SIZE];
+        outputs = new double[SIZE];
+        gradient = new double[SIZE];
+        delta = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            sums[i] = random.nextGaussian() * 2.0;
+            gradient[i] = random.nextGaussian();
+        }
+        function.value(sums, outputs, SIZE);
+    }
+
+    @Benchmark
+    public double[] value() {
+        function.value(sums, outputs, SIZE);
+        return outputs;
+    }
+
+    @Benchmark
+    public double[] backward() {
+        function.backward(gradient, sums, outputs, delta, SIZE);
+        return delta;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.NeuralNetwork;
+
+/** The two network shapes offered by Main. */
+public enum Architecture {
+
+    STANDARD(16, 2),
+    DEEP(32, 4);
+
+    private final int width;
+    private final int hiddenLayers;
+
+    Architecture(int width, int hiddenLayers) {
+        this.width = width;
+        this.hiddenLayers = hiddenLayers;
+    }
+
+    public NeuralNetwork build() {
+        return build(new Tanh());
+    }
+
+    public NeuralNetwork build(ActivationFunction activation) {
+        NeuralNetwork nn = new NeuralNetwork();
+        nn.add(new DenseLayer(1, width, activation));
+        for (int i = 1; i < hiddenLayers; i++) {
+            nn.add(new DenseLayer(width, width, activation));
+        }
+        nn.add(new DenseLayer(width, 1, null));
+        return nn;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.GradientPackage;
+import ifndef.nn.core.LayerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class DenseLayerBenchmark {
+
+    private static final int BATCH = 256;
+
+    @Param({"16", "32"})
+    public int width;
+
+    private DenseLayer layer;
+    private LayerContext context;
+    private GradientPackage gradients;
+    private double[] input;
+    private double[] outputGradient;
+    private double[] batchInput;
+    private double[] batchOutputGradient;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        layer = new DenseLayer(width, width, new Tanh());
+        context = layer.createContext();
+        gradients = new GradientPackage(layer.getParameterCount());
+        input = random.doubles(width, -1, 1).toArray();
+        outputGradient = random.doubles(width, -1, 1).toArray();
+        batchInput = random.doubles(BATCH * width, -1, 1).toArray();
+        batchOutputGradient = random.doubles(BATCH * width, -1, 1).toArray();
+
+        layer.forward(input, context);
+        layer.forwardBatch(batchInput, BATCH, context);
+    }
+
+    @Benchmark
+    public double[] forward() {
+        return layer.forward(input, context);
+    }
+
+    @Benchmark
+    public double[] backward() {
+        return layer.backward(outputGradient, context, gradients);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] forwardBatch() {
+        return layer.forwardBatch(batchInput, BATCH, context);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] backwardBatch() {
+        return layer.backwardBatch(batchOutputGradient, BATCH, context, gradients);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.core.GradientPackage;
+import ifndef.nn.core.NeuralNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class GradientPackageBenchmark {
+
+    @Param({"STANDARD", "DEEP"})
+    public Architecture architecture;
+
+    private GradientPackage total;
+    private GradientPackage other;
+
+    @Setup
+    public void setup() {
+        NeuralNetwork network = architecture.build();
+        total = network.createEmptyGradients();
+        other = network.createEmptyGradients();
+        double[] values = other.getValues();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1e-6 * i;
+        }
+    }
+
+    @Benchmark
+    public GradientPackage add() {
+        total.add(other);
+        return total;
+    }
+
+    @Benchmark
+    public GradientPackage addScaled() {
+        total.addScaled(other, 0.5);
+        return total;
+    }
+}
\ No newline at end of file
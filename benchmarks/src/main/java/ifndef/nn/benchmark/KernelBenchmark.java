@@ -0,0 +1,112 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.core.KernelBackend;
+import ifndef.nn.core.MatrixKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar versus Vector API kernels on one dense layer: forward GEMM, input gradient and
+ * weight gradient for a batch, the single-sample forward that {@code predict} uses and the
+ * float forward used by float inference models.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class KernelBenchmark {
+
+    private static final int BATCH = 256;
+
+    @Param({"scalar", "vector"})
+    public String backend;
+
+    @Param({"16", "32", "128"})
+    public int width;
+
+    private KernelBackend kernels;
+    private double[] params;
+    private double[] grads;
+    private double[] in;
+    private double[] out;
+    private double[] delta;
+    private double[] inGrad;
+    private float[] floatParams;
+    private float[] floatIn;
+    private float[] floatOut;
+
+    @Setup
+    public void setup() {
+        kernels = "vector".equals(backend) ? MatrixKernels.vectorBackend() : MatrixKernels.scalarBackend();
+        if (kernels == null) {
+            throw new IllegalStateException("jdk.incubator.vector is not available");
+        }
+        Random random = new Random(42);
+        params = random.doubles(width * width + width, -1, 1).toArray();
+        grads = new double[params.length];
+        in = random.doubles(BATCH * width, -1, 1).toArray();
+        out = new double[BATCH * width];
+        delta = random.doubles(BATCH * width, -1, 1).toArray();
+        inGrad = new double[BATCH * width];
+        floatParams = new float[params.length];
+        for (int i = 0; i < params.length; i++) {
+            floatParams[i] = (float) params[i];
+        }
+        floatIn = new float[in.length];
+        for (int i = 0; i < in.length; i++) {
+            floatIn[i] = (float) in[i];
+        }
+        floatOut = new float[out.length];
+    }
+
+    @Benchmark
+    public double[] forwardBatch() {
+        kernels.forward(in, BATCH, width, params, 0, width * width, out, width);
+        return out;
+    }
+
+    @Benchmark
+    public double[] inputGradientBatch() {
+        kernels.inputGradient(delta, BATCH, width, params, 0, inGrad, width);
+        return inGrad;
+    }
+
+    @Benchmark
+    public double[] weightGradientBatch() {
+        kernels.accumulateWeightGradient(delta, BATCH, width, in, width, grads, 0, width * width);
+        return grads;
+    }
+
+    @Benchmark
+    public float[] forwardBatchFloat() {
+        kernels.forward(floatIn, BATCH, width, floatParams, 0, width * width, floatOut, width, false);
+        return floatOut;
+    }
+
+    @Benchmark
+    public float[] forwardBatchMixed() {
+        kernels.forward(floatIn, BATCH, width, floatParams, 0, width * width, floatOut, width, true);
+        return floatOut;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double[] forwardSingle() {
+        kernels.forward(in, 1, width, params, 0, width * width, out, width);
+        return out;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,68 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.core.ExecutionContext;
+import ifndef.nn.core.NeuralNetwork;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-sample predict latency and batched predict throughput. The batch benchmark reports
+ * time per sample so the two numbers are directly comparable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class NetworkBenchmark {
+
+    private static final int BATCH = 256;
+
+    @Param({"STANDARD", "DEEP"})
+    public Architecture architecture;
+
+    private NeuralNetwork network;
+    private ExecutionContext context;
+    private double[] input;
+    private double[] batchInput;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        network = architecture.build();
+        context = network.createContext();
+        context.ensureBatchCapacity(BATCH);
+        input = new double[]{0.25};
+        batchInput = random.doubles(BATCH, -1, 1).toArray();
+    }
+
+    @Benchmark
+    public double[] predict() {
+        return network.predict(input, context);
+    }
+
+    @Benchmark
+    public double[] predictWithNewContext() {
+        return network.predict(input);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] predictBatch() {
+        return network.predictBatch(batchInput, BATCH, context);
+    }
+}
\ No newline at end of file
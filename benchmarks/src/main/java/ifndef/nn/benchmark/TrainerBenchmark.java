@@ -0,0 +1,67 @@
+package ifndef.nn.benchmark;
+
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.training.Dataset;
+import ifndef.nn.training.SamplingStrategy;
+import ifndef.nn.training.Trainer;
+import ifndef.nn.training.TrainingMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Epochs per second of {@link Trainer#train} over 10,000 sin(x) samples. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class TrainerBenchmark {
+
+    private static final int SAMPLES = 10_000;
+
+    @Param({"STANDARD", "DEEP"})
+    public Architecture architecture;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"128"})
+    public int batchSize;
+
+    @Param({"TASK_PER_BATCH", "PERSISTENT_WORKERS"})
+    public TrainingMode mode;
+
+    private Dataset dataset;
+    private Trainer trainer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataset = new Dataset(Math::sin);
+        dataset.generateData(SAMPLES, -Math.PI, Math.PI, SamplingStrategy.UNIFORM, 42L);
+        trainer = new Trainer(architecture.build(), new MeanSquaredError(), 0.001, threads);
+        trainer.setTrainingMode(mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        trainer.shutdown();
+    }
+
+    @Benchmark
+    public void trainEpoch() {
+        trainer.train(dataset, 1, batchSize, 1);
+    }
+}
\ No newline at end of file
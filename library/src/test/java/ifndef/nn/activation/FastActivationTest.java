@@ -0,0 +1,94 @@
+package ifndef.nn.activation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** The documented error bounds of the table-based activations, checked on a dense sweep. */
+class FastActivationTest {
+
+    private static final double RANGE = 12.0;
+    private static final double STEP = 1e-4;
+
+    @Test
+    void tanhStaysWithinItsBound() {
+        assertBound(new Tanh(), new FastTanh(), 1.1e-8);
+    }
+
+    @Test
+    void sigmoidStaysWithinItsBound() {
+        assertBound(new Sigmoid(), new FastSigmoid(), 5.5e-9);
+    }
+
+    @Test
+    void tanhDerivativeStaysWithinItsBound() {
+        FastTanh fast = new FastTanh();
+        for (double x = -RANGE; x <= RANGE; x += STEP) {
+            double exact = 1.0 - Math.tanh(x) * Math.tanh(x);
+            assertEquals(exact, fast.derivative(x), 2.2e-8, "x = " + x);
+        }
+    }
+
+    /** Interval ends are where the table is exact; midpoints are where the cubic strays furthest. */
+    @Test
+    void tableIsExactAtItsKnots() {
+        for (int i = 0; i < 320; i++) {
+            double x = i / 32.0;
+            assertEquals(Math.tanh(x), TanhTable.tanh(x), 1e-15, "x = " + x);
+            assertEquals(Math.tanh(x + 1 / 64.0), TanhTable.tanh(x + 1 / 64.0), 1.1e-8, "x = " + x);
+        }
+    }
+
+    @Test
+    void tanhIsOddAndSaturates() {
+        for (double x = 0.0; x <= RANGE; x += 0.01) {
+            assertEquals(-TanhTable.tanh(x), TanhTable.tanh(-x));
+        }
+        assertEquals(1.0, TanhTable.tanh(Double.POSITIVE_INFINITY));
+        assertEquals(-1.0, TanhTable.tanh(-1e300));
+        assertTrue(Double.isNaN(TanhTable.tanh(Double.NaN)));
+        assertEquals(0.0, new FastSigmoid().value(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    void bulkMatchesSingleValues() {
+        Random random = new Random(1L);
+        double[] x = new double[1000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = random.nextGaussian() * 4;
+        }
+        double[] gradient = x.clone();
+        for (ActivationFunction f : new ActivationFunction[]{new FastTanh(), new FastSigmoid()}) {
+            double[] y = new double[x.length];
+            double[] delta = new double[x.length];
+            f.value(x, y, x.length);
+            f.backward(gradient, x, y, delta, x.length);
+            for (int i = 0; i < x.length; i++) {
+                assertEquals(f.value(x[i]), y[i]);
+                // Same product, only grouped differently
+                assertEquals(gradient[i] * f.derivative(x[i]), delta[i], 1e-15 * Math.abs(gradient[i]));
+            }
+        }
+    }
+
+    @Test
+    void exactActivationsNameTheirApproximations() {
+        assertInstanceOf(FastTanh.class, new Tanh().fast());
+        assertInstanceOf(FastSigmoid.class, new Sigmoid().fast());
+        ReLU relu = new ReLU();
+        assertEquals(relu, relu.fast());
+    }
+
+    private static void assertBound(ActivationFunction exact, ActivationFunction fast, double bound) {
+        double worst = 0.0;
+        for (double x = -RANGE; x <= RANGE; x += STEP) {
+            worst = Math.max(worst, Math.abs(exact.value(x) - fast.value(x)));
+        }
+        assertTrue(worst < bound, "worst error " + worst);
+        assertEquals(exact.value(0.0), fast.value(0.0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package ifndef.nn.core;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * The Vector API backend against the scalar loops. Sizes are ragged so every kernel runs its
+ * remainder lanes, partial row/column blocks and output counts not divisible by 4. The vector
+ * sums run in a different order, so float and double results only agree to rounding.
+ */
+class KernelParityTest {
+
+    private static final int[] ROWS = {1, 3, 65};
+    private static final int[] INPUTS = {1, 3, 7, 17, 67};
+    private static final int[] OUTPUTS = {1, 2, 5, 13, 66};
+    // Leading parameters before the layer, as for any layer after the first
+    private static final int PAD = 3;
+
+    private static KernelBackend scalar;
+    private static KernelBackend vector;
+
+    @BeforeAll
+    static void backends() {
+        scalar = MatrixKernels.scalarBackend();
+        vector = MatrixKernels.vectorBackend();
+        assertNotNull(vector, "tests run with --add-modules jdk.incubator.vector");
+    }
+
+    @ParameterizedTest
+    @EnumSource(KernelActivation.class)
+    void forwardMatches(KernelActivation activation) {
+        Random random = new Random(1L);
+        for (int rows : ROWS) {
+            for (int in : INPUTS) {
+                for (int out : OUTPUTS) {
+                    double[] input = doubles(random, rows * in);
+                    double[] params = doubles(random, PAD + out * in + out);
+                    double[] expected = new double[rows * out];
+                    double[] actual = new double[rows * out];
+                    scalar.forward(input, rows, in, params, PAD, PAD + out * in, expected, out, activation);
+                    vector.forward(input, rows, in, params, PAD, PAD + out * in, actual, out, activation);
+                    assertClose(expected, actual, 1e-12, rows + "x" + in + " -> " + out);
+                }
+            }
+        }
+    }
+
+    /** The first call runs before the JIT compiles anything; results must not change once it has. */
+    @ParameterizedTest
+    @EnumSource(KernelActivation.class)
+    void forwardIsReproducible(KernelActivation activation) {
+        Random random = new Random(8L);
+        double[] input = doubles(random, 32 * 16);
+        double[] params = doubles(random, 16 * 16 + 16);
+        double[] first = new double[32 * 16];
+        double[] out = new double[32 * 16];
+        vector.forward(input, 32, 16, params, 0, 16 * 16, first, 16, activation);
+        for (int i = 0; i < 20_000; i++) {
+            vector.forward(input, 32, 16, params, 0, 16 * 16, out, 16, activation);
+            assertArrayEquals(first, out, "call " + i);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(KernelActivation.class)
+    void activationGradientMatches(KernelActivation activation) {
+        Random random = new Random(2L);
+        for (int n : new int[]{1, 3, 8, 67, 130}) {
+            double[] gradient = doubles(random, n);
+            double[] y = doubles(random, n);
+            double[] expected = new double[n];
+            double[] actual = new double[n];
+            scalar.activationGradient(activation, gradient, y, expected, n);
+            vector.activationGradient(activation, gradient, y, actual, n);
+            assertClose(expected, actual, 1e-15, "n = " + n);
+        }
+    }
+
+    @Test
+    void floatForwardMatches() {
+        Random random = new Random(3L);
+        for (boolean doubleSums : new boolean[]{false, true}) {
+            for (int rows : ROWS) {
+                for (int in : INPUTS) {
+                    for (int out : OUTPUTS) {
+                        float[] input = floats(random, rows * in);
+                        float[] params = floats(random, PAD + out * in + out);
+                        float[] expected = new float[rows * out];
+                        float[] actual = new float[rows * out];
+                        scalar.forward(input, rows, in, params, PAD, PAD + out * in, expected, out, doubleSums);
+                        vector.forward(input, rows, in, params, PAD, PAD + out * in, actual, out, doubleSums);
+                        for (int i = 0; i < expected.length; i++) {
+                            assertEquals(expected[i], actual[i], 1e-4f * (1 + Math.abs(expected[i])),
+                                    rows + "x" + in + " -> " + out + ", doubleSums " + doubleSums);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Integer dot products have no rounding, so int8 results must be identical. */
+    @Test
+    void int8ForwardIsExact() {
+        Random random = new Random(4L);
+        for (int rows : ROWS) {
+            for (int in : new int[]{1, 3, 7, 17, 67, 131}) {
+                for (int out : OUTPUTS) {
+                    byte[] input = bytes(random, rows * in);
+                    byte[] weights = bytes(random, PAD + out * in);
+                    int[] expected = new int[rows * out];
+                    int[] actual = new int[rows * out];
+                    scalar.forward(input, rows, in, weights, PAD, expected, out);
+                    vector.forward(input, rows, in, weights, PAD, actual, out);
+                    assertArrayEquals(expected, actual, rows + "x" + in + " -> " + out);
+                }
+            }
+        }
+    }
+
+    @Test
+    void inputGradientMatches() {
+        Random random = new Random(5L);
+        for (int rows : ROWS) {
+            for (int in : INPUTS) {
+                for (int out : OUTPUTS) {
+                    double[] delta = doubles(random, rows * out);
+                    double[] params = doubles(random, PAD + out * in);
+                    double[] expected = new double[rows * in];
+                    double[] actual = doubles(random, rows * in);
+                    scalar.inputGradient(delta, rows, out, params, PAD, expected, in);
+                    vector.inputGradient(delta, rows, out, params, PAD, actual, in);
+                    assertClose(expected, actual, 1e-12, rows + "x" + out + " -> " + in);
+                }
+            }
+        }
+    }
+
+    @Test
+    void accumulateWeightGradientMatches() {
+        Random random = new Random(6L);
+        for (int rows : ROWS) {
+            for (int in : INPUTS) {
+                for (int out : OUTPUTS) {
+                    double[] delta = doubles(random, rows * out);
+                    double[] input = doubles(random, rows * in);
+                    // Accumulates, so both start from the same non-zero gradients
+                    double[] expected = doubles(random, PAD + out * in + out);
+                    double[] actual = expected.clone();
+                    scalar.accumulateWeightGradient(delta, rows, out, input, in, expected, PAD, PAD + out * in);
+                    vector.accumulateWeightGradient(delta, rows, out, input, in, actual, PAD, PAD + out * in);
+                    assertClose(expected, actual, 1e-12, rows + " rows, " + in + " -> " + out);
+                }
+            }
+        }
+    }
+
+    @Test
+    void axpyMatches() {
+        Random random = new Random(7L);
+        for (int length : new int[]{0, 1, 3, 4, 9, 67, 130}) {
+            double[] x = doubles(random, length + 5);
+            double[] expected = doubles(random, length + 2);
+            double[] actual = expected.clone();
+            scalar.axpy(-0.75, x, 5, expected, 2, length);
+            vector.axpy(-0.75, x, 5, actual, 2, length);
+            assertClose(expected, actual, 1e-15, "length " + length);
+        }
+    }
+
+    private static void assertClose(double[] expected, double[] actual, double tolerance, String shape) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], actual[i], tolerance * (1 + Math.abs(expected[i])), shape + " at " + i);
+        }
+    }
+
+    private static double[] doubles(Random random, int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextDouble() * 2 - 1;
+        }
+        return values;
+    }
+
+    private static float[] floats(Random random, int n) {
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextFloat() * 2 - 1;
+        }
+        return values;
+    }
+
+    private static byte[] bytes(Random random, int n) {
+        byte[] values = new byte[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = (byte) (random.nextInt(255) - 127);
+        }
+        return values;
+    }
+}
\ No newline at end of file
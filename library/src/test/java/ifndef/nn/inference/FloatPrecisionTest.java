@@ -0,0 +1,82 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.GradientPackage;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.core.Precision;
+import ifndef.nn.optimizer.SGD;
+import ifndef.nn.util.BinaryModelFormat;
+import ifndef.nn.util.TrainedModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Float precision is a storage and serving format; training stays in double. */
+class FloatPrecisionTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void floatModelStaysClose() {
+        TrainedModel model = InferenceModelTest.createModel();
+        double[] xs = InferenceModelTest.inputs();
+
+        for (Precision precision : new Precision[]{Precision.FLOAT, Precision.MIXED}) {
+            double[] ys = new double[InferenceModelTest.SAMPLES * 2];
+            new InferenceModel(model, precision).predict(xs, ys, InferenceModelTest.SAMPLES);
+
+            assertArrayEquals(InferenceModelTest.reference(model, xs), ys, 1e-4, precision.toString());
+        }
+    }
+
+    @Test
+    void trainingKeepsDoubleWeights() {
+        NeuralNetwork network = new NeuralNetwork(Precision.FLOAT);
+        network.add(new DenseLayer(4, 4, null));
+        GradientPackage gradients = network.createEmptyGradients();
+        double[] g = gradients.getValues();
+        for (int i = 0; i < g.length; i++) {
+            g[i] = 1e-3 / (i + 3);
+        }
+
+        network.applyGradients(gradients, new SGD(network.getParameterCount(), 0.1));
+
+        assertTrue(countDoubleOnly(network.getParameters()) > 0);
+    }
+
+    @Test
+    void savingRoundsToFloat() throws IOException {
+        TrainedModel model = InferenceModelTest.createModel();
+        NeuralNetwork network = new NeuralNetwork(Precision.FLOAT, model.getNetwork().getLayers());
+        TrainedModel floatModel = new TrainedModel(network, model.getFunctionInfo(), model.getInputNormalizer(),
+                model.getOutputNormalizer());
+        double[] parameters = network.getParameters();
+        assertTrue(countDoubleOnly(parameters) > 0);
+
+        String file = dir.resolve("model.nnb").toString();
+        BinaryModelFormat.save(floatModel, file);
+        double[] loaded = BinaryModelFormat.load(file).getNetwork().getParameters();
+
+        assertEquals(parameters.length, loaded.length);
+        for (int i = 0; i < parameters.length; i++) {
+            assertEquals((float) parameters[i], loaded[i]);
+        }
+    }
+
+    private static int countDoubleOnly(double[] values) {
+        int count = 0;
+        for (double value : values) {
+            if ((float) value != value) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.activation.ReLU;
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.util.DataNormalizer;
+import ifndef.nn.util.FunctionInfo;
+import ifndef.nn.util.TrainedModel;
+import ifndef.nn.util.VectorFunction;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Compiled models against the reference: normalize, {@link NeuralNetwork#predict}, denormalize. */
+class InferenceModelTest {
+
+    private static final double[] INPUT_MIN = {-3.0, 0.0};
+    private static final double[] INPUT_MAX = {3.0, 10.0};
+    static final int SAMPLES = 500;
+
+    @Test
+    void foldedNormalizationMatchesNetwork() {
+        TrainedModel model = createModel();
+        double[] xs = inputs();
+
+        double[] ys = new double[SAMPLES * 2];
+        new InferenceModel(model).predict(xs, ys, SAMPLES);
+
+        assertArrayEquals(reference(model, xs), ys, 1e-9);
+    }
+
+    @Test
+    void singlePredictionMatchesBatch() {
+        InferenceModel model = new InferenceModel(createModel());
+        double[] xs = inputs();
+        double[] batch = new double[SAMPLES * 2];
+        model.predict(xs, batch, SAMPLES);
+
+        double[] out = new double[2];
+        model.predict(new double[]{xs[6], xs[7]}, out);
+        assertEquals(batch[6], out[0], 1e-12);
+        assertEquals(batch[7], out[1], 1e-12);
+    }
+
+    static double[] reference(TrainedModel model, double[] xs) {
+        NeuralNetwork network = model.getNetwork();
+        DataNormalizer in = model.getInputNormalizer();
+        DataNormalizer out = model.getOutputNormalizer();
+        double[] ys = new double[SAMPLES * 2];
+        for (int i = 0; i < SAMPLES; i++) {
+            double[] x = {in.normalize(xs[2 * i], 0), in.normalize(xs[2 * i + 1], 1)};
+            double[] y = network.predict(x);
+            ys[2 * i] = out.denormalize(y[0], 0);
+            ys[2 * i + 1] = out.denormalize(y[1], 1);
+        }
+        return ys;
+    }
+
+    static double[] inputs() {
+        Random random = new Random(3L);
+        double[] xs = new double[SAMPLES * 2];
+        for (int i = 0; i < xs.length; i++) {
+            int feature = i % 2;
+            xs[i] = INPUT_MIN[feature] + random.nextDouble() * (INPUT_MAX[feature] - INPUT_MIN[feature]);
+        }
+        return xs;
+    }
+
+    static TrainedModel createModel() {
+        NeuralNetwork network = new NeuralNetwork();
+        network.add(new DenseLayer(2, 16, new Tanh()));
+        network.add(new DenseLayer(16, 16, new ReLU()));
+        network.add(new DenseLayer(16, 2, null));
+        double[] parameters = network.getParameters();
+        Random random = new Random(42L);
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = random.nextGaussian() * 0.5;
+        }
+        FunctionInfo info = new FunctionInfo("f(x, y) = test", (VectorFunction) null, INPUT_MIN, INPUT_MAX, 2, true);
+        return new TrainedModel(network, info, new DataNormalizer(INPUT_MIN, INPUT_MAX),
+                new DataNormalizer(new double[]{-2.0, 0.0}, new double[]{2.0, 50.0}));
+    }
+}
\ No newline at end of file
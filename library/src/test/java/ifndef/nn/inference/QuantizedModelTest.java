@@ -0,0 +1,82 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.util.TrainedModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantizedModelTest {
+
+    private static final int SAMPLES = InferenceModelTest.SAMPLES;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void quantizedModelStaysClose() throws IOException {
+        TrainedModel model = InferenceModelTest.createModel();
+        QuantizedModel quantized = QuantizedModel.quantize(model, 5000, 11L);
+        AccuracyReport report = AccuracyReport.compare("int8", new InferenceModel(model), quantized,
+                model.getFunctionInfo(), 5000, 5L);
+        // Percent of the output range
+        assertTrue(report.getRelativeMaxError() < 5.0, report.toString());
+
+        String file = dir.resolve("model.nnq").toString();
+        quantized.save(file);
+        QuantizedModel loaded = QuantizedModel.load(file);
+        double[] xs = InferenceModelTest.inputs();
+        double[] expected = new double[SAMPLES * 2];
+        double[] actual = new double[SAMPLES * 2];
+        quantized.predict(xs, expected, SAMPLES);
+        loaded.predict(xs, actual, SAMPLES);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void rejectsTruncatedFiles() throws IOException {
+        byte[] bytes = save();
+
+        Path truncated = dir.resolve("truncated.nnq");
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> QuantizedModel.load(truncated.toString()), length + " bytes");
+        }
+    }
+
+    /** Sizes that would otherwise fail as NegativeArraySizeException or OutOfMemoryError. */
+    @Test
+    void rejectsCorruptCounts() throws IOException {
+        byte[] bytes = save();
+        // magic, version, layer count, then inputSize, outputSize, activation per layer
+        int layerCount = 8;
+        int firstLayer = 12;
+        int secondLayer = firstLayer + 12;
+
+        for (int[] corruption : new int[][]{{layerCount, -1}, {layerCount, 0}, {layerCount, Integer.MAX_VALUE},
+                {firstLayer, -2}, {firstLayer, 1 << 20}, {firstLayer + 4, 1 << 16}, {firstLayer + 8, 99},
+                {secondLayer, 7}, {secondLayer + 4, Integer.MAX_VALUE}}) {
+            byte[] corrupt = bytes.clone();
+            ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+            Path target = dir.resolve("corrupt.nnq");
+            Files.write(target, corrupt);
+            assertThrows(IOException.class, () -> QuantizedModel.load(target.toString()),
+                    corruption[1] + " at " + corruption[0]);
+        }
+    }
+
+    private byte[] save() throws IOException {
+        Path file = dir.resolve("model.nnq");
+        QuantizedModel.quantize(InferenceModelTest.createModel(), 1000, 11L).save(file.toString());
+        return Files.readAllBytes(file);
+    }
+}
\ No newline at end of file
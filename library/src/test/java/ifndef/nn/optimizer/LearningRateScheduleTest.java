@@ -0,0 +1,67 @@
+package ifndef.nn.optimizer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LearningRateScheduleTest {
+
+    private static final double BASE = 0.1;
+
+    @Test
+    void stepDecayHalvesEveryStep() {
+        StepDecay decay = new StepDecay(2, 0.5);
+        assertEquals(0.1, decay.learningRate(1, BASE), 1e-15);
+        assertEquals(0.1, decay.learningRate(2, BASE), 1e-15);
+        assertEquals(0.05, decay.learningRate(3, BASE), 1e-15);
+        assertEquals(0.025, decay.learningRate(5, BASE), 1e-15);
+    }
+
+    @Test
+    void cosineAnnealingRunsFromBaseToMinimum() {
+        CosineAnnealing cosine = new CosineAnnealing(11, 0.001);
+        assertEquals(BASE, cosine.learningRate(1, BASE), 1e-15);
+        assertEquals((BASE + 0.001) / 2, cosine.learningRate(6, BASE), 1e-15);
+        assertEquals(0.001, cosine.learningRate(11, BASE), 1e-15);
+        assertEquals(0.001, cosine.learningRate(50, BASE), 1e-15);
+    }
+
+    @Test
+    void warmupRampsUpThenHandsOver() {
+        Warmup warmup = new Warmup(4, new StepDecay(1, 0.5));
+        assertEquals(0.025, warmup.learningRate(1, BASE), 1e-15);
+        assertEquals(0.1, warmup.learningRate(4, BASE), 1e-15);
+        assertEquals(0.1, warmup.learningRate(5, BASE), 1e-15);
+        assertEquals(0.05, warmup.learningRate(6, BASE), 1e-15);
+    }
+
+    @Test
+    void reduceOnPlateauCutsAfterPatienceFlatLosses() {
+        ReduceOnPlateau plateau = new ReduceOnPlateau(0.5, 2, 0.0, 0.02);
+        plateau.observeLoss(1.0);
+        plateau.observeLoss(1.0);
+        assertEquals(BASE, plateau.learningRate(3, BASE), 1e-15);
+        plateau.observeLoss(1.0);
+        assertEquals(0.05, plateau.learningRate(4, BASE), 1e-15);
+        plateau.observeLoss(0.5);
+        plateau.observeLoss(0.6);
+        plateau.observeLoss(0.6);
+        plateau.observeLoss(0.6);
+        plateau.observeLoss(0.6);
+        // Floored at the minimum rate
+        assertEquals(0.02, plateau.learningRate(9, BASE), 1e-15);
+    }
+
+    @Test
+    void reduceOnPlateauStateRoundTrips() {
+        ReduceOnPlateau plateau = new ReduceOnPlateau(0.5, 1, 0.0, 0.0);
+        plateau.observeLoss(1.0);
+        plateau.observeLoss(2.0);
+
+        ReduceOnPlateau restored = new ReduceOnPlateau(0.5, 1, 0.0, 0.0);
+        restored.setState(plateau.getState());
+        assertArrayEquals(plateau.getState(), restored.getState());
+        assertEquals(plateau.learningRate(3, BASE), restored.learningRate(3, BASE));
+    }
+}
\ No newline at end of file
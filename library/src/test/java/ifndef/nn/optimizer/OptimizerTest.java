@@ -0,0 +1,124 @@
+package ifndef.nn.optimizer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Each update rule against the same rule written out by hand for two steps. */
+class OptimizerTest {
+
+    private static final double LR = 0.1;
+    private static final double[] G1 = {0.5, -2.0, 0.0};
+    private static final double[] G2 = {-1.0, 1.0, 4.0};
+
+    @Test
+    void sgdStepsAgainstTheGradient() {
+        double[] p = {1.0, 2.0, 3.0};
+        step(new SGD(3, LR), p, G1);
+        assertArrayEquals(new double[]{0.95, 2.2, 3.0}, p, 1e-15);
+    }
+
+    @Test
+    void momentumAccumulatesVelocity() {
+        double mu = 0.9;
+        double[] p = {1.0, 2.0, 3.0};
+        Momentum momentum = new Momentum(3, LR, mu, false);
+        step(momentum, p, G1);
+        step(momentum, p, G2);
+
+        for (int i = 0; i < 3; i++) {
+            double v1 = G1[i];
+            double v2 = mu * v1 + G2[i];
+            assertEquals(initial(i) - LR * v1 - LR * v2, p[i], 1e-15);
+            assertEquals(v2, momentum.getState()[0][i], 1e-15);
+        }
+    }
+
+    @Test
+    void nesterovLooksAheadAlongTheVelocity() {
+        double mu = 0.9;
+        double[] p = {1.0, 2.0, 3.0};
+        Momentum nesterov = new Momentum(3, LR, mu, true);
+        step(nesterov, p, G1);
+        step(nesterov, p, G2);
+
+        for (int i = 0; i < 3; i++) {
+            double v1 = G1[i];
+            double v2 = mu * v1 + G2[i];
+            double expected = initial(i) - LR * (G1[i] + mu * v1) - LR * (G2[i] + mu * v2);
+            assertEquals(expected, p[i], 1e-15);
+        }
+    }
+
+    @Test
+    void adamCorrectsItsMomentBias() {
+        double b1 = 0.9;
+        double b2 = 0.999;
+        double eps = 1e-8;
+        double[] p = {1.0, 2.0, 3.0};
+        Adam adam = new Adam(3, LR, b1, b2, eps);
+        step(adam, p, G1);
+
+        // After one step the corrected moments are g and g^2, so every weight moves by lr * sign(g)
+        assertArrayEquals(new double[]{1.0 - LR, 2.0 + LR, 3.0}, p, 1e-7);
+
+        step(adam, p, G2);
+        assertEquals(2, adam.getStepCount());
+        for (int i = 0; i < 3; i++) {
+            double m = b1 * (1 - b1) * G1[i] + (1 - b1) * G2[i];
+            double v = b2 * (1 - b2) * G1[i] * G1[i] + (1 - b2) * G2[i] * G2[i];
+            assertEquals(m, adam.getState()[0][i], 1e-15);
+            assertEquals(v, adam.getState()[1][i], 1e-15);
+        }
+    }
+
+    @Test
+    void rmsPropScalesByTheRunningMeanSquare() {
+        double rho = 0.9;
+        double eps = 1e-8;
+        double[] p = {1.0, 2.0, 3.0};
+        RMSProp rmsProp = new RMSProp(3, LR, rho, eps);
+        step(rmsProp, p, G1);
+        step(rmsProp, p, G2);
+
+        for (int i = 0; i < 3; i++) {
+            double s1 = (1 - rho) * G1[i] * G1[i];
+            double s2 = rho * s1 + (1 - rho) * G2[i] * G2[i];
+            double expected = initial(i) - LR * G1[i] / (Math.sqrt(s1) + eps) - LR * G2[i] / (Math.sqrt(s2) + eps);
+            assertEquals(expected, p[i], 1e-12);
+        }
+    }
+
+    /** The persistent-worker loop updates disjoint stripes of one step from different threads. */
+    @Test
+    void stripedUpdatesMatchOneFullUpdate() {
+        double[] full = {1.0, 2.0, 3.0};
+        double[] striped = full.clone();
+        Adam whole = new Adam(3, LR);
+        Adam stripes = new Adam(3, LR);
+        for (double[] g : new double[][]{G1, G2}) {
+            whole.beginStep();
+            whole.update(full, g, 0, 3);
+            stripes.beginStep();
+            stripes.update(striped, g, 2, 3);
+            stripes.update(striped, g, 0, 2);
+        }
+        assertArrayEquals(full, striped);
+    }
+
+    @Test
+    void rejectsParametersOfAnotherSize() {
+        assertThrows(IllegalArgumentException.class, () -> new Adam(3, LR).update(new double[4], new double[4], 0, 4));
+    }
+
+    private static void step(Optimizer optimizer, double[] parameters, double[] gradients) {
+        optimizer.beginStep();
+        optimizer.update(parameters, gradients, 0, parameters.length);
+    }
+
+    private static double initial(int i) {
+        return i + 1.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package ifndef.nn.search;
+
+import ifndef.nn.activation.Activations;
+import ifndef.nn.util.FunctionInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(120)
+class HyperparameterSearchTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void gridSearchPrunesTheWorseHalf() {
+        List<Trial> ranked = createSearch(SearchStrategy.GRID, 1L).run();
+
+        // Rungs of 3 and 9 epochs; one of the two candidates survives the first
+        assertEquals(2, ranked.size());
+        Trial best = ranked.get(0);
+        assertEquals(Trial.Status.COMPLETED, best.getStatus());
+        assertEquals(9, best.getEpochs());
+        assertNotNull(best.getNetwork());
+        Trial pruned = ranked.get(1);
+        assertEquals(Trial.Status.PRUNED, pruned.getStatus());
+        assertEquals(3, pruned.getEpochs());
+        assertNull(pruned.getNetwork());
+    }
+
+    /** The seed fixes the candidates; weights start random, so the ranking may differ. */
+    @Test
+    void randomSearchDrawsTheSameCandidatesForASeed() {
+        assertEquals(randomCandidates(7L), randomCandidates(7L));
+    }
+
+    @Test
+    void randomSearchWithoutPruningTrainsEveryTrialFully() {
+        HyperparameterSearch search = createSearch(SearchStrategy.RANDOM, 5L);
+        search.setRandomTrials(3);
+        search.setPruning(false);
+
+        for (Trial trial : search.run()) {
+            assertEquals(Trial.Status.COMPLETED, trial.getStatus());
+            assertEquals(9, trial.getEpochs());
+        }
+    }
+
+    /** maxEpochs 9, first rung 1, eta 3: brackets of 9, 5 and 3 trials, each finishing one third or all. */
+    @Test
+    void hyperbandRunsEveryBracket() throws IOException {
+        HyperparameterSearch search = createSearch(SearchStrategy.HYPERBAND, 3L);
+        search.setMinEpochs(1);
+        Path leaderboard = dir.resolve("leaderboard.csv");
+        search.setLeaderboardFile(leaderboard.toString());
+        List<Trial> ranked = search.run();
+
+        assertEquals(9 + 5 + 3, ranked.size());
+        long completed = ranked.stream().filter(t -> t.getStatus() == Trial.Status.COMPLETED).count();
+        assertEquals(1 + 1 + 3, completed);
+        for (int i = 0; i < ranked.size(); i++) {
+            Trial trial = ranked.get(i);
+            assertEquals(i < completed ? Trial.Status.COMPLETED : Trial.Status.PRUNED, trial.getStatus());
+            if (i > 0 && i < completed) {
+                assertTrue(trial.getValidationLoss() >= ranked.get(i - 1).getValidationLoss());
+            }
+        }
+        assertEquals(ranked.size() + 1, Files.readAllLines(leaderboard).size());
+    }
+
+    @Test
+    void trialRecordsRungsAndLetsGoWhenPruned() {
+        TrialConfig config = new TrialConfig(Architecture.STANDARD, Activations.TANH, OptimizerType.ADAM, 0.01, 32, 100);
+        Trial trial = new Trial(1, 1, config, config.createNetwork(1, 1), null);
+
+        assertEquals(Trial.Status.RUNNING, trial.getStatus());
+        assertTrue(Double.isNaN(trial.getValidationLoss()));
+        trial.record(3, 0.5, 1.0);
+        trial.record(9, 0.25, 2.0);
+        assertEquals(9, trial.getEpochs());
+        assertEquals(0.25, trial.getValidationLoss());
+        assertEquals(3.0, trial.getSeconds());
+
+        trial.prune();
+        assertEquals(Trial.Status.PRUNED, trial.getStatus());
+        assertNull(trial.getNetwork());
+        assertNull(trial.getOptimizer());
+    }
+
+    private static Set<String> randomCandidates(long seed) {
+        HyperparameterSearch search = createSearch(SearchStrategy.RANDOM, seed);
+        search.setRandomTrials(4);
+        search.setMaxEpochs(1);
+        search.setMinEpochs(1);
+        Set<String> candidates = new TreeSet<>();
+        for (Trial trial : search.run()) {
+            TrialConfig config = trial.getConfig();
+            candidates.add(config + " " + config.getLearningRate());
+        }
+        return candidates;
+    }
+
+    private static HyperparameterSearch createSearch(SearchStrategy strategy, long seed) {
+        SearchSpace space = new SearchSpace();
+        space.setArchitectures(Architecture.STANDARD);
+        space.setActivations(Activations.TANH);
+        space.setLearningRates(0.003, 0.03);
+        space.setBatchSizes(32);
+        space.setSampleCounts(300);
+
+        HyperparameterSearch search = new HyperparameterSearch(
+                new FunctionInfo("f(x) = sin(x)", Math::sin, -Math.PI, Math.PI, true), space);
+        search.setStrategy(strategy);
+        search.setMaxEpochs(9);
+        search.setMinEpochs(3);
+        search.setEta(3);
+        search.setCores(2);
+        search.setThreadsPerTrial(1);
+        search.setValidationSamples(300);
+        search.setSeed(seed);
+        return search;
+    }
+}
\ No newline at end of file
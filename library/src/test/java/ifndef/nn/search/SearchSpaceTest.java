@@ -0,0 +1,75 @@
+package ifndef.nn.search;
+
+import ifndef.nn.activation.Activations;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchSpaceTest {
+
+    @Test
+    void gridHoldsEveryCombinationOnce() {
+        SearchSpace space = new SearchSpace();
+        space.setLearningRates(0.001, 0.01);
+        space.setSampleCounts(100);
+
+        List<TrialConfig> grid = space.grid();
+        // 2 architectures x 2 activations x 1 optimizer x 2 rates x 2 batch sizes x 1 sample count
+        assertEquals(16, grid.size());
+        Set<String> distinct = new HashSet<>();
+        for (TrialConfig config : grid) {
+            distinct.add(config.toString());
+            assertEquals(100, config.getSamples());
+        }
+        assertEquals(grid.size(), distinct.size());
+    }
+
+    @Test
+    void samplesStayInsideTheSpace() {
+        SearchSpace space = new SearchSpace();
+        space.setArchitectures(Architecture.DEEP);
+        space.setActivations(Activations.SIGMOID);
+        space.setLearningRates(0.01, 0.0001, 0.001);
+        space.setBatchSizes(8, 64);
+
+        Random random = new Random(1L);
+        double smallest = 1.0;
+        double largest = 0.0;
+        for (int i = 0; i < 1000; i++) {
+            TrialConfig config = space.sample(random);
+            assertEquals(Architecture.DEEP, config.getArchitecture());
+            assertEquals("Sigmoid", config.getActivationName());
+            assertTrue(config.getBatchSize() == 8 || config.getBatchSize() == 64);
+            smallest = Math.min(smallest, config.getLearningRate());
+            largest = Math.max(largest, config.getLearningRate());
+        }
+        assertTrue(smallest >= 0.0001 && smallest < 0.0002, "smallest rate " + smallest);
+        assertTrue(largest <= 0.01 && largest > 0.005, "largest rate " + largest);
+    }
+
+    @Test
+    void sameSeedDrawsTheSamePoints() {
+        SearchSpace space = new SearchSpace();
+        Random first = new Random(5L);
+        Random second = new Random(5L);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(space.sample(first).toString(), space.sample(second).toString());
+        }
+    }
+
+    @Test
+    void rejectsEmptyOrInvalidChoices() {
+        SearchSpace space = new SearchSpace();
+        assertThrows(IllegalArgumentException.class, space::setArchitectures);
+        assertThrows(IllegalArgumentException.class, space::setBatchSizes);
+        assertThrows(IllegalArgumentException.class, () -> space.setLearningRates(0.01, 0.0));
+        assertThrows(IllegalArgumentException.class, () -> space.setActivations(Activations.LINEAR));
+    }
+}
\ No newline at end of file
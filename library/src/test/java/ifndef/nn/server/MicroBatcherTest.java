@@ -0,0 +1,141 @@
+package ifndef.nn.server;
+
+import ifndef.nn.inference.Predictor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(30)
+class MicroBatcherTest {
+
+    @Test
+    void coalescesConcurrentRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // The first batch blocks, so the requests behind it pile up and go through together
+        Predictor doubling = predictor((xs, ys, n) -> {
+            await(release);
+            for (int i = 0; i < n; i++) {
+                ys[i] = 2 * xs[i];
+            }
+        });
+        try (MicroBatcher batcher = new MicroBatcher("test", doubling, 16, 1000)) {
+            List<CompletableFuture<double[]>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                results.add(batcher.submit(new double[]{i}));
+            }
+            release.countDown();
+            for (int i = 0; i < 10; i++) {
+                assertArrayEquals(new double[]{2.0 * i}, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+
+            LatencyStats stats = batcher.getStats();
+            assertEquals(10, stats.getRequests());
+            assertTrue(stats.getBatches() < 10, stats.getBatches() + " batches");
+            assertTrue(stats.getAverageBatchSize() > 1.0);
+        }
+    }
+
+    @Test
+    void failingBatchFailsOnlyItsRequests() throws Exception {
+        boolean[] fail = {true};
+        Predictor flaky = predictor((xs, ys, n) -> {
+            if (fail[0]) {
+                fail[0] = false;
+                throw new StackOverflowError("deep");
+            }
+            ys[0] = xs[0];
+        });
+        try (MicroBatcher batcher = new MicroBatcher("test", flaky, 1, 0)) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> batcher.submit(new double[]{1.0}).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, e.getCause());
+
+            // An Error does not take the dispatcher down with it
+            assertArrayEquals(new double[]{3.0}, batcher.submit(new double[]{3.0}).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void requestsFailOnceClosed() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Predictor blocking = predictor((xs, ys, n) -> {
+            entered.countDown();
+            await(release);
+        });
+        MicroBatcher batcher = new MicroBatcher("test", blocking, 1, 0);
+        CompletableFuture<double[]> inFlight = batcher.submit(new double[]{1.0});
+        entered.await();
+        CompletableFuture<double[]> queued = batcher.submit(new double[]{2.0});
+        batcher.close();
+        release.countDown();
+
+        inFlight.get(5, TimeUnit.SECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertThrows(IllegalStateException.class, () -> batcher.submit(new double[]{3.0}));
+    }
+
+    @Test
+    void rejectsInputsOfTheWrongSize() {
+        try (MicroBatcher batcher = new MicroBatcher("test", predictor((xs, ys, n) -> { }), 4, 0)) {
+            assertThrows(IllegalArgumentException.class, () -> batcher.submit(new double[2]));
+        }
+    }
+
+    @Test
+    void percentilesCoverTheRecordedLatencies() {
+        LatencyStats stats = new LatencyStats();
+        for (int i = 1; i <= 100; i++) {
+            stats.recordRequest(i * 1_000_000L);
+        }
+        stats.recordBatch();
+        assertEquals(50.0, stats.getPercentileMillis(0.50));
+        assertEquals(99.0, stats.getPercentileMillis(0.99));
+        assertEquals(100.0, stats.getAverageBatchSize());
+        assertTrue(stats.toJson().contains("\"p99Ms\":99.000"), stats.toJson());
+    }
+
+    interface Body {
+        void predict(double[] xs, double[] ys, int n);
+    }
+
+    static Predictor predictor(Body body) {
+        return new Predictor() {
+            @Override
+            public int getInputSize() {
+                return 1;
+            }
+
+            @Override
+            public int getOutputSize() {
+                return 1;
+            }
+
+            @Override
+            public void predict(double[] xs, double[] ys, int n) {
+                body.predict(xs, ys, n);
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
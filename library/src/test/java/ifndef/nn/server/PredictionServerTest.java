@@ -0,0 +1,60 @@
+package ifndef.nn.server;
+
+import ifndef.nn.inference.Predictor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Timeout(30)
+class PredictionServerTest {
+
+    @Test
+    void servesPredictionsAsJson() throws IOException {
+        Map<String, Predictor> models = new LinkedHashMap<>();
+        models.put("square", MicroBatcherTest.predictor((xs, ys, n) -> {
+            for (int i = 0; i < n; i++) {
+                ys[i] = xs[i] < 0 ? Double.NaN : xs[i] * xs[i];
+            }
+        }));
+        models.put("bro\"ken", MicroBatcherTest.predictor((xs, ys, n) -> {
+            throw new IllegalStateException("bad \"weights\"\n");
+        }));
+
+        try (PredictionServer server = new PredictionServer(0, models, 8, 100)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort();
+
+            assertEquals("{\"model\":\"square\",\"y\":[2.25]}", get(base + "/predict?model=square&x=1.5"));
+            assertEquals("{\"model\":\"square\",\"y\":[null]}", get(base + "/predict?model=square&x=-1"));
+            assertEquals("{\"error\":\"bad \\\"weights\\\"\\u000a\"}", get(base + "/predict?model=bro%22ken&x=1"));
+            assertEquals("[\"square\",\"bro\\\"ken\"]", get(base + "/models"));
+            assertEquals("{\"error\":\"x must be numeric\"}", get(base + "/predict?model=square&x=abc"));
+        }
+    }
+
+    @Test
+    void escapesJsonStrings() {
+        assertEquals("\"a\\\\b\\\"c\\u0009\"", PredictionServer.jsonString("a\\b\"c\t"));
+        assertEquals("null", PredictionServer.jsonNumber(Double.POSITIVE_INFINITY));
+        assertEquals("-0.5", PredictionServer.jsonNumber(-0.5));
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try (InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream()
+                : connection.getErrorStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package ifndef.nn.telemetry;
+
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.optimizer.Adam;
+import ifndef.nn.training.Dataset;
+import ifndef.nn.training.SamplingStrategy;
+import ifndef.nn.training.Trainer;
+import ifndef.nn.util.DataNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TrainingTelemetryTest {
+
+    private static final int MEGABYTES = 32;
+
+    // Keeps the allocations from being optimized away
+    private static volatile Object sink;
+
+    private TrainingTelemetry telemetry;
+
+    @BeforeEach
+    void createTelemetry() {
+        telemetry = new TrainingTelemetry(createNetwork());
+        assumeTrue(telemetry.allocatedBytes() >= 0, "no per-thread allocation counter");
+    }
+
+    @Test
+    void countsTrainerSteps() {
+        NeuralNetwork network = createNetwork();
+        Trainer trainer = new Trainer(network, new MeanSquaredError(), new Adam(network.getParameterCount(), 0.01), 2);
+        trainer.setNormalizers(new DataNormalizer(-Math.PI, Math.PI), new DataNormalizer(-1.0, 1.0));
+        trainer.setVerbose(false);
+        Dataset dataset = new Dataset(Math::sin);
+        dataset.generateData(500, -Math.PI, Math.PI, SamplingStrategy.UNIFORM, 3L);
+        trainer.train(dataset, 3, 50, 0);
+        trainer.shutdown();
+
+        TrainingTelemetry stats = trainer.getTelemetry();
+        assertEquals(3 * 10, stats.getSteps());
+        assertEquals(3, stats.getEpoch());
+        assertTrue(stats.getAllocatedBytesPerStep() > 0.0);
+    }
+
+    @Test
+    void ignoresOtherThreads() throws InterruptedException {
+        long before = telemetry.allocatedBytes();
+        run(false);
+
+        assertEquals(before, telemetry.allocatedBytes());
+    }
+
+    /** A tracked thread's allocations still count once it has exited. */
+    @Test
+    void keepsCountsOfFinishedThreads() throws InterruptedException {
+        long before = telemetry.allocatedBytes();
+        run(true);
+
+        long allocated = telemetry.allocatedBytes() - before;
+        assertTrue(allocated >= MEGABYTES << 20, allocated + " bytes");
+        assertTrue(allocated < 2L * MEGABYTES << 20, allocated + " bytes");
+    }
+
+    private static NeuralNetwork createNetwork() {
+        NeuralNetwork network = new NeuralNetwork();
+        network.add(new DenseLayer(1, 4, new Tanh()));
+        network.add(new DenseLayer(4, 1, null));
+        return network;
+    }
+
+    private void run(boolean tracked) throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            if (tracked) {
+                telemetry.trackCurrentThread();
+            }
+            try {
+                for (int i = 0; i < MEGABYTES; i++) {
+                    sink = new byte[1 << 20];
+                }
+            } finally {
+                if (tracked) {
+                    telemetry.untrackCurrentThread();
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.MeanSquaredError;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(60)
+class CheckpointTest {
+
+    private static final int BATCH_SIZE = TrainerTest.BATCH_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @EnumSource(TrainingMode.class)
+    void resumedRunMatchesUninterruptedRun(TrainingMode mode) throws Exception {
+        Dataset dataset = TrainerTest.createDataset();
+        String checkpoint = dir.resolve("run.nnc").toString();
+
+        NeuralNetwork uninterrupted = TrainerTest.createNetwork(1L);
+        Trainer trainer = TrainerTest.createTrainer(uninterrupted, new MeanSquaredError(), mode);
+        trainer.train(dataset, 12, BATCH_SIZE, 0);
+        trainer.shutdown();
+
+        Trainer first = TrainerTest.createTrainer(TrainerTest.createNetwork(1L), new MeanSquaredError(), mode);
+        first.setCheckpointing(checkpoint, 3);
+        first.train(dataset, 6, BATCH_SIZE, 0);
+        first.shutdown();
+
+        // Different starting weights: everything must come from the checkpoint
+        NeuralNetwork resumed = TrainerTest.createNetwork(2L);
+        Trainer second = TrainerTest.createTrainer(resumed, new MeanSquaredError(), mode);
+        second.setSeed(99L);
+        assertEquals(6, second.resume(checkpoint).getEpoch());
+        second.train(dataset, 12, BATCH_SIZE, 0);
+        second.shutdown();
+
+        assertArrayEquals(uninterrupted.getParameters(), resumed.getParameters());
+    }
+
+    /** An unchecked failure while writing must not leave the final checkpoint waiting forever. */
+    @Test
+    void failedWritesDoNotStallTraining() {
+        NeuralNetwork network = TrainerTest.createNetwork(1L);
+        Trainer trainer = TrainerTest.createTrainer(network, new MeanSquaredError(), TrainingMode.TASK_PER_BATCH);
+        // Paths.get rejects the NUL character with an InvalidPathException
+        trainer.setCheckpointing(dir.resolve("run").toString() + "\0.nnc", 1);
+        trainer.train(TrainerTest.createDataset(), 4, BATCH_SIZE, 0);
+        trainer.shutdown();
+
+        assertTrue(trainer.getTelemetry().getSteps() > 0);
+    }
+
+    @Test
+    void failedWriteReturnsTheSpare() {
+        CheckpointWriter writer = new CheckpointWriter(dir + "/bad\0.nnc", 2, 1L, null, null);
+        try {
+            assertTrue(writer.isDue(4));
+            Checkpoint checkpoint = writer.acquire(false);
+            writer.submit(checkpoint);
+            // The write fails; the spare must still come back
+            assertEquals(checkpoint, writer.acquire(true));
+        } finally {
+            writer.close();
+        }
+    }
+}
\ No newline at end of file
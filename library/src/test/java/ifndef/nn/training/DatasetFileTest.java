@@ -0,0 +1,151 @@
+package ifndef.nn.training;
+
+import ifndef.nn.util.VectorFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Memory-mapped datasets against the same samples held on the heap. */
+class DatasetFileTest {
+
+    private static final int SAMPLES = 1000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void mappedSamplesMatchTheHeapDataset() throws IOException {
+        Dataset heap = createDataset();
+        Path file = dir.resolve("data.nnd");
+        DatasetFile.write(heap, file);
+
+        Dataset mapped = DatasetFile.open(file);
+        assertEquals(SAMPLES, mapped.size());
+        assertEquals(2, mapped.getInputSize());
+        assertEquals(3, mapped.getOutputSize());
+        assertSameSamples(heap, mapped);
+        assertArrayEquals(heap.getOutputMin(), mapped.getOutputMin());
+        assertArrayEquals(heap.getInputMax(), mapped.getInputMax());
+
+        // Shuffles and subsets only reorder the index, for either store
+        heap.shuffle(new Random(5L));
+        mapped.shuffle(new Random(5L));
+        assertSameSamples(heap.subset(100, 400), mapped.subset(100, 400));
+    }
+
+    @Test
+    void mappedDatasetSerializesAsItsFile() throws Exception {
+        Dataset heap = createDataset();
+        Path file = dir.resolve("data.nnd");
+        DatasetFile.write(heap, file);
+
+        Dataset restored = roundTrip(DatasetFile.open(file));
+        assertSameSamples(heap, restored);
+    }
+
+    @Test
+    void rejectsShortenedFiles() throws Exception {
+        Path file = dir.resolve("data.nnd");
+        DatasetFile.write(createDataset(), file);
+        byte[] serialized = serialize(DatasetFile.open(file));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+
+        assertThrows(IOException.class, () -> DatasetFile.open(file));
+        assertThrows(IOException.class, () -> deserialize(serialized));
+    }
+
+    @Test
+    void writerNeedsEverySample() throws IOException {
+        DatasetFile.Writer writer = new DatasetFile.Writer(dir.resolve("short.nnd"), 3, 1, 1);
+        writer.add(new double[]{1.0}, new double[]{2.0});
+        assertThrows(IOException.class, writer::close);
+    }
+
+    @Test
+    void mappedDatasetsAreReadOnly() throws IOException {
+        Path file = dir.resolve("data.nnd");
+        DatasetFile.write(createDataset(), file);
+        Dataset mapped = DatasetFile.open(file);
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> mapped.add(new double[2], new double[3]));
+    }
+
+    @Test
+    void heapStoreGrowsAndRejectsOversizedArrays() {
+        HeapSampleStore store = new HeapSampleStore(2, 1, 1);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, store.add(new double[]{i, -i}, new double[]{2 * i}));
+        }
+        double[] in = new double[2];
+        double[] out = new double[1];
+        store.copyInputs(77, in, 0);
+        store.copyTargets(77, out, 0);
+        assertArrayEquals(new double[]{77, -77}, in);
+        assertArrayEquals(new double[]{154}, out);
+
+        assertThrows(IllegalArgumentException.class, () -> store.add(new double[3], new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> HeapSampleStore.arrayLength(1L << 30, 4));
+        assertEquals(1 << 20, HeapSampleStore.arrayLength(1 << 18, 4));
+    }
+
+    private static Dataset createDataset() {
+        VectorFunction function = (in, out) -> {
+            out[0] = in[0] + in[1];
+            out[1] = in[0] * in[1];
+            out[2] = Math.sin(in[0]);
+        };
+        Dataset dataset = new Dataset(function, 2, 3);
+        dataset.generateData(SAMPLES, new double[]{-1.0, 0.0}, new double[]{1.0, 4.0}, SamplingStrategy.UNIFORM, 9L);
+        return dataset;
+    }
+
+    private static void assertSameSamples(Dataset expected, Dataset actual) {
+        int n = expected.size();
+        assertEquals(n, actual.size());
+        double[][] e = batch(expected);
+        double[][] a = batch(actual);
+        assertArrayEquals(e[0], a[0]);
+        assertArrayEquals(e[1], a[1]);
+    }
+
+    private static double[][] batch(Dataset dataset) {
+        double[] inputs = new double[dataset.size() * dataset.getInputSize()];
+        double[] targets = new double[dataset.size() * dataset.getOutputSize()];
+        dataset.copyBatch(0, dataset.size(), inputs, targets);
+        return new double[][]{inputs, targets};
+    }
+
+    private static Dataset roundTrip(Dataset dataset) throws IOException, ClassNotFoundException {
+        return deserialize(serialize(dataset));
+    }
+
+    private static byte[] serialize(Dataset dataset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(dataset);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Dataset deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (Dataset) in.readObject();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package ifndef.nn.training;
+
+import ifndef.nn.util.VectorFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetGenerationTest {
+
+    // Several generation chunks, so the parallel split actually happens
+    private static final int SAMPLES = 10_000;
+
+    @ParameterizedTest
+    @EnumSource(SamplingStrategy.class)
+    void sameSeedGivesTheSameDataOnAnyNumberOfThreads(SamplingStrategy strategy) throws Exception {
+        double[][] parallel = generate(strategy, 17L);
+        double[][] serial = new ForkJoinPool(1).submit(() -> generate(strategy, 17L)).get();
+
+        assertArrayEquals(parallel[0], serial[0]);
+        assertArrayEquals(parallel[1], serial[1]);
+    }
+
+    @Test
+    void otherSeedsGiveOtherData() {
+        assertFalse(Arrays.equals(generate(SamplingStrategy.UNIFORM, 1L)[0],
+                generate(SamplingStrategy.UNIFORM, 2L)[0]));
+    }
+
+    @Test
+    void stratifiedSamplingPutsOneSampleInEachStratum() {
+        Dataset dataset = new Dataset(x -> x);
+        dataset.generateData(SAMPLES, 0.0, 1.0, SamplingStrategy.STRATIFIED, 3L);
+        double[] xs = batch(dataset)[0];
+
+        boolean[] seen = new boolean[SAMPLES];
+        for (double x : xs) {
+            int stratum = (int) (x * SAMPLES);
+            assertFalse(seen[stratum], "two samples in stratum " + stratum);
+            seen[stratum] = true;
+        }
+    }
+
+    @Test
+    void latinHypercubeCoversEveryStratumInEachDimension() {
+        VectorFunction sum = (in, out) -> out[0] = in[0] + in[1];
+        Dataset dataset = new Dataset(sum, 2, 1);
+        dataset.generateData(SAMPLES, new double[]{0.0, 0.0}, new double[]{1.0, 1.0}, SamplingStrategy.STRATIFIED, 3L);
+        double[] xs = batch(dataset)[0];
+
+        for (int d = 0; d < 2; d++) {
+            boolean[] seen = new boolean[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                seen[(int) (xs[2 * i + d] * SAMPLES)] = true;
+            }
+            for (boolean s : seen) {
+                assertTrue(s);
+            }
+        }
+    }
+
+    /** log(x) is undefined on half the range, so those points are drawn again. */
+    @ParameterizedTest
+    @EnumSource(SamplingStrategy.class)
+    void redrawsUndefinedPoints(SamplingStrategy strategy) {
+        Dataset dataset = new Dataset(Math::log);
+        dataset.generateData(SAMPLES, -1.0, 1.0, strategy, 5L);
+        double[][] samples = batch(dataset);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(samples[0][i] > 0.0);
+            assertTrue(Double.isFinite(samples[1][i]));
+        }
+    }
+
+    @Test
+    void rangesCoverEverySample() {
+        Dataset dataset = new Dataset(Math::sin);
+        dataset.generateData(SAMPLES, -3.0, 3.0, SamplingStrategy.LOW_DISCREPANCY, 5L);
+        double[] ys = batch(dataset)[1];
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double y : ys) {
+            min = Math.min(min, y);
+            max = Math.max(max, y);
+        }
+        assertEquals(min, dataset.getOutputMin()[0]);
+        assertEquals(max, dataset.getOutputMax()[0]);
+        assertEquals(min, dataset.getYMin());
+    }
+
+    private static double[][] generate(SamplingStrategy strategy, long seed) {
+        VectorFunction function = (in, out) -> {
+            out[0] = Math.sin(in[0]) * in[1];
+            out[1] = in[0] - in[1];
+        };
+        Dataset dataset = new Dataset(function, 2, 2);
+        dataset.generateData(SAMPLES, new double[]{-2.0, 1.0}, new double[]{2.0, 3.0}, strategy, seed);
+        return batch(dataset);
+    }
+
+    private static double[][] batch(Dataset dataset) {
+        double[] inputs = new double[dataset.size() * dataset.getInputSize()];
+        double[] targets = new double[dataset.size() * dataset.getOutputSize()];
+        dataset.copyBatch(0, dataset.size(), inputs, targets);
+        return new double[][]{inputs, targets};
+    }
+}
\ No newline at end of file
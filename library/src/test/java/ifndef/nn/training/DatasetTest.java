@@ -0,0 +1,63 @@
+package ifndef.nn.training;
+
+import ifndef.nn.util.DataNormalizer;
+import ifndef.nn.util.VectorFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DatasetTest {
+
+    @Test
+    void tracksRangesPerFeature() {
+        Dataset dataset = new Dataset();
+        dataset.add(new double[]{1.0, -5.0}, new double[]{10.0, 0.0, 3.0});
+        dataset.add(new double[]{-1.0, 7.0}, new double[]{20.0, 0.0, -3.0});
+        dataset.add(new double[]{0.5, 2.0}, new double[]{15.0, 0.0, 1.0});
+
+        assertEquals(2, dataset.getInputSize());
+        assertEquals(3, dataset.getOutputSize());
+        assertArrayEquals(new double[]{-1.0, -5.0}, dataset.getInputMin());
+        assertArrayEquals(new double[]{1.0, 7.0}, dataset.getInputMax());
+        assertArrayEquals(new double[]{10.0, 0.0, -3.0}, dataset.getOutputMin());
+        assertArrayEquals(new double[]{20.0, 0.0, 3.0}, dataset.getOutputMax());
+    }
+
+    @Test
+    void generatesVectorFunctionSamples() {
+        VectorFunction f = (in, out) -> {
+            out[0] = in[0] + in[1] + in[2];
+            out[1] = in[0] * in[1] * in[2];
+        };
+        Dataset dataset = new Dataset(f, 3, 2);
+        dataset.generateData(500, new double[]{-1.0, 0.0, 2.0}, new double[]{1.0, 1.0, 4.0},
+                SamplingStrategy.UNIFORM, 9L);
+
+        double[] inputs = new double[500 * 3];
+        double[] targets = new double[500 * 2];
+        dataset.copyBatch(0, 500, inputs, targets);
+        double[] out = new double[2];
+        for (int i = 0; i < 500; i++) {
+            f.apply(new double[]{inputs[3 * i], inputs[3 * i + 1], inputs[3 * i + 2]}, out);
+            assertEquals(out[0], targets[2 * i]);
+            assertEquals(out[1], targets[2 * i + 1]);
+        }
+    }
+
+    @Test
+    void copyBatchNormalizesEachColumn() {
+        Dataset dataset = new Dataset();
+        dataset.add(new double[]{0.0, 100.0}, new double[]{-4.0});
+        dataset.add(new double[]{2.0, 300.0}, new double[]{4.0});
+        DataNormalizer in = new DataNormalizer(new double[]{0.0, 100.0}, new double[]{2.0, 300.0});
+        DataNormalizer out = new DataNormalizer(-4.0, 4.0);
+
+        double[] inputs = new double[4];
+        double[] targets = new double[2];
+        dataset.copyBatch(0, 2, inputs, targets, in, out);
+
+        assertArrayEquals(new double[]{-1.0, -1.0, 1.0, 1.0}, inputs, 1e-15);
+        assertArrayEquals(new double[]{-1.0, 1.0}, targets, 1e-15);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.optimizer.SGD;
+import ifndef.nn.optimizer.StepDecay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(60)
+class EarlyStoppingTest {
+
+    @Test
+    void fitsSineWithEarlyStopping() {
+        Trainer trainer = createTrainer(TrainerTest.createNetwork(1L));
+        try {
+            Dataset dataset = TrainerTest.createDataset();
+            trainer.train(dataset, 60, 32, 0);
+            assertTrue(trainer.evaluate(dataset) < 0.01);
+        } finally {
+            trainer.shutdown();
+        }
+    }
+
+    @Test
+    void leavesTheCallersSampleOrderAlone() {
+        Dataset dataset = TrainerTest.createDataset();
+        double[] before = inputs(dataset);
+        Trainer trainer = createTrainer(TrainerTest.createNetwork(1L));
+        try {
+            trainer.train(dataset, 3, 32, 0);
+        } finally {
+            trainer.shutdown();
+        }
+        assertArrayEquals(before, inputs(dataset));
+    }
+
+    /** One sample cannot be split, so the run trains on it without a validation set. */
+    @Test
+    void trainsOnASingleSample() {
+        Dataset dataset = new Dataset(Math::sin);
+        dataset.add(new double[]{1.0}, new double[]{Math.sin(1.0)});
+        NeuralNetwork network = TrainerTest.createNetwork(1L);
+        double[] initial = network.getParameters().clone();
+        Trainer trainer = createTrainer(network);
+        try {
+            trainer.train(dataset, 20, 32, 0);
+            double loss = trainer.evaluate(dataset);
+            assertTrue(Double.isFinite(loss), "loss was " + loss);
+        } finally {
+            trainer.shutdown();
+        }
+        for (int i = 0; i < initial.length; i++) {
+            assertTrue(Double.isFinite(network.getParameters()[i]));
+        }
+        assertFalse(Arrays.equals(initial, network.getParameters()), "no step was taken");
+    }
+
+    /** The schedule always scales the rate the optimizer had when it was set, also on a second run. */
+    @Test
+    void everyRunStartsTheScheduleFromTheBaseRate() {
+        NeuralNetwork network = TrainerTest.createNetwork(1L);
+        SGD sgd = new SGD(network.getParameterCount(), 0.1);
+        Trainer trainer = new Trainer(network, new MeanSquaredError(), sgd, 2);
+        trainer.setVerbose(false);
+        trainer.setLearningRateSchedule(new StepDecay(1, 0.5));
+        try {
+            trainer.train(TrainerTest.createDataset(), 3, 32, 0);
+            assertEquals(0.025, sgd.getLearningRate(), 1e-15);
+            trainer.train(TrainerTest.createDataset(), 2, 32, 0);
+            assertEquals(0.05, sgd.getLearningRate(), 1e-15);
+        } finally {
+            trainer.shutdown();
+        }
+    }
+
+    private static Trainer createTrainer(NeuralNetwork network) {
+        Trainer trainer = TrainerTest.createTrainer(network, new MeanSquaredError(), TrainingMode.TASK_PER_BATCH);
+        trainer.setEarlyStopping(new EarlyStopping(0.1, 5, 10, 0.0));
+        return trainer;
+    }
+
+    private static double[] inputs(Dataset dataset) {
+        double[] inputs = new double[dataset.size()];
+        double[] targets = new double[dataset.size()];
+        dataset.copyBatch(0, dataset.size(), inputs, targets);
+        return inputs;
+    }
+}
\ No newline at end of file
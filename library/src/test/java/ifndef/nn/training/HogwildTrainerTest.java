@@ -0,0 +1,75 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.optimizer.Adam;
+import ifndef.nn.util.DataNormalizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(60)
+class HogwildTrainerTest {
+
+    @Test
+    void fitsSine() {
+        assertFits(train(2, 1L, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void fitsSineWithBoundedStaleness() {
+        assertFits(train(4, 1L, 0));
+    }
+
+    @Test
+    void singleThreadRunsAreReproducible() {
+        assertArrayEquals(train(1, 1L, Integer.MAX_VALUE).getParameters(),
+                train(1, 1L, Integer.MAX_VALUE).getParameters());
+    }
+
+    @Test
+    void rejectsStatefulOptimizers() {
+        NeuralNetwork network = TrainerTest.createNetwork(1L);
+        assertThrows(IllegalArgumentException.class, () -> new HogwildTrainer(network, new MeanSquaredError(),
+                new Adam(network.getParameterCount(), 0.01), 1));
+    }
+
+    @Test
+    void rejectsNegativeStaleness() {
+        HogwildTrainer trainer = new HogwildTrainer(TrainerTest.createNetwork(1L), new MeanSquaredError(), 0.05, 1);
+        assertThrows(IllegalArgumentException.class, () -> trainer.setMaxStaleness(-1));
+        trainer.shutdown();
+    }
+
+    private static void assertFits(NeuralNetwork network) {
+        Trainer evaluator = new Trainer(network, new MeanSquaredError(), 0.0, 1);
+        evaluator.setNormalizers(new DataNormalizer(-Math.PI, Math.PI), new DataNormalizer(-1.0, 1.0));
+        double loss = evaluator.evaluate(createDataset());
+        evaluator.shutdown();
+
+        assertTrue(loss < 0.01, "loss after training was " + loss);
+    }
+
+    private static NeuralNetwork train(int threads, long seed, int maxStaleness) {
+        NeuralNetwork network = TrainerTest.createNetwork(seed);
+        HogwildTrainer trainer = new HogwildTrainer(network, new MeanSquaredError(), 0.05, threads);
+        trainer.setNormalizers(new DataNormalizer(-Math.PI, Math.PI), new DataNormalizer(-1.0, 1.0));
+        trainer.setSeed(7L);
+        trainer.setVerbose(false);
+        if (maxStaleness != Integer.MAX_VALUE) {
+            trainer.setMaxStaleness(maxStaleness);
+        }
+        trainer.train(createDataset(), 60, 16, 60);
+        trainer.shutdown();
+        return network;
+    }
+
+    private static Dataset createDataset() {
+        Dataset dataset = new Dataset(Math::sin);
+        dataset.generateData(2000, -Math.PI, Math.PI, SamplingStrategy.UNIFORM, 3L);
+        return dataset;
+    }
+}
\ No newline at end of file
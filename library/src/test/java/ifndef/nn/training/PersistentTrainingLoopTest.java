@@ -0,0 +1,34 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.MeanSquaredError;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+@Timeout(60)
+class PersistentTrainingLoopTest {
+
+    @Test
+    void workerFailureIsRethrown() {
+        TrainerTest.assertFailureIsRethrown(TrainingMode.PERSISTENT_WORKERS, ReductionMode.SEQUENTIAL);
+    }
+
+    /** With one worker the shard is the whole epoch, so the steps are exactly the task-per-batch ones. */
+    @Test
+    void singleWorkerMatchesTaskPerBatch() {
+        assertArrayEquals(train(TrainingMode.TASK_PER_BATCH), train(TrainingMode.PERSISTENT_WORKERS));
+    }
+
+    private static double[] train(TrainingMode mode) {
+        NeuralNetwork network = TrainerTest.createNetwork(1L);
+        Trainer trainer = TrainerTest.createTrainer(network, new MeanSquaredError(), mode, 1);
+        try {
+            trainer.train(TrainerTest.createDataset(), 5, 32, 0);
+        } finally {
+            trainer.shutdown();
+        }
+        return network.getParameters();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package ifndef.nn.training;
+
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.LossFunction;
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.optimizer.Adam;
+import ifndef.nn.util.DataNormalizer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Small end-to-end fits; the timeouts turn a deadlocked worker into a failure. */
+@Timeout(60)
+class TrainerTest {
+
+    private static final int THREADS = 2;
+    private static final int SAMPLES = 2000;
+    static final int BATCH_SIZE = 32;
+
+    @ParameterizedTest
+    @EnumSource(TrainingMode.class)
+    void fitsSine(TrainingMode mode) {
+        assertConverges(mode, ReductionMode.SEQUENTIAL);
+    }
+
+    @Test
+    void fitsSineWithTreeReduction() {
+        assertConverges(TrainingMode.TASK_PER_BATCH, ReductionMode.TREE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ReductionMode.class)
+    void batchTaskFailureIsRethrown(ReductionMode reductionMode) {
+        assertFailureIsRethrown(TrainingMode.TASK_PER_BATCH, reductionMode);
+    }
+
+    static void assertFailureIsRethrown(TrainingMode mode, ReductionMode reductionMode) {
+        Trainer trainer = createTrainer(createNetwork(1L), failingLoss(25), mode);
+        trainer.setReductionMode(reductionMode);
+        try {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> trainer.train(createDataset(), 20, BATCH_SIZE, 0));
+            assertTrue(e.getCause() instanceof IllegalArgumentException, String.valueOf(e.getCause()));
+        } finally {
+            trainer.shutdown();
+        }
+    }
+
+    /** Mean squared error that throws on its {@code failAt}-th batch. */
+    static LossFunction failingLoss(int failAt) {
+        AtomicInteger batches = new AtomicInteger();
+        MeanSquaredError mse = new MeanSquaredError();
+        return new LossFunction() {
+            @Override
+            public double compute(double[] predictions, double[] targets) {
+                return mse.compute(predictions, targets);
+            }
+
+            @Override
+            public double[] derivative(double[] predictions, double[] targets) {
+                return mse.derivative(predictions, targets);
+            }
+
+            @Override
+            public double computeBatch(double[] predictions, double[] targets, int rows, int cols, double[] gradient) {
+                if (batches.incrementAndGet() == failAt) {
+                    throw new IllegalArgumentException("broken batch");
+                }
+                return mse.computeBatch(predictions, targets, rows, cols, gradient);
+            }
+        };
+    }
+
+    private void assertConverges(TrainingMode mode, ReductionMode reductionMode) {
+        NeuralNetwork network = createNetwork(1L);
+        Trainer trainer = createTrainer(network, new MeanSquaredError(), mode);
+        trainer.setReductionMode(reductionMode);
+        try {
+            Dataset dataset = createDataset();
+            double before = trainer.evaluate(dataset);
+            trainer.train(dataset, 60, BATCH_SIZE, 0);
+            double after = trainer.evaluate(dataset);
+            assertTrue(after < 0.01, "loss after training was " + after);
+            assertTrue(after < before / 10, "loss only fell from " + before + " to " + after);
+        } finally {
+            trainer.shutdown();
+        }
+    }
+
+    static Trainer createTrainer(NeuralNetwork network, LossFunction loss, TrainingMode mode) {
+        return createTrainer(network, loss, mode, THREADS);
+    }
+
+    static Trainer createTrainer(NeuralNetwork network, LossFunction loss, TrainingMode mode, int threads) {
+        Trainer trainer = new Trainer(network, loss, new Adam(network.getParameterCount(), 0.01), threads);
+        trainer.setTrainingMode(mode);
+        trainer.setNormalizers(new DataNormalizer(-Math.PI, Math.PI), new DataNormalizer(-1.0, 1.0));
+        trainer.setSeed(7L);
+        trainer.setVerbose(false);
+        return trainer;
+    }
+
+    static Dataset createDataset() {
+        Dataset dataset = new Dataset(Math::sin);
+        dataset.generateData(SAMPLES, -Math.PI, Math.PI, SamplingStrategy.UNIFORM, 3L);
+        return dataset;
+    }
+
+    static NeuralNetwork createNetwork(long seed) {
+        NeuralNetwork network = new NeuralNetwork();
+        network.add(new DenseLayer(1, 16, new Tanh()));
+        network.add(new DenseLayer(16, 1, null));
+        double[] parameters = network.getParameters();
+        Random random = new Random(seed);
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = random.nextGaussian() * 0.5;
+        }
+        return network;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package ifndef.nn.util;
+
+import ifndef.nn.activation.ReLU;
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.Layer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.core.Precision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryModelFormatTest {
+
+    private static final double[] INPUT_MIN = {-1.0, 0.0};
+    private static final double[] INPUT_MAX = {1.0, 2.0};
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @EnumSource(Precision.class)
+    void roundTripsEveryPrecision(Precision precision) throws IOException {
+        TrainedModel model = createModel(precision, false);
+        String file = dir.resolve("model.nnb").toString();
+
+        BinaryModelFormat.save(model, file);
+        TrainedModel loaded = BinaryModelFormat.load(file);
+
+        NeuralNetwork network = model.getNetwork();
+        NeuralNetwork restored = loaded.getNetwork();
+        assertEquals(precision, restored.getPrecision());
+        assertLayersEqual(network, restored);
+        assertArrayEquals(network.getParameters(), restored.getParameters());
+        for (double[] input : new double[][]{{-0.5, 0.25}, {0.0, 0.0}, {0.75, -1.0}}) {
+            assertArrayEquals(network.predict(input), restored.predict(input));
+        }
+
+        FunctionInfo info = loaded.getFunctionInfo();
+        assertEquals("f(x, y) = test", info.name);
+        assertEquals(2, info.getInputSize());
+        assertEquals(3, info.getOutputSize());
+        assertArrayEquals(INPUT_MIN, info.getInputMin());
+        assertArrayEquals(INPUT_MAX, info.getInputMax());
+        assertTrue(info.shouldNormalize);
+        assertEquals(2.0, loaded.getInputNormalizer().getDataMax(1));
+        assertEquals(-4.0, loaded.getOutputNormalizer().getDataMin());
+    }
+
+    @Test
+    void keepsFastActivations() throws IOException {
+        String file = dir.resolve("fast.nnb").toString();
+        BinaryModelFormat.save(createModel(Precision.DOUBLE, true), file);
+
+        assertTrue(BinaryModelFormat.load(file).getNetwork().isFastActivations());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("not-a-model.nnb");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> BinaryModelFormat.load(file.toString()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Precision.class)
+    void rejectsTruncatedFiles(Precision precision) throws IOException {
+        Path file = dir.resolve("model.nnb");
+        BinaryModelFormat.save(createModel(precision, false), file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = dir.resolve("truncated.nnb");
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> BinaryModelFormat.load(truncated.toString()), length + " bytes");
+        }
+    }
+
+    /** Sizes that would otherwise fail as NegativeArraySizeException or OutOfMemoryError. */
+    @Test
+    void rejectsCorruptCounts() throws IOException {
+        Path file = dir.resolve("model.nnb");
+        BinaryModelFormat.save(createModel(Precision.DOUBLE, false), file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        // Header offsets: magic, version, flags, name; ranges of both inputs; per-feature input and shared output normalizer
+        int nameLength = 12;
+        int inputCount = nameLength + 4 + "f(x, y) = test".length();
+        int layerCount = inputCount + 8 + 2 * 2 * 8 + (4 + 2 * 2 * 8) + (4 + 2 * 8);
+        int firstLayer = layerCount + 4;
+        assertEquals(3, ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(layerCount));
+
+        for (int[] corruption : new int[][]{{nameLength, -1}, {nameLength, Integer.MAX_VALUE}, {inputCount, -2},
+                {inputCount, 1 << 28}, {layerCount, Integer.MAX_VALUE}, {firstLayer, 1 << 20}, {firstLayer + 4, -8},
+                {firstLayer + 8, 99}}) {
+            byte[] corrupt = bytes.clone();
+            ByteBuffer.wrap(corrupt).order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+            Path target = dir.resolve("corrupt.nnb");
+            Files.write(target, corrupt);
+            assertThrows(IOException.class, () -> BinaryModelFormat.load(target.toString()),
+                    corruption[1] + " at " + corruption[0]);
+        }
+    }
+
+    /** A loaded network is built from the file alone: no weights left over from a random init. */
+    @Test
+    void loadsEveryParameterFromTheFile() throws IOException {
+        TrainedModel model = createModel(Precision.DOUBLE, false);
+        Arrays.fill(model.getNetwork().getParameters(), 0.0);
+        String file = dir.resolve("zero.nnb").toString();
+        BinaryModelFormat.save(model, file);
+
+        for (double parameter : BinaryModelFormat.load(file).getNetwork().getParameters()) {
+            assertEquals(0.0, parameter);
+        }
+    }
+
+    private static void assertLayersEqual(NeuralNetwork expected, NeuralNetwork actual) {
+        List<Layer> expectedLayers = expected.getLayers();
+        List<Layer> actualLayers = actual.getLayers();
+        assertEquals(expectedLayers.size(), actualLayers.size());
+        for (int i = 0; i < expectedLayers.size(); i++) {
+            assertEquals(expectedLayers.get(i).getInputSize(), actualLayers.get(i).getInputSize());
+            assertEquals(expectedLayers.get(i).getOutputSize(), actualLayers.get(i).getOutputSize());
+        }
+    }
+
+    private static TrainedModel createModel(Precision precision, boolean fast) {
+        NeuralNetwork network = new NeuralNetwork(precision);
+        network.add(new DenseLayer(2, 8, new Tanh()));
+        network.add(new DenseLayer(8, 8, new ReLU()));
+        network.add(new DenseLayer(8, 3, null));
+        network.setFastActivations(fast);
+        double[] parameters = network.getParameters();
+        Random random = new Random(42L);
+        for (int i = 0; i < parameters.length; i++) {
+            double parameter = random.nextGaussian() * 0.5;
+            // Float files hold the nearest float, so start from float values to compare exactly
+            parameters[i] = precision.isFloat() ? (float) parameter : parameter;
+        }
+
+        FunctionInfo info = new FunctionInfo("f(x, y) = test", (VectorFunction) null, INPUT_MIN, INPUT_MAX, 3, true);
+        return new TrainedModel(network, info, new DataNormalizer(INPUT_MIN, INPUT_MAX), new DataNormalizer(-4.0, 4.0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package ifndef.nn.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataNormalizerTest {
+
+    private static final double[] MIN = {-2.0, 0.0, 5.0};
+    private static final double[] MAX = {2.0, 100.0, 5.0};
+
+    @Test
+    void mapsEachFeatureOntoItsOwnRange() {
+        DataNormalizer normalizer = new DataNormalizer(MIN, MAX);
+
+        assertTrue(normalizer.isPerFeature());
+        assertEquals(3, normalizer.getFeatureCount());
+        for (int k = 0; k < 2; k++) {
+            assertEquals(-1.0, normalizer.normalize(MIN[k], k));
+            assertEquals(1.0, normalizer.normalize(MAX[k], k));
+        }
+        assertEquals(0.5, normalizer.normalize(75.0, 1), 1e-15);
+        // Single-argument methods refer to feature 0
+        assertEquals(normalizer.normalize(1.0, 0), normalizer.normalize(1.0));
+    }
+
+    @Test
+    void constantFeatureMapsToTheMiddle() {
+        DataNormalizer normalizer = new DataNormalizer(MIN, MAX);
+
+        assertEquals(0.0, normalizer.normalize(5.0, 2));
+        assertEquals(0.0, normalizer.getNormalizeScale(2));
+        assertEquals(5.0, normalizer.denormalize(0.7, 2));
+    }
+
+    @Test
+    void roundTripsAndMatchesTheAffineForm() {
+        DataNormalizer normalizer = new DataNormalizer(MIN, MAX);
+
+        for (int k = 0; k < MIN.length; k++) {
+            for (double v : new double[]{-3.0, 0.25, 42.0}) {
+                double n = normalizer.normalize(v, k);
+                assertEquals(n, v * normalizer.getNormalizeScale(k) + normalizer.getNormalizeOffset(k), 1e-12);
+                double back = n * normalizer.getDenormalizeScale(k) + normalizer.getDenormalizeOffset(k);
+                assertEquals(normalizer.denormalize(n, k), back, 1e-12);
+                if (MAX[k] != MIN[k]) {
+                    assertEquals(v, back, 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void sharedRangeAppliesToEveryFeature() {
+        DataNormalizer normalizer = new DataNormalizer(-4.0, 4.0);
+
+        assertFalse(normalizer.isPerFeature());
+        assertEquals(1, normalizer.getFeatureCount());
+        assertEquals(normalizer.normalize(2.0), normalizer.normalize(2.0, 7));
+        assertEquals(4.0, normalizer.getDataMax(3));
+    }
+
+    @Test
+    void rejectsMismatchedRanges() {
+        assertThrows(IllegalArgumentException.class, () -> new DataNormalizer(new double[0], new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new DataNormalizer(MIN, new double[]{1.0}));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ifndef.nn.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FunctionInfoTest {
+
+    @Test
+    void scalarFunctionIsAlsoAVectorFunction() {
+        FunctionInfo info = new FunctionInfo("f(x) = x^2", x -> x * x, -3.0, 3.0, true);
+
+        assertEquals(1, info.getInputSize());
+        assertEquals(1, info.getOutputSize());
+        assertArrayEquals(new double[]{-3.0}, info.getInputMin());
+        double[] out = new double[1];
+        info.vectorFunction.apply(new double[]{1.5}, out);
+        assertEquals(2.25, out[0]);
+        assertEquals(2.25, info.function.applyAsDouble(1.5));
+    }
+
+    @Test
+    void vectorFunctionKeepsEveryRange() {
+        VectorFunction polar = (in, out) -> {
+            out[0] = in[0] * Math.cos(in[1]);
+            out[1] = in[0] * Math.sin(in[1]);
+        };
+        double[] min = {0.0, -Math.PI};
+        double[] max = {2.0, Math.PI};
+        FunctionInfo info = new FunctionInfo("polar", polar, min, max, 2, false);
+        min[0] = 99.0;
+
+        assertNull(info.function);
+        assertEquals(2, info.getInputSize());
+        assertEquals(2, info.getOutputSize());
+        assertEquals(0.0, info.minX);
+        assertEquals(Math.PI, info.getMaxX(1));
+        // Copies in and out
+        info.getInputMax()[1] = 0.0;
+        assertArrayEquals(new double[]{2.0, Math.PI}, info.getInputMax());
+    }
+
+    @Test
+    void rejectsMissingRangesOrOutputs() {
+        VectorFunction f = (in, out) -> out[0] = in[0];
+        assertThrows(IllegalArgumentException.class,
+                () -> new FunctionInfo("f", f, new double[0], new double[0], 1, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FunctionInfo("f", f, new double[]{0.0, 1.0}, new double[]{1.0}, 1, true));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FunctionInfo("f", f, new double[]{0.0}, new double[]{1.0}, 0, true));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package ifndef.nn.util;
+
+import ifndef.nn.core.NeuralNetwork;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Loads model files written by earlier versions of the library. Each fixture holds random weights
+ * and was saved by the version that introduced its format; the expected predictions are what that
+ * version computed for them.
+ */
+class ModelCompatibilityTest {
+
+    private static final double[] INPUTS = {-0.5, 0.0, 0.3, 0.9};
+    private static final double TOLERANCE = 1e-12;
+
+    @TempDir
+    Path dir;
+
+    /** Java-serialized before parameters moved into one flat array (the original layout). */
+    @Test
+    void loadsBaselineSerializedModel() throws Exception {
+        TrainedModel model = NetworkSerializer.load(fixture("baseline-model.dat"));
+
+        assertNotNull(model);
+        assertEquals("f(x) = sin(x)", model.getFunctionInfo().name);
+        assertEquals(-720.0, model.getInputNormalizer().getDataMin());
+        assertEquals(1.0, model.getOutputNormalizer().getDataMax());
+        assertPredicts(model.getNetwork(), 0.17183830496897493, 0.0, -0.07359220551963311, -0.19114327718607876);
+    }
+
+    @Test
+    void convertsBaselineSerializedModel() throws Exception {
+        String converted = dir.resolve("converted.nnb").toString();
+        BinaryModelFormat.convert(fixture("baseline-model.dat"), converted);
+
+        TrainedModel model = BinaryModelFormat.load(converted);
+        assertPredicts(model.getNetwork(), 0.17183830496897493, 0.0, -0.07359220551963311, -0.19114327718607876);
+    }
+
+    /** Version 1: one input, one output, a single range per normalizer. */
+    @Test
+    void loadsVersion1BinaryModel() throws Exception {
+        TrainedModel model = BinaryModelFormat.load(fixture("model-v1.nnb"));
+
+        assertEquals("f(x) = e^x", model.getFunctionInfo().name);
+        assertEquals(148.4, model.getOutputNormalizer().getDataMax());
+        assertPredicts(model.getNetwork(), 0.02655842073112681, 0.0, -0.20099980177865168, -0.5688811988575286);
+    }
+
+    /** Version 2: several inputs and outputs with per-feature ranges, no precision flags. */
+    @Test
+    void loadsVersion2BinaryModel() throws Exception {
+        TrainedModel model = BinaryModelFormat.load(fixture("model-v2.nnb"));
+
+        FunctionInfo info = model.getFunctionInfo();
+        assertEquals(2, info.getInputSize());
+        assertEquals(2, info.getOutputSize());
+        assertArrayEquals(new double[]{3.0, 2.0}, info.getInputMax());
+        assertEquals(-2.0, model.getInputNormalizer().getDataMin(1));
+        assertEquals(5.0, model.getOutputNormalizer().getDataMax(1));
+
+        NeuralNetwork network = model.getNetwork();
+        assertArrayEquals(new double[]{0.02787090470535189, -0.22390706044077074},
+                network.predict(new double[]{-0.5, 0.25}), TOLERANCE);
+        assertArrayEquals(new double[]{0.0, 0.0}, network.predict(new double[]{0.0, 0.0}), TOLERANCE);
+        assertArrayEquals(new double[]{0.28421425675475565, 0.046810961219204465},
+                network.predict(new double[]{0.3, -0.9}), TOLERANCE);
+    }
+
+    private static void assertPredicts(NeuralNetwork network, double... expected) {
+        for (int i = 0; i < INPUTS.length; i++) {
+            assertEquals(expected[i], network.predict(new double[]{INPUTS[i]})[0], TOLERANCE);
+        }
+    }
+
+    private static String fixture(String name) throws URISyntaxException {
+        return Paths.get(ModelCompatibilityTest.class.getResource(name).toURI()).toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package ifndef.nn.util;
+
+import ifndef.nn.training.Dataset;
+import ifndef.nn.training.SamplingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalarFunctionTest {
+
+    private static final int SAMPLES = 10_000;
+
+    @Test
+    void ofKeepsScalarFunctionsAndWrapsOperators() {
+        ScalarFunction square = x -> x * x;
+        DoubleUnaryOperator cube = x -> x * x * x;
+
+        assertSame(square, ScalarFunction.of(square));
+        assertNull(ScalarFunction.of(null));
+        assertEquals(-8.0, ScalarFunction.of(cube).applyAsDouble(-2.0));
+    }
+
+    @Test
+    void bulkApplyOnlyWritesTheRange() {
+        ScalarFunction twice = x -> 2 * x;
+        double[] xs = {1.0, 2.0, 3.0, 4.0};
+        double[] ys = new double[4];
+
+        twice.apply(xs, ys, 1, 3);
+        assertArrayEquals(new double[]{0.0, 4.0, 6.0, 0.0}, ys);
+
+        twice.apply(xs, ys);
+        assertArrayEquals(new double[]{2.0, 4.0, 6.0, 8.0}, ys);
+    }
+
+    /** Generation evaluates whole chunks through the bulk method and only redraws point by point. */
+    @Test
+    void generationUsesTheBulkPath() {
+        AtomicInteger bulk = new AtomicInteger();
+        AtomicInteger single = new AtomicInteger();
+        ScalarFunction sqrt = new ScalarFunction() {
+            @Override
+            public double applyAsDouble(double x) {
+                single.incrementAndGet();
+                return Math.sqrt(x);
+            }
+
+            @Override
+            public void apply(double[] xs, double[] ys, int from, int to) {
+                bulk.incrementAndGet();
+                for (int i = from; i < to; i++) {
+                    ys[i] = Math.sqrt(xs[i]);
+                }
+            }
+        };
+
+        Dataset dataset = new Dataset(sqrt);
+        dataset.generateData(SAMPLES, -1.0, 1.0, SamplingStrategy.UNIFORM, 4L);
+
+        assertTrue(bulk.get() > 1 && bulk.get() < SAMPLES / 100, bulk + " bulk calls");
+        // Roughly half the points start out negative; each redraw is a single call
+        assertTrue(single.get() >= SAMPLES / 4, single + " single calls");
+        assertTrue(dataset.getInputMin()[0] >= 0.0);
+    }
+
+    /** Same samples as the general vector path for a function that is defined everywhere. */
+    @Test
+    void bulkPathMatchesVectorPath() {
+        Dataset scalar = new Dataset(Math::sin);
+        scalar.generateData(SAMPLES, -3.0, 3.0, SamplingStrategy.LOW_DISCREPANCY, 8L);
+        Dataset vector = new Dataset((VectorFunction) (in, out) -> out[0] = Math.sin(in[0]), 1, 1);
+        vector.generateData(SAMPLES, new double[]{-3.0}, new double[]{3.0}, SamplingStrategy.LOW_DISCREPANCY, 8L);
+
+        double[][] expected = {new double[SAMPLES], new double[SAMPLES]};
+        double[][] actual = {new double[SAMPLES], new double[SAMPLES]};
+        vector.copyBatch(0, SAMPLES, expected[0], expected[1]);
+        scalar.copyBatch(0, SAMPLES, actual[0], actual[1]);
+        assertArrayEquals(expected[0], actual[0]);
+        assertArrayEquals(expected[1], actual[1]);
+    }
+}
\ No newline at end of file
@@ -5,10 +5,24 @@ import ifndef.nn.activation.ReLU;
 import ifndef.nn.activation.Tanh;
 import ifndef.nn.core.DenseLayer;
 import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.core.Precision;
+import ifndef.nn.inference.InferenceModel;
 import ifndef.nn.loss.LossFunction;
 import ifndef.nn.loss.MeanSquaredError;
-import ifndef.nn.training.DataPoint;
+import ifndef.nn.optimizer.Adam;
+import ifndef.nn.optimizer.Momentum;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.optimizer.RMSProp;
+import ifndef.nn.optimizer.ReduceOnPlateau;
+import ifndef.nn.optimizer.SGD;
+import ifndef.nn.search.HyperparameterSearch;
+import ifndef.nn.search.SearchSpace;
+import ifndef.nn.search.SearchStrategy;
+import ifndef.nn.search.Trial;
+import ifndef.nn.training.Checkpoint;
 import ifndef.nn.training.Dataset;
+import ifndef.nn.training.EarlyStopping;
+import ifndef.nn.training.SamplingStrategy;
 import ifndef.nn.training.Trainer;
 import ifndef.nn.util.DataNormalizer;
 import ifndef.nn.util.FunctionInfo;
@@ -16,11 +30,14 @@ import ifndef.nn.util.GraphingUtil;
 import ifndef.nn.util.NetworkSerializer;
 import ifndef.nn.util.TrainedModel;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
-import java.util.function.Function;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Main {
 
@@ -31,11 +48,12 @@ public class Main {
     private static FunctionInfo currentFunction;
     private static DataNormalizer inputNormalizer;  // Null if not normalized
     private static DataNormalizer outputNormalizer; // Null if not normalized
+    private static InferenceModel inferenceModel;   // Frozen copy used for testing and graphing
 
     public static void main(String[] args) {
         while (true) {
             showMainMenu();
-            int choice = getUserInput(1, 3);
+            int choice = getUserInput(1, 4);
             
             switch (choice) {
                 case 1:
@@ -45,6 +63,9 @@ public class Main {
                     loadNetwork();
                     break;
                 case 3:
+                    searchHyperparameters();
+                    break;
+                case 4:
                     System.out.println("Exiting. Goodbye!");
                     if (trainer != null) {
                         trainer.shutdown(); // Shut down the thread pool
@@ -63,7 +84,8 @@ public class Main {
         System.out.println("\n--- Neural Network Main Menu ---");
         System.out.println("1. Train a New Network");
         System.out.println("2. Load a Network");
-        System.out.println("3. Exit");
+        System.out.println("3. Search Hyperparameters");
+        System.out.println("4. Exit");
         System.out.print("Please select an option: ");
     }
 
@@ -71,11 +93,17 @@ public class Main {
         selectFunction();
 
         network = selectArchitecture();
+        Optimizer optimizer = selectOptimizer(network);
 
         int epochs = getDynamicInput("\nEnter number of epochs (1 - 100,000): ", 1, 100000);
-        int numSamples = getDynamicInput("\nEnter number of samples (1 - 100,000): ", 1, 100000);
+        int numSamples = getDynamicInput("\nEnter number of samples (1 - 5,000,000): ", 1, 5000000);
         int batchSize = getDynamicInput("\nEnter batch size (e.g., 32, 64): ", 1, numSamples);
-        double learningRate = 0.001;
+
+        System.out.print("\nStop early when validation loss plateaus? (y/n): ");
+        boolean earlyStop = scanner.next().equalsIgnoreCase("y");
+
+        System.out.print("\nCheckpoint file to survive restarts (e.g., run.nnc, or 'none'): ");
+        String checkpointFile = scanner.next();
         
         System.out.print("\nStart training? (y/n): ");
         if (!scanner.next().equalsIgnoreCase("y")) {
@@ -84,25 +112,18 @@ public class Main {
             return;
         }
         
-        Dataset rawDataset = new Dataset(currentFunction.function);
-        rawDataset.generateData(numSamples, currentFunction.minX, currentFunction.maxX);
-        
-        Dataset trainingDataset; 
+        Dataset rawDataset = new Dataset(currentFunction.vectorFunction, currentFunction.getInputSize(),
+                currentFunction.getOutputSize());
+        rawDataset.generateData(numSamples, currentFunction.getInputMin(), currentFunction.getInputMax(),
+                SamplingStrategy.UNIFORM, ThreadLocalRandom.current().nextLong());
         
         if (currentFunction.shouldNormalize) {
+            // Samples stay raw; the trainer normalizes each batch as it is packed
             System.out.println("Generating and normalizing data...");
-            inputNormalizer = new DataNormalizer(rawDataset.getXMin(), rawDataset.getXMax());
-            outputNormalizer = new DataNormalizer(rawDataset.getYMin(), rawDataset.getYMax());
-            
-            trainingDataset = new Dataset();
-            for (DataPoint dp : rawDataset.getData()) {
-                double normalizedX = inputNormalizer.normalize(dp.getInputs()[0]);
-                double normalizedY = outputNormalizer.normalize(dp.getTargets()[0]);
-                trainingDataset.add(new DataPoint(new double[]{normalizedX}, new double[]{normalizedY}));
-            }
+            inputNormalizer = new DataNormalizer(currentFunction.getInputMin(), currentFunction.getInputMax());
+            outputNormalizer = new DataNormalizer(rawDataset.getOutputMin(), rawDataset.getOutputMax());
         } else {
             System.out.println("Generating data (Raw, no normalization)...");
-            trainingDataset = rawDataset;
             inputNormalizer = null;  
             outputNormalizer = null;
         }
@@ -112,14 +133,30 @@ public class Main {
         if (trainer != null) {
             trainer.shutdown();
         }
-        trainer = new Trainer(network, loss, learningRate);
+        trainer = new Trainer(network, loss, optimizer);
+        trainer.setNormalizers(inputNormalizer, outputNormalizer);
+        if (earlyStop) {
+            // Check ~100 times per run, halve the rate after 5 flat checks and stop after 10
+            int checkInterval = Math.max(1, epochs / 100);
+            trainer.setEarlyStopping(new EarlyStopping(0.1, checkInterval, 10, 0.0));
+            trainer.setLearningRateSchedule(new ReduceOnPlateau(0.5, 5, 0.0, 1e-6));
+        }
+        if (!checkpointFile.equalsIgnoreCase("none")) {
+            trainer.setCheckpointing(checkpointFile, Math.max(1, epochs / 100));
+            if (Files.exists(Paths.get(checkpointFile))) {
+                System.out.print("Resume from the existing checkpoint? (y/n): ");
+                if (scanner.next().equalsIgnoreCase("y")) {
+                    resumeTraining(checkpointFile);
+                }
+            }
+        }
 
         System.out.println("Starting training on " + currentFunction.name + "...");
         int printInterval = Math.max(1, epochs / 10); 
         
         long startTime = System.nanoTime();
         
-        trainer.train(trainingDataset, epochs, batchSize, printInterval);
+        trainer.train(rawDataset, epochs, batchSize, printInterval);
         
         long endTime = System.nanoTime();
         double timeElapsedSeconds = (endTime - startTime) / 1_000_000_000.0;
@@ -127,7 +164,7 @@ public class Main {
         
         System.out.print("\nSave this model? (y/n): ");
         if (scanner.next().equalsIgnoreCase("y")) {
-            System.out.print("Enter filename to save (e.g., model.dat): ");
+            System.out.print("Enter filename to save (e.g., model.nnb, or model.dat for Java serialization): ");
             String filename = scanner.next();
             
             TrainedModel model = new TrainedModel(network, currentFunction, inputNormalizer, outputNormalizer);
@@ -135,6 +172,52 @@ public class Main {
         }
     }
     
+    private static void searchHyperparameters() {
+        selectFunction();
+
+        System.out.println("\nPlease choose a search strategy:");
+        System.out.println("1. Grid (Every combination, worse half pruned at each rung)");
+        System.out.println("2. Random (20 random combinations, worse half pruned at each rung)");
+        System.out.println("3. Hyperband (Many short trials, only the best third trains on)");
+        System.out.print("Select (1-3): ");
+        SearchStrategy strategy = SearchStrategy.values()[getUserInput(1, 3) - 1];
+
+        int maxEpochs = getDynamicInput("\nEnter the most epochs any trial may train (1 - 100,000): ", 1, 100000);
+        System.out.print("\nEnter leaderboard filename (e.g., leaderboard.csv): ");
+        String leaderboardFile = scanner.next();
+
+        HyperparameterSearch search = new HyperparameterSearch(currentFunction, new SearchSpace());
+        search.setStrategy(strategy);
+        search.setMaxEpochs(maxEpochs);
+        search.setLeaderboardFile(leaderboardFile);
+        List<Trial> ranked = search.run();
+
+        Trial best = ranked.isEmpty() ? null : ranked.get(0);
+        if (best == null || best.getNetwork() == null) {
+            clearModelFromMemory();
+            return;
+        }
+        System.out.print("\nKeep the best network (" + best.getConfig() + ")? (y/n): ");
+        if (scanner.next().equalsIgnoreCase("y")) {
+            network = best.getNetwork();
+            inputNormalizer = search.getInputNormalizer();
+            outputNormalizer = search.getOutputNormalizer();
+        } else {
+            clearModelFromMemory();
+        }
+    }
+
+    private static void resumeTraining(String checkpointFile) {
+        try {
+            Checkpoint checkpoint = trainer.resume(checkpointFile);
+            // The checkpoint's ranges, so the weights keep meaning the same thing
+            inputNormalizer = checkpoint.getInputNormalizer();
+            outputNormalizer = checkpoint.getOutputNormalizer();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Could not resume, starting from scratch: " + e.getMessage());
+        }
+    }
+
     private static void selectFunction() {
         System.out.println("\nPlease choose a function to learn:");
         System.out.println("1. f(x) = 2x           (Linear)");
@@ -143,9 +226,11 @@ public class Main {
         System.out.println("4. f(x) = sin(x)       (Periodic, Normalized)");
         System.out.println("5. f(x) = e^x          (Exponential, Normalized)");
         System.out.println("6. f(x) = 0.5x + 3     (Linear w/ Bias)");
-        System.out.print("Select (1-6): ");
+        System.out.println("7. f(x, y) = sin(x)cos(y)           (2 inputs, Normalized)");
+        System.out.println("8. f(x, y, z) = (xy + z, x - yz)     (3 inputs, 2 outputs, Normalized)");
+        System.out.print("Select (1-8): ");
 
-        int choice = getUserInput(1, 6);
+        int choice = getUserInput(1, 8);
         currentFunction = getFunctionInfoFromID(choice);
     }
 
@@ -158,33 +243,86 @@ public class Main {
         int choice = getUserInput(1, 2);
         return (choice == 1) ? new ReLU() : new Tanh();
     }
+
+    private static Precision selectPrecision() {
+        System.out.println("\nPlease choose the weight precision:");
+        System.out.println("1. Double (Default)");
+        System.out.println("2. Float (Half the model size, fastest inference)");
+        System.out.println("3. Float weights, double sums (Half the model size, closer to double)");
+        System.out.print("Select (1-3): ");
+
+        int choice = getUserInput(1, 3);
+        switch (choice) {
+            case 2: return Precision.FLOAT;
+            case 3: return Precision.MIXED;
+            default: return Precision.DOUBLE;
+        }
+    }
     
+    private static boolean selectFastActivations() {
+        System.out.println("\nPlease choose how activations are evaluated:");
+        System.out.println("1. Exact (Default)");
+        System.out.println("2. Fast approximation (Tanh/Sigmoid from a lookup table, error below 1.1e-8)");
+        System.out.print("Select (1-2): ");
+
+        return getUserInput(1, 2) == 2;
+    }
+
     private static NeuralNetwork selectArchitecture() {
+        int inputs = currentFunction.getInputSize();
+        int outputs = currentFunction.getOutputSize();
+        // Widen hidden layers as the function gains dimensions
+        int widthFactor = Math.max(1, (inputs + outputs) / 2);
+        int standardWidth = 16 * widthFactor;
+        int deepWidth = 32 * widthFactor;
+
         System.out.println("\nPlease choose a network architecture:");
-        System.out.println("1. Standard (2 hidden layers, 16 neurons each)");
-        System.out.println("2. Deep (4 hidden layers, 32 neurons each)");
+        System.out.println("1. Standard (2 hidden layers, " + standardWidth + " neurons each)");
+        System.out.println("2. Deep (4 hidden layers, " + deepWidth + " neurons each)");
         System.out.print("Select (1-2): ");
         
         int archChoice = getUserInput(1, 2);
         ActivationFunction activation = selectActivation();
-        NeuralNetwork nn = new NeuralNetwork();
+        NeuralNetwork nn = new NeuralNetwork(selectPrecision());
         
         if (archChoice == 1) {
-            nn.add(new DenseLayer(1, 16, activation));
-            nn.add(new DenseLayer(16, 16, activation));
-            nn.add(new DenseLayer(16, 1, null)); // Linear output layer
+            nn.add(new DenseLayer(inputs, standardWidth, activation));
+            nn.add(new DenseLayer(standardWidth, standardWidth, activation));
+            nn.add(new DenseLayer(standardWidth, outputs, null)); // Linear output layer
         } else {
-            nn.add(new DenseLayer(1, 32, activation));
-            nn.add(new DenseLayer(32, 32, activation));
-            nn.add(new DenseLayer(32, 32, activation));
-            nn.add(new DenseLayer(32, 32, activation));
-            nn.add(new DenseLayer(32, 1, null)); // Linear output layer
+            nn.add(new DenseLayer(inputs, deepWidth, activation));
+            nn.add(new DenseLayer(deepWidth, deepWidth, activation));
+            nn.add(new DenseLayer(deepWidth, deepWidth, activation));
+            nn.add(new DenseLayer(deepWidth, deepWidth, activation));
+            nn.add(new DenseLayer(deepWidth, outputs, null)); // Linear output layer
+        }
+        if (!(activation instanceof ReLU)) {
+            nn.setFastActivations(selectFastActivations());
         }
         return nn;
     }
 
+    private static Optimizer selectOptimizer(NeuralNetwork nn) {
+        System.out.println("\nPlease choose an optimizer:");
+        System.out.println("1. SGD (Plain gradient descent)");
+        System.out.println("2. SGD + Nesterov Momentum");
+        System.out.println("3. RMSProp");
+        System.out.println("4. Adam (Converges in far fewer epochs)");
+        System.out.print("Select (1-4): ");
+
+        int choice = getUserInput(1, 4);
+        double learningRate = 0.001;
+        int parameterCount = nn.getParameterCount();
+        switch (choice) {
+            case 2: return new Momentum(parameterCount, learningRate);
+            case 3: return new RMSProp(parameterCount, learningRate);
+            case 4: return new Adam(parameterCount, learningRate);
+            default: return new SGD(parameterCount, learningRate);
+        }
+    }
+
     private static void loadNetwork() {
-        System.out.print("\nEnter filename to load (e.g., model.dat): ");
+        System.out.print("\nEnter filename to load (e.g., model.nnb or model.dat): ");
         String filename = scanner.next();
         TrainedModel model = NetworkSerializer.load(filename);
         
@@ -193,13 +331,22 @@ public class Main {
             clearModelFromMemory();
         } else {
             network = model.getNetwork();
-            currentFunction = getFunctionInfoFromName(model.getFunctionInfo().name);
+            FunctionInfo saved = model.getFunctionInfo();
+            currentFunction = getFunctionInfoFromName(saved.name);
+            if (currentFunction == null) {
+                currentFunction = new FunctionInfo("Unknown Function", (in, out) -> Arrays.fill(out, Double.NaN),
+                        saved.getInputMin(), saved.getInputMax(), saved.getOutputSize(), false);
+            }
             inputNormalizer = model.getInputNormalizer();
             outputNormalizer = model.getOutputNormalizer();
         }
     }
 
     private static void runPostTrainingMenu() {
+        if (network != null) {
+            inferenceModel = new InferenceModel(
+                    new TrainedModel(network, currentFunction, inputNormalizer, outputNormalizer));
+        }
         while (network != null) {
             System.out.println("\n--- Model Menu (" + currentFunction.name + ") ---");
             System.out.println("1. Interactively Test");
@@ -223,6 +370,10 @@ public class Main {
     }
 
     private static void runTestingLoop() {
+        if (currentFunction.function == null) {
+            runVectorTestingLoop();
+            return;
+        }
         System.out.println("\n--- Interactive Testing ---");
         System.out.println("Enter a number to predict, or 'q' to return.");
 
@@ -236,19 +387,11 @@ public class Main {
 
             try {
                 double x = Double.parseDouble(input);
-                double prediction;
-                
-                if (currentFunction.shouldNormalize) {
-                    double normalizedX = inputNormalizer.normalize(x);
-                    double[] normalizedPrediction = network.predict(new double[]{normalizedX});
-                    prediction = outputNormalizer.denormalize(normalizedPrediction[0]);
-                } else {
-                    prediction = network.predict(new double[]{x})[0];
-                }
+                double prediction = inferenceModel.predict(x);
                 
                 System.out.printf("Network Prediction: %.6f\n", prediction);
                 
-                double expected = currentFunction.function.apply(x);
+                double expected = currentFunction.function.applyAsDouble(x);
                 System.out.printf("Expected Value:     %.6f\n", expected);
 
                 if (currentFunction.shouldNormalize && (x < currentFunction.minX || x > currentFunction.maxX)) {
@@ -261,38 +404,110 @@ public class Main {
         }
     }
 
+    private static void runVectorTestingLoop() {
+        int inputs = currentFunction.getInputSize();
+        double[] in = new double[inputs];
+        double[] prediction = new double[currentFunction.getOutputSize()];
+        double[] expected = new double[currentFunction.getOutputSize()];
+
+        System.out.println("\n--- Interactive Testing ---");
+        System.out.println("Enter " + inputs + " comma-separated numbers (e.g. 1,2.5), or 'q' to return.");
+
+        while (true) {
+            System.out.print("\nTest Input > ");
+            String input = scanner.next();
+
+            if (input.equalsIgnoreCase("q")) {
+                break;
+            }
+
+            String[] parts = input.split(",");
+            if (parts.length != inputs) {
+                System.out.println("Please enter exactly " + inputs + " values.");
+                continue;
+            }
+            try {
+                boolean outside = false;
+                for (int i = 0; i < inputs; i++) {
+                    in[i] = Double.parseDouble(parts[i]);
+                    outside |= in[i] < currentFunction.getMinX(i) || in[i] > currentFunction.getMaxX(i);
+                }
+                inferenceModel.predict(in, prediction);
+                currentFunction.vectorFunction.apply(in, expected);
+
+                System.out.println("Network Prediction: " + Arrays.toString(prediction));
+                System.out.println("Expected Value:     " + Arrays.toString(expected));
+
+                if (currentFunction.shouldNormalize && outside) {
+                    System.out.println("(Warning: Input is outside the trained range, prediction may be unreliable)");
+                }
+
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter numbers or 'q'.");
+            }
+        }
+    }
+
     private static void generateGraph() {
+        if (currentFunction.function == null) {
+            generateSliceGraph();
+            return;
+        }
         System.out.println("\nGenerating graph data...");
         int points = 1000; // Use 1000 points for a smooth graph
-        List<Double> xValues = new ArrayList<>();
-        List<Double> expected = new ArrayList<>();
-        List<Double> predicted = new ArrayList<>();
 
         double step = (currentFunction.maxX - currentFunction.minX) / (points - 1);
+        double[] xs = new double[points];
         for (int i = 0; i < points; i++) {
-            double x = currentFunction.minX + (i * step);
-            double yTrue = currentFunction.function.apply(x);
-            double yPred;
-
-            if (currentFunction.shouldNormalize) {
-                double normalizedX = inputNormalizer.normalize(x);
-                double[] normalizedPred = network.predict(new double[]{normalizedX});
-                yPred = outputNormalizer.denormalize(normalizedPred[0]);
-            } else {
-                yPred = network.predict(new double[]{x})[0];
+            xs[i] = currentFunction.minX + (i * step);
+        }
+        double[] predicted = new double[points];
+        inferenceModel.predict(xs, predicted, points);
+        double[] expected = new double[points];
+        currentFunction.function.apply(xs, expected);
+
+        String title = "Performance on: " + currentFunction.name;
+        GraphingUtil.plot(xs, expected, predicted, title);
+    }
+
+    /** Plots the first output along the first input, holding the other inputs at their range midpoints. */
+    private static void generateSliceGraph() {
+        System.out.println("\nGenerating graph data (slice along the first input, first output)...");
+        int points = 1000;
+        int inputs = currentFunction.getInputSize();
+        int outputs = currentFunction.getOutputSize();
+        double[] xValues = new double[points];
+        double[] expected = new double[points];
+        double[] predicted = new double[points];
+
+        double[] xs = new double[points * inputs];
+        double step = (currentFunction.maxX - currentFunction.minX) / (points - 1);
+        for (int i = 0; i < points; i++) {
+            xs[i * inputs] = currentFunction.minX + (i * step);
+            for (int d = 1; d < inputs; d++) {
+                xs[i * inputs + d] = (currentFunction.getMinX(d) + currentFunction.getMaxX(d)) / 2.0;
             }
+        }
+        double[] ys = new double[points * outputs];
+        inferenceModel.predict(xs, ys, points);
 
-            xValues.add(x);
-            expected.add(yTrue);
-            predicted.add(yPred);
+        double[] in = new double[inputs];
+        double[] out = new double[outputs];
+        for (int i = 0; i < points; i++) {
+            System.arraycopy(xs, i * inputs, in, 0, inputs);
+            currentFunction.vectorFunction.apply(in, out);
+            xValues[i] = in[0];
+            expected[i] = out[0];
+            predicted[i] = ys[i * outputs];
         }
 
-        String title = "Performance on: " + currentFunction.name;
+        String title = "Performance on: " + currentFunction.name + " (first output, other inputs at midpoint)";
         GraphingUtil.plot(xValues, expected, predicted, title);
     }
 
     private static void clearModelFromMemory() {
         network = null;
+        inferenceModel = null;
         currentFunction = null;
         inputNormalizer = null;
         outputNormalizer = null;
@@ -327,6 +542,13 @@ public class Main {
             case 3: return new FunctionInfo("f(x) = log(x)", Math::log, 0.1, 10.0, true);
             case 4: return new FunctionInfo("f(x) = sin(x)", x -> Math.sin(Math.toRadians(x)), -720.0, 720.0, true);
             case 5: return new FunctionInfo("f(x) = e^x", Math::exp, 0.0, 7.0, true); 
+            case 7: return new FunctionInfo("f(x, y) = sin(x)cos(y)",
+                    (in, out) -> out[0] = Math.sin(in[0]) * Math.cos(in[1]),
+                    new double[]{-Math.PI, -Math.PI}, new double[]{Math.PI, Math.PI}, 1, true);
+            case 8: return new FunctionInfo("f(x, y, z) = (xy + z, x - yz)", (in, out) -> {
+                        out[0] = in[0] * in[1] + in[2];
+                        out[1] = in[0] - in[1] * in[2];
+                    }, new double[]{-2.0, -2.0, -2.0}, new double[]{2.0, 2.0, 2.0}, 2, true);
             
             default: throw new IllegalArgumentException("Invalid choice");
         }
@@ -340,8 +562,10 @@ public class Main {
             case "f(x) = sin(x)":   return getFunctionInfoFromID(4);
             case "f(x) = e^x":      return getFunctionInfoFromID(5);
             case "f(x) = 0.5x + 3": return getFunctionInfoFromID(6);
+            case "f(x, y) = sin(x)cos(y)":        return getFunctionInfoFromID(7);
+            case "f(x, y, z) = (xy + z, x - yz)": return getFunctionInfoFromID(8);
             default: 
-                return new FunctionInfo("Unknown Function", x -> Double.NaN, -10, 10, false);
+                return null;
         }
     }
 }
\ No newline at end of file
@@ -7,4 +7,31 @@ public interface ActivationFunction extends Serializable {
     double value(double x);
 
     double derivative(double x);
+
+    /** f'(x) given the forward output y = f(x); the built-in functions only need y. */
+    default double derivative(double x, double y) {
+        return derivative(x);
+    }
+
+    /** y[i] = f(x[i]) for i in [0, n); {@code x} and {@code y} may be the same array. */
+    default void value(double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] = value(x[i]);
+        }
+    }
+
+    /** delta[i] = gradient[i] * f'(x[i]) for i in [0, n), where y[i] = f(x[i]) is the cached forward output. */
+    default void backward(double[] gradient, double[] x, double[] y, double[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            delta[i] = gradient[i] * derivative(x[i], y[i]);
+        }
+    }
+
+    /**
+     * A cheaper approximation of this function, whose class documents its error bound, or this
+     * function itself when it has none. Used when a network's fast activations are switched on.
+     */
+    default ActivationFunction fast() {
+        return this;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package ifndef.nn.activation;
+
+/**
+ * Stable numeric ids for the built-in activation functions, used by the binary model format.
+ * Id 0 stands for a linear layer (no activation). A fast approximation shares the id of the
+ * function it approximates.
+ */
+public final class Activations {
+
+    public static final int LINEAR = 0;
+    public static final int RELU = 1;
+    public static final int SIGMOID = 2;
+    public static final int TANH = 3;
+
+    private Activations() {
+    }
+
+    public static int idOf(ActivationFunction activation) {
+        if (activation == null) return LINEAR;
+        if (activation instanceof ReLU) return RELU;
+        if (activation instanceof Sigmoid || activation instanceof FastSigmoid) return SIGMOID;
+        if (activation instanceof Tanh || activation instanceof FastTanh) return TANH;
+        throw new IllegalArgumentException("No id for activation " + activation.getClass().getName());
+    }
+
+    public static ActivationFunction fromId(int id) {
+        switch (id) {
+            case LINEAR:  return null;
+            case RELU:    return new ReLU();
+            case SIGMOID: return new Sigmoid();
+            case TANH:    return new Tanh();
+            default: throw new IllegalArgumentException("Unknown activation id " + id);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ifndef.nn.activation;
+
+/**
+ * {@link Sigmoid} as 0.5 + 0.5 * tanh(x / 2) with the tanh table; absolute error below 5.5e-9
+ * (see TanhTable). The derivative is y * (1 - y) of the approximate output.
+ */
+public class FastSigmoid implements ActivationFunction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public double value(double x) {
+        return 0.5 + 0.5 * TanhTable.tanh(0.5 * x);
+    }
+
+    @Override
+    public double derivative(double x) {
+        double y = value(x);
+        return y * (1.0 - y);
+    }
+
+    @Override
+    public double derivative(double x, double y) {
+        return y * (1.0 - y);
+    }
+
+    @Override
+    public void value(double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] = 0.5 + 0.5 * TanhTable.tanh(0.5 * x[i]);
+        }
+    }
+
+    @Override
+    public void backward(double[] gradient, double[] x, double[] y, double[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            delta[i] = gradient[i] * y[i] * (1.0 - y[i]);
+        }
+    }
+}
\ No newline at end of file
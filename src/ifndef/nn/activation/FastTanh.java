@@ -0,0 +1,40 @@
+package ifndef.nn.activation;
+
+/**
+ * {@link Tanh} from an interpolated table instead of Math.tanh; absolute error below 1.1e-8
+ * (see TanhTable). The derivative is 1 - y^2 of the approximate output, within 2.2e-8 of exact.
+ */
+public class FastTanh implements ActivationFunction {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public double value(double x) {
+        return TanhTable.tanh(x);
+    }
+
+    @Override
+    public double derivative(double x) {
+        double y = TanhTable.tanh(x);
+        return 1.0 - y * y;
+    }
+
+    @Override
+    public double derivative(double x, double y) {
+        return 1.0 - y * y;
+    }
+
+    @Override
+    public void value(double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] = TanhTable.tanh(x[i]);
+        }
+    }
+
+    @Override
+    public void backward(double[] gradient, double[] x, double[] y, double[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            delta[i] = gradient[i] * (1.0 - y[i] * y[i]);
+        }
+    }
+}
\ No newline at end of file
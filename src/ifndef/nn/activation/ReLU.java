@@ -2,6 +2,8 @@ package ifndef.nn.activation;
 
 public class ReLU implements ActivationFunction {
 
+    private static final long serialVersionUID = 674457462236104782L;
+
     @Override
     public double value(double x) {
         return Math.max(0, x);
@@ -11,4 +13,23 @@ public class ReLU implements ActivationFunction {
     public double derivative(double x) {
         return (x > 0) ? 1.0 : 0.0;
     }
+
+    @Override
+    public double derivative(double x, double y) {
+        return (y > 0) ? 1.0 : 0.0;
+    }
+
+    @Override
+    public void value(double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] = Math.max(0, x[i]);
+        }
+    }
+
+    @Override
+    public void backward(double[] gradient, double[] x, double[] y, double[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            delta[i] = (y[i] > 0) ? gradient[i] : 0.0;
+        }
+    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package ifndef.nn.activation;
 
 public class Sigmoid implements ActivationFunction {
 
+    private static final long serialVersionUID = 7567018803561074443L;
+
     @Override
     public double value(double x) {
         return 1.0 / (1.0 + Math.exp(-x));
@@ -14,4 +16,28 @@ public class Sigmoid implements ActivationFunction {
         double sig = value(x);
         return sig * (1.0 - sig);
     }
+
+    @Override
+    public double derivative(double x, double y) {
+        return y * (1.0 - y);
+    }
+
+    @Override
+    public void value(double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] = 1.0 / (1.0 + Math.exp(-x[i]));
+        }
+    }
+
+    @Override
+    public void backward(double[] gradient, double[] x, double[] y, double[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            delta[i] = gradient[i] * y[i] * (1.0 - y[i]);
+        }
+    }
+
+    @Override
+    public ActivationFunction fast() {
+        return new FastSigmoid();
+    }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package ifndef.nn.activation;
 
 public class Tanh implements ActivationFunction {
 
+    private static final long serialVersionUID = 6322078095699684721L;
+
     @Override
     public double value(double x) {
         return Math.tanh(x);
@@ -13,4 +15,28 @@ public class Tanh implements ActivationFunction {
         double tanh_x = Math.tanh(x);
         return 1.0 - (tanh_x * tanh_x);
     }
+
+    @Override
+    public double derivative(double x, double y) {
+        return 1.0 - y * y;
+    }
+
+    @Override
+    public void value(double[] x, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] = Math.tanh(x[i]);
+        }
+    }
+
+    @Override
+    public void backward(double[] gradient, double[] x, double[] y, double[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            delta[i] = gradient[i] * (1.0 - y[i] * y[i]);
+        }
+    }
+
+    @Override
+    public ActivationFunction fast() {
+        return new FastTanh();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package ifndef.nn.activation;
+
+/**
+ * tanh from a table: [0, LIMIT] is cut into intervals of 1/32 and each is a cubic Hermite
+ * polynomial matching tanh and its exact slope 1 - tanh^2 at both ends. Odd symmetry covers
+ * negative x, and beyond LIMIT the result is +-1. Absolute error is below 1.1e-8 everywhere
+ * (the interpolation error is at most 1.02e-8, the tail 1 - tanh(10) is 4.1e-9). The 10 KB
+ * table stays in L1, and a lookup costs a fraction of Math.tanh.
+ */
+final class TanhTable {
+
+    private static final double LIMIT = 10.0;
+    private static final double STEPS_PER_UNIT = 32.0;
+
+    // Per interval i: c0 + u * (c1 + u * (c2 + u * c3)) with u in [0, 1) the position inside it
+    private static final double[] COEFFICIENTS = build();
+
+    private TanhTable() {
+    }
+
+    private static double[] build() {
+        int intervals = (int) (LIMIT * STEPS_PER_UNIT);
+        double step = 1.0 / STEPS_PER_UNIT;
+        double[] c = new double[4 * intervals];
+        for (int i = 0; i < intervals; i++) {
+            double y0 = Math.tanh(i * step);
+            double y1 = Math.tanh((i + 1) * step);
+            double m0 = (1.0 - y0 * y0) * step;
+            double m1 = (1.0 - y1 * y1) * step;
+            c[4 * i] = y0;
+            c[4 * i + 1] = m0;
+            c[4 * i + 2] = 3.0 * (y1 - y0) - 2.0 * m0 - m1;
+            c[4 * i + 3] = 2.0 * (y0 - y1) + m0 + m1;
+        }
+        return c;
+    }
+
+    static double tanh(double x) {
+        double a = Math.abs(x);
+        if (!(a < LIMIT)) {
+            return Double.isNaN(x) ? x : Math.copySign(1.0, x);
+        }
+        double t = a * STEPS_PER_UNIT;
+        int i = (int) t;
+        double u = t - i;
+        int j = 4 * i;
+        double[] c = COEFFICIENTS;
+        return Math.copySign(c[j] + u * (c[j + 1] + u * (c[j + 2] + u * c[j + 3])), x);
+    }
+}
\ No newline at end of file
@@ -5,114 +5,160 @@ import java.util.Random;
 
 public class DenseLayer implements Layer {
 
+    private static final long serialVersionUID = -7848837702817084960L;
+
     private final int inputSize;
     private final int outputSize;
     private final ActivationFunction activation;
 
-    private double[][] weights;
-    private double[] biases;
+    // activation.fast() while the network's fast activations are on, else null
+    private ActivationFunction approximation;
 
-    private transient double[] lastInputs;
-    private transient double[] lastWeightedSums;
+    // Weights are stored row-major ([outputSize][inputSize]) followed by the biases,
+    // inside a parameter array that is usually shared with the rest of the network.
+    private double[] parameters;
+    private int weightOffset;
+    private int biasOffset;
 
     public DenseLayer(int inputSize, int outputSize, ActivationFunction activation) {
+        this(inputSize, outputSize, activation, true);
+    }
+
+    private DenseLayer(int inputSize, int outputSize, ActivationFunction activation, boolean initialize) {
         this.inputSize = inputSize;
         this.outputSize = outputSize;
         this.activation = activation;
+        this.biasOffset = outputSize * inputSize;
+        if (!initialize) {
+            return;
+        }
 
-        this.weights = new double[outputSize][inputSize];
-        this.biases = new double[outputSize];
-
+        this.parameters = new double[getParameterCount()];
         Random rand = new Random();
         double variance = Math.sqrt(2.0 / (inputSize + outputSize));
-        for (int i = 0; i < outputSize; i++) {
-            for (int j = 0; j < inputSize; j++) {
-                this.weights[i][j] = rand.nextGaussian() * variance;
-            }
-            this.biases[i] = 0.0;
+        for (int i = 0; i < outputSize * inputSize; i++) {
+            this.parameters[i] = rand.nextGaussian() * variance;
         }
     }
 
+    /**
+     * A layer with no weights of its own, for loaders that overwrite every parameter anyway: it
+     * allocates and initializes nothing and can only be used once a network has bound it.
+     */
+    public static DenseLayer unbound(int inputSize, int outputSize, ActivationFunction activation) {
+        return new DenseLayer(inputSize, outputSize, activation, false);
+    }
+
     @Override
-    public double[] forward(double[] inputs) {
-        
-        this.lastInputs = inputs;
-
-        double[] outputs = new double[outputSize];
-        this.lastWeightedSums = new double[outputSize];
-
-        for (int i = 0; i < outputSize; i++) {
-            double weightedSum = 0.0;
-            for (int j = 0; j < inputSize; j++) {
-                weightedSum += inputs[j] * weights[i][j];
-            }
-            weightedSum += biases[i];
-            
-            this.lastWeightedSums[i] = weightedSum;
-
-            if (activation != null) {
-                outputs[i] = activation.value(weightedSum);
-            } else {
-                outputs[i] = weightedSum;
-            }
-        }
-        return outputs;
+    public double[] forward(double[] inputs, LayerContext context) {
+        context.setInputs(inputs);
+        return forward(inputs, 1, context.getWeightedSums(), context.getOutputs());
     }
 
     @Override
-    public GradientPackage backward(double[] outputGradient) {
-        double[] layerGradient = new double[outputSize];
-        double[] inputGradient = new double[inputSize];
-        double[][] weightGradients = new double[outputSize][inputSize];
-        double[] biasGradients = new double[outputSize];
-
-        for (int i = 0; i < outputSize; i++) {
-            if (activation != null) {
-                layerGradient[i] = outputGradient[i] * activation.derivative(lastWeightedSums[i]);
-            } else {
-                layerGradient[i] = outputGradient[i];
-            }
-        }
+    public double[] backward(double[] outputGradient, LayerContext context, GradientPackage accumulator) {
+        double[] delta = layerGradient(outputGradient, outputSize, context.getWeightedSums(), context.getOutputs(),
+                context.getLayerGradient());
+        double[] inputGradient = context.getInputGradient();
+
+        MatrixKernels.inputGradient(delta, 1, outputSize, parameters, weightOffset, inputGradient, inputSize);
+        MatrixKernels.accumulateWeightGradient(delta, 1, outputSize, context.getInputs(), inputSize,
+                accumulator.getValues(), weightOffset, biasOffset);
+
+        return inputGradient;
+    }
+
+    @Override
+    public double[] forwardBatch(double[] inputs, int rows, LayerContext context) {
+        context.ensureBatchCapacity(rows);
+        context.setBatchInputs(inputs);
+        return forward(inputs, rows, context.getBatchWeightedSums(), context.getBatchOutputs());
+    }
+
+    @Override
+    public double[] backwardBatch(double[] outputGradient, int rows, LayerContext context,
+                                  GradientPackage accumulator) {
+        double[] delta = layerGradient(outputGradient, rows * outputSize, context.getBatchWeightedSums(),
+                context.getBatchOutputs(), context.getBatchLayerGradient());
+        double[] inputGradient = context.getBatchInputGradient();
+
+        MatrixKernels.inputGradient(delta, rows, outputSize, parameters, weightOffset, inputGradient, inputSize);
+        MatrixKernels.accumulateWeightGradient(delta, rows, outputSize, context.getBatchInputs(), inputSize,
+                accumulator.getValues(), weightOffset, biasOffset);
 
-        for (int j = 0; j < inputSize; j++) {
-            double grad = 0.0;
-            for (int i = 0; i < outputSize; i++) {
-                grad += layerGradient[i] * weights[i][j];
-            }
-            inputGradient[j] = grad;
+        return inputGradient;
+    }
+
+    /**
+     * Built-in activations are fused into the kernel and never need the weighted sums; any other
+     * activation is applied in bulk over the sums afterwards.
+     */
+    private double[] forward(double[] inputs, int rows, double[] weightedSums, double[] outputs) {
+        ActivationFunction function = getEffectiveActivation();
+        KernelActivation fused = KernelActivation.of(function);
+        if (fused != null) {
+            MatrixKernels.forward(inputs, rows, inputSize, parameters, weightOffset, biasOffset, outputs, outputSize,
+                    fused);
+        } else {
+            MatrixKernels.forward(inputs, rows, inputSize, parameters, weightOffset, biasOffset, weightedSums,
+                    outputSize);
+            function.value(weightedSums, outputs, rows * outputSize);
         }
+        return outputs;
+    }
 
-        for (int i = 0; i < outputSize; i++) {
-            for (int j = 0; j < inputSize; j++) {
-                weightGradients[i][j] = layerGradient[i] * lastInputs[j];
-            }
-            biasGradients[i] = layerGradient[i];
+    /** Gradient with respect to the weighted sums; a linear layer passes {@code outputGradient} through as is. */
+    private double[] layerGradient(double[] outputGradient, int n, double[] weightedSums, double[] outputs,
+                                   double[] layerGradient) {
+        ActivationFunction function = getEffectiveActivation();
+        KernelActivation fused = KernelActivation.of(function);
+        if (fused == KernelActivation.IDENTITY) {
+            return outputGradient;
+        }
+        if (fused != null) {
+            MatrixKernels.activationGradient(fused, outputGradient, outputs, layerGradient, n);
+        } else {
+            function.backward(outputGradient, weightedSums, outputs, layerGradient, n);
         }
-        
-        return new GradientPackage(weightGradients, biasGradients, inputGradient);
+        return layerGradient;
     }
 
     @Override
-    public void applyGradients(GradientPackage gradients, double learningRate) {
-        double[][] weightGradients = gradients.getWeightGradients();
-        double[] biasGradients = gradients.getBiasGradients();
-
-        for (int i = 0; i < outputSize; i++) {
-            for (int j = 0; j < inputSize; j++) {
-                weights[i][j] -= learningRate * weightGradients[i][j];
-            }
-            
-            biases[i] -= learningRate * biasGradients[i];
+    public int getParameterCount() {
+        return outputSize * inputSize + outputSize;
+    }
+
+    @Override
+    public void bindParameters(double[] storage, int offset) {
+        if (this.parameters != null) {
+            System.arraycopy(this.parameters, this.weightOffset, storage, offset, getParameterCount());
         }
+        this.parameters = storage;
+        this.weightOffset = offset;
+        this.biasOffset = offset + outputSize * inputSize;
+    }
+
+    @Override
+    public LayerContext createContext() {
+        return new LayerContext(inputSize, outputSize);
     }
-    
+
+    public ActivationFunction getActivation() {
+        return activation;
+    }
+
+    /** The function the layer actually evaluates: the activation or its fast approximation. */
+    public ActivationFunction getEffectiveActivation() {
+        return approximation != null ? approximation : activation;
+    }
+
+    public void setFastActivation(boolean fast) {
+        this.approximation = fast && activation != null ? activation.fast() : null;
+    }
+
     @Override
-    public GradientPackage createEmptyGradients() {
-        double[][] weightGradients = new double[outputSize][inputSize];
-        double[] biasGradients = new double[outputSize];
-        double[] inputGradient = new double[inputSize]; 
-        
-        return new GradientPackage(weightGradients, biasGradients, inputGradient);
+    public int getInputSize() {
+        return inputSize;
     }
 
     @Override
@@ -0,0 +1,75 @@
+package ifndef.nn.core;
+
+/**
+ * Scratch state for one worker thread: the activations cached by the forward pass,
+ * the gradient buffers used by the backward pass and the accumulated parameter gradients.
+ * A context must never be shared between threads; layers themselves stay read-only
+ * during forward and backward so any number of contexts can run against one network.
+ */
+public class ExecutionContext {
+
+    private final LayerContext[] layerContexts;
+    private final GradientPackage gradients;
+    private final int inputSize;
+    private final int outputSize;
+    private final double[] lossGradient;
+
+    private int batchCapacity;
+    private double[] batchInputs;
+    private double[] batchTargets;
+    private double[] batchLossGradient;
+
+    ExecutionContext(LayerContext[] layerContexts, GradientPackage gradients, int inputSize, int outputSize) {
+        this.layerContexts = layerContexts;
+        this.gradients = gradients;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.lossGradient = new double[outputSize];
+    }
+
+    public LayerContext getLayerContext(int index) {
+        return layerContexts[index];
+    }
+
+    /** Null in the forward-only contexts behind {@link NeuralNetwork#predict(double[])}. */
+    public GradientPackage getGradients() {
+        return gradients;
+    }
+
+    public double[] getLossGradient() {
+        return lossGradient;
+    }
+
+    public void clearGradients() {
+        gradients.clear();
+    }
+
+    /**
+     * Grows the packed input/target/loss-gradient matrices and every layer's batch buffers
+     * so that a batch of {@code rows} samples fits without further allocation.
+     */
+    public void ensureBatchCapacity(int rows) {
+        if (rows <= batchCapacity) {
+            return;
+        }
+        this.batchInputs = new double[rows * inputSize];
+        this.batchTargets = new double[rows * outputSize];
+        this.batchLossGradient = new double[rows * outputSize];
+        for (LayerContext layerContext : layerContexts) {
+            layerContext.ensureBatchCapacity(rows);
+        }
+        this.batchCapacity = rows;
+    }
+
+    public double[] getBatchInputs() {
+        return batchInputs;
+    }
+
+    public double[] getBatchTargets() {
+        return batchTargets;
+    }
+
+    public double[] getBatchLossGradient() {
+        return batchLossGradient;
+    }
+}
\ No newline at end of file
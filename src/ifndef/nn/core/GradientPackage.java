@@ -1,39 +1,46 @@
 package ifndef.nn.core;
 
+import java.util.Arrays;
 
+/**
+ * Gradients for every parameter of a network, laid out exactly like
+ * {@link NeuralNetwork#getParameters()} so reduction and scaling are single linear sweeps.
+ */
 public class GradientPackage {
 
-    private final double[][] weightGradients;
-    private final double[] biasGradients;
-    private final double[] inputGradient; 
+    private final double[] values;
 
-    public GradientPackage(double[][] weightGradients, double[] biasGradients, double[] inputGradient) {
-        this.weightGradients = weightGradients;
-        this.biasGradients = biasGradients;
-        this.inputGradient = inputGradient;
+    public GradientPackage(int size) {
+        this.values = new double[size];
     }
 
-    public double[][] getWeightGradients() {
-        return weightGradients;
+    public double[] getValues() {
+        return values;
     }
 
-    public double[] getBiasGradients() {
-        return biasGradients;
-    }
-
-    public double[] getInputGradient() {
-        return inputGradient;
+    public int size() {
+        return values.length;
     }
     
     public void add(GradientPackage other) {
-        for (int i = 0; i < this.weightGradients.length; i++) {
-            for (int j = 0; j < this.weightGradients[i].length; j++) {
-                this.weightGradients[i][j] += other.weightGradients[i][j];
-            }
+        MatrixKernels.axpy(1.0, other.values, 0, values, 0, values.length);
+    }
+
+    /** this = (this + other) * factor, in one pass. */
+    public void addScaled(GradientPackage other, double factor) {
+        double[] source = other.values;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (values[i] + source[i]) * factor;
         }
-        
-        for (int i = 0; i < this.biasGradients.length; i++) {
-            this.biasGradients[i] += other.biasGradients[i];
+    }
+
+    public void scale(double factor) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= factor;
         }
     }
+
+    public void clear() {
+        Arrays.fill(values, 0.0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package ifndef.nn.core;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.activation.ReLU;
+import ifndef.nn.activation.Sigmoid;
+import ifndef.nn.activation.Tanh;
+
+/**
+ * Activations the kernels apply themselves: fused into the forward pass, where each block of
+ * outputs is activated while still in cache, and into the gradient, which only needs the
+ * outputs. Any other {@link ActivationFunction}, including the fast approximations, runs
+ * through its own bulk methods instead.
+ */
+public enum KernelActivation {
+
+    IDENTITY,
+    RELU,
+    TANH,
+    SIGMOID;
+
+    /**
+     * The kernel form of {@code activation} (null meaning a linear layer), or null when the
+     * kernels have none. Only the exact built-in classes match, since a subclass may change them.
+     */
+    public static KernelActivation of(ActivationFunction activation) {
+        if (activation == null) return IDENTITY;
+        Class<?> type = activation.getClass();
+        if (type == ReLU.class) return RELU;
+        if (type == Tanh.class) return TANH;
+        if (type == Sigmoid.class) return SIGMOID;
+        return null;
+    }
+}
\ No newline at end of file
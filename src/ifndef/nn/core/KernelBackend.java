@@ -0,0 +1,41 @@
+package ifndef.nn.core;
+
+/**
+ * Implementation of the dense-layer inner loops. {@link MatrixKernels} picks one backend at
+ * startup; the batched methods take the same row-major layouts described there.
+ */
+public interface KernelBackend {
+
+    String getName();
+
+    /** out[r][o] = bias[o] + sum_k in[r][k] * weights[o][k] */
+    default void forward(double[] in, int rows, int inputSize, double[] params, int weightOffset, int biasOffset,
+                         double[] out, int outputSize) {
+        forward(in, rows, inputSize, params, weightOffset, biasOffset, out, outputSize, KernelActivation.IDENTITY);
+    }
+
+    /** out[r][o] = f(bias[o] + sum_k in[r][k] * weights[o][k]), activating each row block while it is in cache */
+    void forward(double[] in, int rows, int inputSize, double[] params, int weightOffset, int biasOffset,
+                 double[] out, int outputSize, KernelActivation activation);
+
+    /** delta[i] = gradient[i] * f'(x[i]) for i in [0, n), computed from the outputs y[i] = f(x[i]) */
+    void activationGradient(KernelActivation activation, double[] gradient, double[] y, double[] delta, int n);
+
+    /** Float variant of forward for float inference; {@code doubleSums} accumulates each dot product in double. */
+    void forward(float[] in, int rows, int inputSize, float[] params, int weightOffset, int biasOffset,
+                 float[] out, int outputSize, boolean doubleSums);
+
+    /** out[r][o] = sum_k in[r][k] * weights[o][k] in exact int arithmetic, for int8-quantized inference. */
+    void forward(byte[] in, int rows, int inputSize, byte[] weights, int weightOffset, int[] out, int outputSize);
+
+    /** inGrad[r][k] = sum_o delta[r][o] * weights[o][k] */
+    void inputGradient(double[] delta, int rows, int outputSize, double[] params, int weightOffset,
+                       double[] inGrad, int inputSize);
+
+    /** weightGrad[o][k] += sum_r delta[r][o] * in[r][k]; biasGrad[o] += sum_r delta[r][o] */
+    void accumulateWeightGradient(double[] delta, int rows, int outputSize, double[] in, int inputSize,
+                                  double[] grads, int weightOffset, int biasOffset);
+
+    /** y[yOffset + i] += alpha * x[xOffset + i] for i in [0, length) */
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+}
\ No newline at end of file
@@ -4,13 +4,26 @@ import java.io.Serializable;
 
 public interface Layer extends Serializable {
 
-    double[] forward(double[] inputs);
+    double[] forward(double[] inputs, LayerContext context);
 
-    GradientPackage backward(double[] outputGradient);
+    double[] backward(double[] outputGradient, LayerContext context, GradientPackage accumulator);
 
-    void applyGradients(GradientPackage gradients, double learningRate);
+    double[] forwardBatch(double[] inputs, int rows, LayerContext context);
 
-    GradientPackage createEmptyGradients();
+    double[] backwardBatch(double[] outputGradient, int rows, LayerContext context, GradientPackage accumulator);
+
+    int getParameterCount();
+
+    /**
+     * Moves this layer's parameters into {@code storage} starting at {@code offset}, copying the
+     * current values across (if it has any yet). Gradients for the layer use the same offset in a network-sized
+     * {@link GradientPackage}.
+     */
+    void bindParameters(double[] storage, int offset);
+
+    LayerContext createContext();
+
+    int getInputSize();
 
     int getOutputSize();
 }
\ No newline at end of file
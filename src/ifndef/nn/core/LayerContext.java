@@ -0,0 +1,94 @@
+package ifndef.nn.core;
+
+public class LayerContext {
+
+    private final int inputSize;
+    private final int outputSize;
+
+    private final double[] weightedSums;
+    private final double[] outputs;
+    private final double[] layerGradient;
+    private final double[] inputGradient;
+
+    private double[] inputs;
+
+    private int batchCapacity;
+    private double[] batchWeightedSums;
+    private double[] batchOutputs;
+    private double[] batchLayerGradient;
+    private double[] batchInputGradient;
+
+    private double[] batchInputs;
+
+    public LayerContext(int inputSize, int outputSize) {
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.weightedSums = new double[outputSize];
+        this.outputs = new double[outputSize];
+        this.layerGradient = new double[outputSize];
+        this.inputGradient = new double[inputSize];
+    }
+
+    public double[] getInputs() {
+        return inputs;
+    }
+
+    public void setInputs(double[] inputs) {
+        this.inputs = inputs;
+    }
+
+    public double[] getWeightedSums() {
+        return weightedSums;
+    }
+
+    public double[] getOutputs() {
+        return outputs;
+    }
+
+    public double[] getLayerGradient() {
+        return layerGradient;
+    }
+
+    public double[] getInputGradient() {
+        return inputGradient;
+    }
+
+    /**
+     * Grows the row-major batch buffers so they can hold at least {@code rows} samples.
+     * Buffers are only reallocated when a larger batch than any seen before arrives.
+     */
+    public void ensureBatchCapacity(int rows) {
+        if (rows <= batchCapacity) {
+            return;
+        }
+        this.batchWeightedSums = new double[rows * outputSize];
+        this.batchOutputs = new double[rows * outputSize];
+        this.batchLayerGradient = new double[rows * outputSize];
+        this.batchInputGradient = new double[rows * inputSize];
+        this.batchCapacity = rows;
+    }
+
+    public double[] getBatchInputs() {
+        return batchInputs;
+    }
+
+    public void setBatchInputs(double[] batchInputs) {
+        this.batchInputs = batchInputs;
+    }
+
+    public double[] getBatchWeightedSums() {
+        return batchWeightedSums;
+    }
+
+    public double[] getBatchOutputs() {
+        return batchOutputs;
+    }
+
+    public double[] getBatchLayerGradient() {
+        return batchLayerGradient;
+    }
+
+    public double[] getBatchInputGradient() {
+        return batchInputGradient;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package ifndef.nn.core;
+
+/**
+ * Entry point for the dense-layer kernels. Batches are row-major {@code rows x cols} matrices
+ * stored in a single {@code double[]}; a layer's weights are a row-major
+ * {@code [outputSize][inputSize]} block of the flat parameter array starting at
+ * {@code weightOffset}. A single sample is simply a batch of one row.
+ * <p>
+ * The backend is chosen once at startup. {@code vector} uses {@code jdk.incubator.vector} and is
+ * picked automatically when the JVM runs with {@code --add-modules jdk.incubator.vector};
+ * otherwise the plain {@code scalar} loops are used. Set {@code -Difndef.nn.kernels=scalar} or
+ * {@code =vector} to force one.
+ */
+public final class MatrixKernels {
+
+    public static final int ROW_BLOCK = 64;
+    public static final int COL_BLOCK = 64;
+
+    public static final String BACKEND_PROPERTY = "ifndef.nn.kernels";
+
+    private static final String VECTOR_CLASS = "ifndef.nn.core.VectorKernels";
+
+    private static final KernelBackend BACKEND = selectBackend(System.getProperty(BACKEND_PROPERTY, "auto"));
+
+    private MatrixKernels() {
+    }
+
+    /** The backend every layer is using. */
+    public static KernelBackend getBackend() {
+        return BACKEND;
+    }
+
+    public static KernelBackend scalarBackend() {
+        return new ScalarKernels();
+    }
+
+    /** The Vector API backend, or null when {@code jdk.incubator.vector} is not available. */
+    public static KernelBackend vectorBackend() {
+        try {
+            return (KernelBackend) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static KernelBackend selectBackend(String name) {
+        switch (name) {
+            case "scalar":
+                return scalarBackend();
+            case "vector":
+                KernelBackend vector = vectorBackend();
+                if (vector == null) {
+                    throw new IllegalStateException(
+                            "Vector kernels need --add-modules jdk.incubator.vector");
+                }
+                return vector;
+            case "auto":
+                vector = vectorBackend();
+                return vector != null ? vector : scalarBackend();
+            default:
+                throw new IllegalArgumentException("Unknown kernel backend: " + name);
+        }
+    }
+
+    /** out[r][o] = bias[o] + sum_k in[r][k] * weights[o][k] */
+    public static void forward(double[] in, int rows, int inputSize, double[] params, int weightOffset, int biasOffset,
+                        double[] out, int outputSize) {
+        BACKEND.forward(in, rows, inputSize, params, weightOffset, biasOffset, out, outputSize);
+    }
+
+    /** out[r][o] = f(bias[o] + sum_k in[r][k] * weights[o][k]) */
+    public static void forward(double[] in, int rows, int inputSize, double[] params, int weightOffset, int biasOffset,
+                               double[] out, int outputSize, KernelActivation activation) {
+        BACKEND.forward(in, rows, inputSize, params, weightOffset, biasOffset, out, outputSize, activation);
+    }
+
+    /** Float forward pass; {@code doubleSums} accumulates each dot product in double. */
+    public static void forward(float[] in, int rows, int inputSize, float[] params, int weightOffset, int biasOffset,
+                               float[] out, int outputSize, boolean doubleSums) {
+        BACKEND.forward(in, rows, inputSize, params, weightOffset, biasOffset, out, outputSize, doubleSums);
+    }
+
+    /** Int8 forward pass: out[r][o] = sum_k in[r][k] * weights[o][k], summed in int. */
+    public static void forward(byte[] in, int rows, int inputSize, byte[] weights, int weightOffset, int[] out,
+                               int outputSize) {
+        BACKEND.forward(in, rows, inputSize, weights, weightOffset, out, outputSize);
+    }
+
+    /** delta[i] = gradient[i] * f'(x[i]) for i in [0, n), from the outputs y[i] = f(x[i]) */
+    public static void activationGradient(KernelActivation activation, double[] gradient, double[] y,
+                                          double[] delta, int n) {
+        BACKEND.activationGradient(activation, gradient, y, delta, n);
+    }
+
+    /** inGrad[r][k] = sum_o delta[r][o] * weights[o][k] */
+    public static void inputGradient(double[] delta, int rows, int outputSize, double[] params, int weightOffset,
+                              double[] inGrad, int inputSize) {
+        BACKEND.inputGradient(delta, rows, outputSize, params, weightOffset, inGrad, inputSize);
+    }
+
+    /** weightGrad[o][k] += sum_r delta[r][o] * in[r][k]; biasGrad[o] += sum_r delta[r][o] */
+    public static void accumulateWeightGradient(double[] delta, int rows, int outputSize, double[] in, int inputSize,
+                                         double[] grads, int weightOffset, int biasOffset) {
+        BACKEND.accumulateWeightGradient(delta, rows, outputSize, in, inputSize, grads, weightOffset, biasOffset);
+    }
+
+    /** y[yOffset + i] += alpha * x[xOffset + i] for i in [0, length) */
+    public static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        BACKEND.axpy(alpha, x, xOffset, y, yOffset, length);
+    }
+}
\ No newline at end of file
@@ -1,55 +1,187 @@
 package ifndef.nn.core;
 
-import ifndef.nn.loss.LossFunction;
+import ifndef.nn.optimizer.Optimizer;
+
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class NeuralNetwork implements Serializable {
 
-    private static final long serialVersionUID = 1L; 
+    private static final long serialVersionUID = 2L; 
     private final List<Layer> layers = new ArrayList<>();
 
+    // Every layer's weights and biases, back to back in layer order.
+    private double[] parameters = new double[0];
+
+    // null in networks serialized before precision existed, which were all double
+    private Precision precision;
+
+    // Evaluate activations with their fast approximations (false in networks serialized before the switch)
+    private boolean fastActivations;
+
+    // Forward-only scratch for predict(double[]), one per calling thread; dropped whenever a layer is added
+    private transient volatile ThreadLocal<ExecutionContext> predictContexts;
+
+    public NeuralNetwork() {
+        this(Precision.DOUBLE);
+    }
+
+    public NeuralNetwork(Precision precision) {
+        this.precision = precision;
+    }
+
+    /** Binds all {@code layers} into one parameter array at once instead of re-copying it per {@link #add}. */
+    public NeuralNetwork(Precision precision, List<Layer> layers) {
+        this.precision = precision;
+        int count = 0;
+        for (Layer layer : layers) {
+            count += layer.getParameterCount();
+        }
+        double[] storage = new double[count];
+        int offset = 0;
+        for (Layer layer : layers) {
+            layer.bindParameters(storage, offset);
+            offset += layer.getParameterCount();
+            this.layers.add(layer);
+        }
+        this.parameters = storage;
+    }
+
     public void add(Layer layer) {
         this.layers.add(layer);
+        if (layer instanceof DenseLayer) {
+            ((DenseLayer) layer).setFastActivation(fastActivations);
+        }
+
+        double[] storage = new double[parameters.length + layer.getParameterCount()];
+        int offset = 0;
+        for (Layer l : layers) {
+            l.bindParameters(storage, offset);
+            offset += l.getParameterCount();
+        }
+        this.parameters = storage;
+        this.predictContexts = null;
+    }
+
+    public ExecutionContext createContext() {
+        LayerContext[] layerContexts = new LayerContext[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            layerContexts[i] = layers.get(i).createContext();
+        }
+        return new ExecutionContext(layerContexts, createEmptyGradients(), getInputSize(), getOutputSize());
     }
 
+    /** A context for the forward pass only; it has no gradient storage. */
+    private ExecutionContext createForwardContext() {
+        LayerContext[] layerContexts = new LayerContext[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            layerContexts[i] = layers.get(i).createContext();
+        }
+        return new ExecutionContext(layerContexts, null, getInputSize(), getOutputSize());
+    }
+
+    /** Runs the forward pass in this thread's cached context; only the returned copy is allocated. */
     public double[] predict(double[] inputs) {
+        ThreadLocal<ExecutionContext> contexts = predictContexts;
+        if (contexts == null) {
+            contexts = ThreadLocal.withInitial(this::createForwardContext);
+            predictContexts = contexts;
+        }
+        return predict(inputs, contexts.get()).clone();
+    }
+
+    public double[] predict(double[] inputs, ExecutionContext context) {
         double[] currentOutput = inputs;
-        for (Layer layer : layers) {
-            currentOutput = layer.forward(currentOutput);
+        for (int i = 0; i < layers.size(); i++) {
+            currentOutput = layers.get(i).forward(currentOutput, context.getLayerContext(i));
         }
         return currentOutput;
     }
 
-    public List<GradientPackage> backward(double[] lossGradient) {
-        List<GradientPackage> allGradients = new ArrayList<>();
+    public void backward(double[] lossGradient, ExecutionContext context) {
+        GradientPackage gradients = context.getGradients();
         double[] currentGradient = lossGradient;
 
         for (int i = layers.size() - 1; i >= 0; i--) {
-            GradientPackage layerGrads = layers.get(i).backward(currentGradient);
-            allGradients.add(0, layerGrads); // Add in forward order
-            currentGradient = layerGrads.getInputGradient();
+            currentGradient = layers.get(i).backward(currentGradient, context.getLayerContext(i), gradients);
         }
-        
-        return allGradients;
     }
 
-    public void applyGradients(List<GradientPackage> averagedGradients, double learningRate) {
-        if (averagedGradients.size() != layers.size()) {
-            throw new IllegalArgumentException("Gradient list size must match layer count.");
-        }
-        
+    /**
+     * Runs the forward pass over {@code rows} samples packed row-major in {@code inputs}.
+     * The returned matrix is owned by {@code context} and is overwritten by the next call.
+     */
+    public double[] predictBatch(double[] inputs, int rows, ExecutionContext context) {
+        double[] currentOutput = inputs;
         for (int i = 0; i < layers.size(); i++) {
-            layers.get(i).applyGradients(averagedGradients.get(i), learningRate);
+            currentOutput = layers.get(i).forwardBatch(currentOutput, rows, context.getLayerContext(i));
+        }
+        return currentOutput;
+    }
+
+    public void backwardBatch(double[] lossGradient, int rows, ExecutionContext context) {
+        GradientPackage gradients = context.getGradients();
+        double[] currentGradient = lossGradient;
+
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            currentGradient = layers.get(i).backwardBatch(currentGradient, rows, context.getLayerContext(i), gradients);
+        }
+    }
+
+    public void applyGradients(GradientPackage averagedGradients, Optimizer optimizer) {
+        if (averagedGradients.size() != parameters.length) {
+            throw new IllegalArgumentException("Gradient size must match parameter count.");
         }
+        
+        optimizer.beginStep();
+        optimizer.update(parameters, averagedGradients.getValues(), 0, parameters.length);
     }
 
-    public List<GradientPackage> createEmptyGradientsList() {
-        List<GradientPackage> list = new ArrayList<>();
+    public GradientPackage createEmptyGradients() {
+        return new GradientPackage(parameters.length);
+    }
+
+    public double[] getParameters() {
+        return parameters;
+    }
+
+    public Precision getPrecision() {
+        return precision != null ? precision : Precision.DOUBLE;
+    }
+
+    public boolean isFastActivations() {
+        return fastActivations;
+    }
+
+    /**
+     * Switches every layer between its exact activation and the activation's fast approximation
+     * ({@link ifndef.nn.activation.ActivationFunction#fast()}). Applies to training and to the
+     * inference models built from this network.
+     */
+    public void setFastActivations(boolean fast) {
+        this.fastActivations = fast;
         for (Layer layer : layers) {
-            list.add(layer.createEmptyGradients());
+            if (layer instanceof DenseLayer) {
+                ((DenseLayer) layer).setFastActivation(fast);
+            }
         }
-        return list;
+    }
+
+    public int getParameterCount() {
+        return parameters.length;
+    }
+
+    public List<Layer> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    public int getInputSize() {
+        return layers.isEmpty() ? 0 : layers.get(0).getInputSize();
+    }
+
+    public int getOutputSize() {
+        return layers.isEmpty() ? 0 : layers.get(layers.size() - 1).getOutputSize();
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package ifndef.nn.core;
+
+/**
+ * Precision a network is stored and served at. Training always computes in double; the float
+ * modes only take effect when the weights are written to a .nnb file and when an
+ * {@code InferenceModel} is compiled, both of which round each weight to the nearest float.
+ */
+public enum Precision {
+
+    /** double weights, activations and sums */
+    DOUBLE,
+
+    /** float weights and activations, float sums */
+    FLOAT,
+
+    /** float weights and activations, double sums */
+    MIXED;
+
+    public boolean isFloat() {
+        return this != DOUBLE;
+    }
+}
\ No newline at end of file
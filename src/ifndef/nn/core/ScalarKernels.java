@@ -0,0 +1,211 @@
+package ifndef.nn.core;
+
+import java.util.Arrays;
+
+import static ifndef.nn.core.MatrixKernels.COL_BLOCK;
+import static ifndef.nn.core.MatrixKernels.ROW_BLOCK;
+
+/**
+ * Plain Java backend. Inner loops are kept as plain unit-stride sweeps so the JIT can unroll
+ * and auto-vectorize them; this is also the fallback when the Vector API is unavailable.
+ */
+final class ScalarKernels implements KernelBackend {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void forward(double[] in, int rows, int inputSize, double[] params, int weightOffset, int biasOffset,
+                        double[] out, int outputSize, KernelActivation activation) {
+        for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+            int r1 = Math.min(r0 + ROW_BLOCK, rows);
+            for (int o0 = 0; o0 < outputSize; o0 += COL_BLOCK) {
+                int o1 = Math.min(o0 + COL_BLOCK, outputSize);
+                for (int r = r0; r < r1; r++) {
+                    int inOffset = r * inputSize;
+                    int outOffset = r * outputSize;
+                    int o = o0;
+                    // 4 outputs per pass share each input load
+                    for (; o + 3 < o1; o += 4) {
+                        int w0 = weightOffset + o * inputSize;
+                        int w1 = w0 + inputSize;
+                        int w2 = w1 + inputSize;
+                        int w3 = w2 + inputSize;
+                        double s0 = 0.0, s1 = 0.0, s2 = 0.0, s3 = 0.0;
+                        for (int k = 0; k < inputSize; k++) {
+                            double x = in[inOffset + k];
+                            s0 += x * params[w0 + k];
+                            s1 += x * params[w1 + k];
+                            s2 += x * params[w2 + k];
+                            s3 += x * params[w3 + k];
+                        }
+                        out[outOffset + o] = s0 + params[biasOffset + o];
+                        out[outOffset + o + 1] = s1 + params[biasOffset + o + 1];
+                        out[outOffset + o + 2] = s2 + params[biasOffset + o + 2];
+                        out[outOffset + o + 3] = s3 + params[biasOffset + o + 3];
+                    }
+                    for (; o < o1; o++) {
+                        int w = weightOffset + o * inputSize;
+                        double s = 0.0;
+                        for (int k = 0; k < inputSize; k++) {
+                            s += in[inOffset + k] * params[w + k];
+                        }
+                        out[outOffset + o] = s + params[biasOffset + o];
+                    }
+                }
+            }
+            activate(activation, out, r0 * outputSize, r1 * outputSize);
+        }
+    }
+
+    private static void activate(KernelActivation activation, double[] x, int from, int to) {
+        switch (activation) {
+            case RELU:
+                for (int i = from; i < to; i++) {
+                    x[i] = Math.max(0.0, x[i]);
+                }
+                break;
+            case TANH:
+                for (int i = from; i < to; i++) {
+                    x[i] = Math.tanh(x[i]);
+                }
+                break;
+            case SIGMOID:
+                for (int i = from; i < to; i++) {
+                    x[i] = 1.0 / (1.0 + Math.exp(-x[i]));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void activationGradient(KernelActivation activation, double[] gradient, double[] y, double[] delta,
+                                   int n) {
+        switch (activation) {
+            case RELU:
+                for (int i = 0; i < n; i++) {
+                    delta[i] = y[i] > 0.0 ? gradient[i] : 0.0;
+                }
+                break;
+            case TANH:
+                for (int i = 0; i < n; i++) {
+                    delta[i] = gradient[i] * (1.0 - y[i] * y[i]);
+                }
+                break;
+            case SIGMOID:
+                for (int i = 0; i < n; i++) {
+                    delta[i] = gradient[i] * y[i] * (1.0 - y[i]);
+                }
+                break;
+            default:
+                System.arraycopy(gradient, 0, delta, 0, n);
+                break;
+        }
+    }
+
+    @Override
+    public void forward(float[] in, int rows, int inputSize, float[] params, int weightOffset, int biasOffset,
+                        float[] out, int outputSize, boolean doubleSums) {
+        for (int r = 0; r < rows; r++) {
+            int inOffset = r * inputSize;
+            int outOffset = r * outputSize;
+            for (int o = 0; o < outputSize; o++) {
+                int w = weightOffset + o * inputSize;
+                if (doubleSums) {
+                    double s = 0.0;
+                    for (int k = 0; k < inputSize; k++) {
+                        s += (double) in[inOffset + k] * params[w + k];
+                    }
+                    out[outOffset + o] = (float) (s + params[biasOffset + o]);
+                } else {
+                    float s = 0.0f;
+                    for (int k = 0; k < inputSize; k++) {
+                        s += in[inOffset + k] * params[w + k];
+                    }
+                    out[outOffset + o] = s + params[biasOffset + o];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void forward(byte[] in, int rows, int inputSize, byte[] weights, int weightOffset, int[] out,
+                        int outputSize) {
+        for (int r = 0; r < rows; r++) {
+            int inOffset = r * inputSize;
+            int outOffset = r * outputSize;
+            for (int o = 0; o < outputSize; o++) {
+                int w = weightOffset + o * inputSize;
+                int s = 0;
+                for (int k = 0; k < inputSize; k++) {
+                    s += in[inOffset + k] * weights[w + k];
+                }
+                out[outOffset + o] = s;
+            }
+        }
+    }
+
+    @Override
+    public void inputGradient(double[] delta, int rows, int outputSize, double[] params, int weightOffset,
+                       double[] inGrad, int inputSize) {
+        Arrays.fill(inGrad, 0, rows * inputSize, 0.0);
+        for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+            int r1 = Math.min(r0 + ROW_BLOCK, rows);
+            for (int o0 = 0; o0 < outputSize; o0 += COL_BLOCK) {
+                int o1 = Math.min(o0 + COL_BLOCK, outputSize);
+                for (int r = r0; r < r1; r++) {
+                    int deltaOffset = r * outputSize;
+                    int gradOffset = r * inputSize;
+                    for (int o = o0; o < o1; o++) {
+                        double d = delta[deltaOffset + o];
+                        if (d == 0.0) {
+                            continue;
+                        }
+                        int w = weightOffset + o * inputSize;
+                        for (int k = 0; k < inputSize; k++) {
+                            inGrad[gradOffset + k] += d * params[w + k];
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void accumulateWeightGradient(double[] delta, int rows, int outputSize, double[] in, int inputSize,
+                                    double[] grads, int weightOffset, int biasOffset) {
+        for (int o0 = 0; o0 < outputSize; o0 += COL_BLOCK) {
+            int o1 = Math.min(o0 + COL_BLOCK, outputSize);
+            for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+                int r1 = Math.min(r0 + ROW_BLOCK, rows);
+                for (int o = o0; o < o1; o++) {
+                    int g = weightOffset + o * inputSize;
+                    double biasSum = 0.0;
+                    for (int r = r0; r < r1; r++) {
+                        double d = delta[r * outputSize + o];
+                        biasSum += d;
+                        if (d == 0.0) {
+                            continue;
+                        }
+                        int inOffset = r * inputSize;
+                        for (int k = 0; k < inputSize; k++) {
+                            grads[g + k] += d * in[inOffset + k];
+                        }
+                    }
+                    grads[biasOffset + o] += biasSum;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+}
\ No newline at end of file
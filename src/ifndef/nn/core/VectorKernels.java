@@ -0,0 +1,313 @@
+package ifndef.nn.core;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+import static ifndef.nn.core.MatrixKernels.COL_BLOCK;
+import static ifndef.nn.core.MatrixKernels.ROW_BLOCK;
+
+/**
+ * Backend built on {@link DoubleVector} with the platform's preferred species (4 lanes on AVX2,
+ * 8 on AVX-512). Only ever loaded by name from {@link MatrixKernels}, so the rest of the library
+ * compiles and runs without the incubator module. Sums use fused multiply-add and a different
+ * association order than the scalar loops, so results can differ in the last few bits.
+ */
+final class VectorKernels implements KernelBackend {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOAT_SPECIES = FloatVector.SPECIES_PREFERRED;
+    // Floats that widen into exactly one SPECIES-sized double vector
+    private static final VectorSpecies<Float> HALF_FLOAT_SPECIES =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+    // Bytes widen into ints four to one; the smallest byte shape is 64 bits, so ints need at least 256
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED.vectorBitSize() >= 256
+            ? IntVector.SPECIES_PREFERRED : IntVector.SPECIES_256;
+    private static final VectorSpecies<Byte> QUARTER_BYTE_SPECIES =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(INT_SPECIES.vectorBitSize() / 4));
+
+    @Override
+    public String getName() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+
+    @Override
+    public void forward(double[] in, int rows, int inputSize, double[] params, int weightOffset, int biasOffset,
+                        double[] out, int outputSize, KernelActivation activation) {
+        int bound = SPECIES.loopBound(inputSize);
+        for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+            int r1 = Math.min(r0 + ROW_BLOCK, rows);
+            for (int o0 = 0; o0 < outputSize; o0 += COL_BLOCK) {
+                int o1 = Math.min(o0 + COL_BLOCK, outputSize);
+                for (int r = r0; r < r1; r++) {
+                    int inOffset = r * inputSize;
+                    int outOffset = r * outputSize;
+                    int o = o0;
+                    // 4 outputs per pass share each input load
+                    for (; o + 3 < o1; o += 4) {
+                        int w0 = weightOffset + o * inputSize;
+                        int w1 = w0 + inputSize;
+                        int w2 = w1 + inputSize;
+                        int w3 = w2 + inputSize;
+                        DoubleVector a0 = DoubleVector.zero(SPECIES);
+                        DoubleVector a1 = a0, a2 = a0, a3 = a0;
+                        int k = 0;
+                        for (; k < bound; k += SPECIES.length()) {
+                            DoubleVector x = DoubleVector.fromArray(SPECIES, in, inOffset + k);
+                            a0 = DoubleVector.fromArray(SPECIES, params, w0 + k).fma(x, a0);
+                            a1 = DoubleVector.fromArray(SPECIES, params, w1 + k).fma(x, a1);
+                            a2 = DoubleVector.fromArray(SPECIES, params, w2 + k).fma(x, a2);
+                            a3 = DoubleVector.fromArray(SPECIES, params, w3 + k).fma(x, a3);
+                        }
+                        double s0 = a0.reduceLanes(VectorOperators.ADD);
+                        double s1 = a1.reduceLanes(VectorOperators.ADD);
+                        double s2 = a2.reduceLanes(VectorOperators.ADD);
+                        double s3 = a3.reduceLanes(VectorOperators.ADD);
+                        for (; k < inputSize; k++) {
+                            double x = in[inOffset + k];
+                            s0 += x * params[w0 + k];
+                            s1 += x * params[w1 + k];
+                            s2 += x * params[w2 + k];
+                            s3 += x * params[w3 + k];
+                        }
+                        out[outOffset + o] = s0 + params[biasOffset + o];
+                        out[outOffset + o + 1] = s1 + params[biasOffset + o + 1];
+                        out[outOffset + o + 2] = s2 + params[biasOffset + o + 2];
+                        out[outOffset + o + 3] = s3 + params[biasOffset + o + 3];
+                    }
+                    for (; o < o1; o++) {
+                        out[outOffset + o] = dot(in, inOffset, params, weightOffset + o * inputSize, inputSize, bound)
+                                + params[biasOffset + o];
+                    }
+                }
+            }
+            activate(activation, out, r0 * outputSize, r1 * outputSize);
+        }
+    }
+
+    /**
+     * Only ReLU is vectorized. The vector TANH and EXP give different last bits before and after
+     * the JIT swaps in its math stubs, which would make a run depend on compilation timing (and
+     * break bit-exact resume from a checkpoint), so those use Math.tanh and Math.exp.
+     */
+    private static void activate(KernelActivation activation, double[] x, int from, int to) {
+        if (activation == KernelActivation.IDENTITY) {
+            return;
+        }
+        int i = from;
+        if (activation == KernelActivation.RELU) {
+            for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+                DoubleVector.fromArray(SPECIES, x, i).max(0.0).intoArray(x, i);
+            }
+        }
+        for (; i < to; i++) {
+            switch (activation) {
+                case RELU:
+                    x[i] = Math.max(0.0, x[i]);
+                    break;
+                case TANH:
+                    x[i] = Math.tanh(x[i]);
+                    break;
+                default:
+                    x[i] = 1.0 / (1.0 + Math.exp(-x[i]));
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void activationGradient(KernelActivation activation, double[] gradient, double[] y, double[] delta,
+                                   int n) {
+        if (activation == KernelActivation.IDENTITY) {
+            System.arraycopy(gradient, 0, delta, 0, n);
+            return;
+        }
+        int i = 0;
+        for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            DoubleVector g = DoubleVector.fromArray(SPECIES, gradient, i);
+            DoubleVector v = DoubleVector.fromArray(SPECIES, y, i);
+            switch (activation) {
+                case RELU:
+                    g = g.blend(0.0, v.compare(VectorOperators.LE, 0.0));
+                    break;
+                case TANH:
+                    g = g.mul(v.mul(v).neg().add(1.0));
+                    break;
+                default:
+                    g = g.mul(v).mul(v.neg().add(1.0));
+                    break;
+            }
+            g.intoArray(delta, i);
+        }
+        for (; i < n; i++) {
+            switch (activation) {
+                case RELU:
+                    delta[i] = y[i] > 0.0 ? gradient[i] : 0.0;
+                    break;
+                case TANH:
+                    delta[i] = gradient[i] * (1.0 - y[i] * y[i]);
+                    break;
+                default:
+                    delta[i] = gradient[i] * y[i] * (1.0 - y[i]);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void forward(float[] in, int rows, int inputSize, float[] params, int weightOffset, int biasOffset,
+                        float[] out, int outputSize, boolean doubleSums) {
+        for (int r = 0; r < rows; r++) {
+            int inOffset = r * inputSize;
+            int outOffset = r * outputSize;
+            for (int o = 0; o < outputSize; o++) {
+                int w = weightOffset + o * inputSize;
+                out[outOffset + o] = doubleSums
+                        ? (float) (widenedDot(in, inOffset, params, w, inputSize) + params[biasOffset + o])
+                        : dot(in, inOffset, params, w, inputSize) + params[biasOffset + o];
+            }
+        }
+    }
+
+    @Override
+    public void forward(byte[] in, int rows, int inputSize, byte[] weights, int weightOffset, int[] out,
+                        int outputSize) {
+        for (int r = 0; r < rows; r++) {
+            int inOffset = r * inputSize;
+            int outOffset = r * outputSize;
+            for (int o = 0; o < outputSize; o++) {
+                out[outOffset + o] = dot(in, inOffset, weights, weightOffset + o * inputSize, inputSize);
+            }
+        }
+    }
+
+    @Override
+    public void inputGradient(double[] delta, int rows, int outputSize, double[] params, int weightOffset,
+                              double[] inGrad, int inputSize) {
+        Arrays.fill(inGrad, 0, rows * inputSize, 0.0);
+        for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+            int r1 = Math.min(r0 + ROW_BLOCK, rows);
+            for (int o0 = 0; o0 < outputSize; o0 += COL_BLOCK) {
+                int o1 = Math.min(o0 + COL_BLOCK, outputSize);
+                for (int r = r0; r < r1; r++) {
+                    int deltaOffset = r * outputSize;
+                    int gradOffset = r * inputSize;
+                    for (int o = o0; o < o1; o++) {
+                        double d = delta[deltaOffset + o];
+                        if (d != 0.0) {
+                            axpy(d, params, weightOffset + o * inputSize, inGrad, gradOffset, inputSize);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void accumulateWeightGradient(double[] delta, int rows, int outputSize, double[] in, int inputSize,
+                                         double[] grads, int weightOffset, int biasOffset) {
+        for (int o0 = 0; o0 < outputSize; o0 += COL_BLOCK) {
+            int o1 = Math.min(o0 + COL_BLOCK, outputSize);
+            for (int r0 = 0; r0 < rows; r0 += ROW_BLOCK) {
+                int r1 = Math.min(r0 + ROW_BLOCK, rows);
+                for (int o = o0; o < o1; o++) {
+                    int g = weightOffset + o * inputSize;
+                    double biasSum = 0.0;
+                    for (int r = r0; r < r1; r++) {
+                        double d = delta[r * outputSize + o];
+                        biasSum += d;
+                        if (d != 0.0) {
+                            axpy(d, in, r * inputSize, grads, g, inputSize);
+                        }
+                    }
+                    grads[biasOffset + o] += biasSum;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        DoubleVector a = DoubleVector.broadcast(SPECIES, alpha);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i)
+                    .fma(a, DoubleVector.fromArray(SPECIES, y, yOffset + i))
+                    .intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+
+    private static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        IntVector acc = IntVector.zero(INT_SPECIES);
+        int bound = QUARTER_BYTE_SPECIES.loopBound(length);
+        int k = 0;
+        for (; k < bound; k += QUARTER_BYTE_SPECIES.length()) {
+            IntVector x = (IntVector) ByteVector.fromArray(QUARTER_BYTE_SPECIES, a, aOffset + k)
+                    .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+            IntVector y = (IntVector) ByteVector.fromArray(QUARTER_BYTE_SPECIES, b, bOffset + k)
+                    .convertShape(VectorOperators.B2I, INT_SPECIES, 0);
+            acc = x.mul(y).add(acc);
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+
+    private static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc = FloatVector.zero(FLOAT_SPECIES);
+        int bound = FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+        for (; k < bound; k += FLOAT_SPECIES.length()) {
+            acc = FloatVector.fromArray(FLOAT_SPECIES, a, aOffset + k)
+                    .fma(FloatVector.fromArray(FLOAT_SPECIES, b, bOffset + k), acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+
+    private static double widenedDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int bound = HALF_FLOAT_SPECIES.loopBound(length);
+        int k = 0;
+        for (; k < bound; k += HALF_FLOAT_SPECIES.length()) {
+            DoubleVector x = (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, a, aOffset + k)
+                    .convertShape(VectorOperators.F2D, SPECIES, 0);
+            DoubleVector y = (DoubleVector) FloatVector.fromArray(HALF_FLOAT_SPECIES, b, bOffset + k)
+                    .convertShape(VectorOperators.F2D, SPECIES, 0);
+            acc = x.fma(y, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            sum += (double) a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+
+    private static double dot(double[] a, int aOffset, double[] b, int bOffset, int length, int bound) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int k = 0;
+        for (; k < bound; k += SPECIES.length()) {
+            acc = DoubleVector.fromArray(SPECIES, a, aOffset + k).fma(DoubleVector.fromArray(SPECIES, b, bOffset + k), acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.core.Precision;
+import ifndef.nn.util.FunctionInfo;
+import ifndef.nn.util.NetworkSerializer;
+import ifndef.nn.util.TrainedModel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Error of a reduced-precision {@link Predictor} against a reference one, measured on points
+ * drawn uniformly from the function's input range.
+ *
+ * Run {@code java -cp bin ifndef.nn.inference.AccuracyReport model.nnb} to compare the float
+ * and int8 paths and the fast activations of a saved model against its exact double path.
+ */
+public final class AccuracyReport {
+
+    public static final int DEFAULT_SAMPLES = 100_000;
+
+    private final String label;
+    private final double maxError;
+    private final double rmsError;
+    private final double outputRange;
+
+    private AccuracyReport(String label, double maxError, double rmsError, double outputRange) {
+        this.label = label;
+        this.maxError = maxError;
+        this.rmsError = rmsError;
+        this.outputRange = outputRange;
+    }
+
+    public static AccuracyReport compare(String label, Predictor reference, Predictor candidate,
+                                         FunctionInfo info, int samples, long seed) {
+        int inputs = reference.getInputSize();
+        int outputs = reference.getOutputSize();
+        double[] xs = new double[samples * inputs];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < xs.length; i++) {
+            int feature = i % inputs;
+            xs[i] = random.nextDouble(info.getMinX(feature), info.getMaxX(feature));
+        }
+        double[] expected = new double[samples * outputs];
+        double[] actual = new double[samples * outputs];
+        reference.predict(xs, expected, samples);
+        candidate.predict(xs, actual, samples);
+
+        double max = 0.0;
+        double squares = 0.0;
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < expected.length; i++) {
+            double error = Math.abs(actual[i] - expected[i]);
+            max = Math.max(max, error);
+            squares += error * error;
+            low = Math.min(low, expected[i]);
+            high = Math.max(high, expected[i]);
+        }
+        return new AccuracyReport(label, max, Math.sqrt(squares / expected.length), high - low);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public double getRmsError() {
+        return rmsError;
+    }
+
+    /** Largest error as a percentage of the spread of the reference outputs. */
+    public double getRelativeMaxError() {
+        return outputRange > 0.0 ? 100.0 * maxError / outputRange : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-8s max |err| %.3e   rms %.3e   max %.3g%% of output range",
+                label, maxError, rmsError, getRelativeMaxError());
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java -cp bin ifndef.nn.inference.AccuracyReport <model.nnb|model.dat> [samples]");
+            return;
+        }
+        TrainedModel model = NetworkSerializer.load(args[0]);
+        if (model == null) {
+            return;
+        }
+        int samples = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SAMPLES;
+        FunctionInfo info = model.getFunctionInfo();
+        NeuralNetwork network = model.getNetwork();
+        boolean fast = network.isFastActivations();
+        network.setFastActivations(false);
+        InferenceModel reference = new InferenceModel(model, Precision.DOUBLE);
+
+        System.out.println("Trained precision: " + network.getPrecision() + ", " + samples
+                + " samples against the double path");
+        for (Precision precision : new Precision[]{Precision.FLOAT, Precision.MIXED}) {
+            InferenceModel candidate = new InferenceModel(model, precision);
+            System.out.println(compare(precision.name(), reference, candidate, info, samples, 42L));
+        }
+        System.out.println(compare("INT8", reference, QuantizedModel.quantize(model), info, samples, 42L));
+        network.setFastActivations(true);
+        System.out.println(compare("FAST", reference, new InferenceModel(model, Precision.DOUBLE), info, samples, 42L));
+        network.setFastActivations(fast);
+    }
+}
\ No newline at end of file
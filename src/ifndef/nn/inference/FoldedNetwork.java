@@ -0,0 +1,133 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.Layer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.util.DataNormalizer;
+import ifndef.nn.util.TrainedModel;
+
+import java.util.List;
+
+/**
+ * A copy of a trained network's dense layers with the normalizers folded in: input
+ * normalization into the first layer (W' = W * a, b' = b + W * c) and output denormalization
+ * into the last layer when it is linear. Shared by the inference engines; never modified
+ * after construction.
+ */
+final class FoldedNetwork {
+
+    final int layerCount;
+    final int[] inputSizes;
+    final int[] outputSizes;
+    final ActivationFunction[] activations;
+    final double[] parameters;
+    final int[] weightOffsets;
+    final int[] biasOffsets;
+    final int maxWidth;
+
+    // Applied per output after the last layer when it could not be folded (non-linear output layer); null if folded
+    final double[] outputScale;
+    final double[] outputOffset;
+
+    FoldedNetwork(TrainedModel model) {
+        NeuralNetwork network = model.getNetwork();
+        List<Layer> layers = network.getLayers();
+        this.layerCount = layers.size();
+        this.inputSizes = new int[layerCount];
+        this.outputSizes = new int[layerCount];
+        this.activations = new ActivationFunction[layerCount];
+        this.weightOffsets = new int[layerCount];
+        this.biasOffsets = new int[layerCount];
+        this.parameters = network.getParameters().clone();
+
+        int offset = 0;
+        int widest = network.getInputSize();
+        for (int i = 0; i < layerCount; i++) {
+            Layer layer = layers.get(i);
+            if (!(layer instanceof DenseLayer)) {
+                throw new IllegalArgumentException("Inference only supports DenseLayer.");
+            }
+            inputSizes[i] = layer.getInputSize();
+            outputSizes[i] = layer.getOutputSize();
+            activations[i] = ((DenseLayer) layer).getEffectiveActivation();
+            weightOffsets[i] = offset;
+            biasOffsets[i] = offset + inputSizes[i] * outputSizes[i];
+            offset += layer.getParameterCount();
+            widest = Math.max(widest, outputSizes[i]);
+        }
+        this.maxWidth = widest;
+
+        DataNormalizer inputNormalizer = model.getInputNormalizer();
+        DataNormalizer outputNormalizer = model.getOutputNormalizer();
+        if (inputNormalizer != null) {
+            foldInputAffine(inputNormalizer);
+        }
+
+        double[] scale = null;
+        double[] shift = null;
+        if (outputNormalizer != null) {
+            int outputs = outputSizes[layerCount - 1];
+            scale = new double[outputs];
+            shift = new double[outputs];
+            for (int o = 0; o < outputs; o++) {
+                scale[o] = outputNormalizer.getDenormalizeScale(o);
+                shift[o] = outputNormalizer.getDenormalizeOffset(o);
+            }
+            if (activations[layerCount - 1] == null) {
+                foldOutputAffine(scale, shift);
+                scale = null;
+                shift = null;
+            }
+        }
+        this.outputScale = scale;
+        this.outputOffset = shift;
+    }
+
+    /** x'_k = a_k * x_k + c_k on each input: W'[o][k] = W[o][k] * a_k, b'[o] = b[o] + sum_k W[o][k] * c_k. */
+    private void foldInputAffine(DataNormalizer normalizer) {
+        int in = inputSizes[0];
+        for (int o = 0; o < outputSizes[0]; o++) {
+            int row = weightOffsets[0] + o * in;
+            double shift = 0.0;
+            for (int k = 0; k < in; k++) {
+                shift += parameters[row + k] * normalizer.getNormalizeOffset(k);
+                parameters[row + k] *= normalizer.getNormalizeScale(k);
+            }
+            parameters[biasOffsets[0] + o] += shift;
+        }
+    }
+
+    /** y_o = a_o * y'_o + c_o on a linear output layer: W'[o] = a_o * W[o], b'[o] = a_o * b[o] + c_o. */
+    private void foldOutputAffine(double[] a, double[] c) {
+        int last = layerCount - 1;
+        int in = inputSizes[last];
+        for (int o = 0; o < outputSizes[last]; o++) {
+            int row = weightOffsets[last] + o * in;
+            for (int k = 0; k < in; k++) {
+                parameters[row + k] *= a[o];
+            }
+            int index = biasOffsets[last] + o;
+            parameters[index] = a[o] * parameters[index] + c[o];
+        }
+    }
+
+    int getInputSize() {
+        return inputSizes[0];
+    }
+
+    int getOutputSize() {
+        return outputSizes[layerCount - 1];
+    }
+
+    /** Applies the output denormalization that could not be folded to {@code rows} packed outputs. */
+    void denormalize(double[] values, int rows) {
+        if (outputScale != null) {
+            int outputs = outputScale.length;
+            for (int j = 0, end = rows * outputs; j < end; j++) {
+                int o = j % outputs;
+                values[j] = values[j] * outputScale[o] + outputOffset[o];
+            }
+        }
+    }
+}
\ No newline at end of file
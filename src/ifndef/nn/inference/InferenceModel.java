@@ -0,0 +1,174 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.core.KernelActivation;
+import ifndef.nn.core.MatrixKernels;
+import ifndef.nn.core.Precision;
+import ifndef.nn.util.TrainedModel;
+
+/**
+ * Frozen, thread-safe inference engine compiled from a {@link TrainedModel}.
+ *
+ * The weights are copied at construction and never change. Input normalization is folded
+ * into the first layer (W' = W * a, b' = b + W * c) and output denormalization into the
+ * last layer when it is linear, so callers pass raw x values and get raw y values back.
+ * Scratch activations live in per-thread buffers, so predict calls allocate nothing after
+ * a thread's first call and may run concurrently from any number of threads.
+ * <p>
+ * With a float {@link Precision} the folded weights are rounded to float once and every layer
+ * runs on float activations, halving the memory touched per prediction.
+ */
+public final class InferenceModel implements Predictor {
+
+    private static final int BLOCK = 64;
+
+    private final FoldedNetwork network;
+    private final int layerCount;
+    private final int[] inputSizes;
+    private final int[] outputSizes;
+    private final ActivationFunction[] activations;
+    private final double[] parameters;
+    private final Precision precision;
+    private final float[] floatParameters;
+    private final int[] weightOffsets;
+    private final int[] biasOffsets;
+
+    private final ThreadLocal<double[][]> scratch;
+    private final ThreadLocal<float[][]> floatScratch;
+
+    public InferenceModel(TrainedModel model) {
+        this(model, model.getNetwork().getPrecision());
+    }
+
+    /** Compiles {@code model} to run at {@code precision}, whatever precision it was trained with. */
+    public InferenceModel(TrainedModel model, Precision precision) {
+        this.network = new FoldedNetwork(model);
+        this.precision = precision;
+        this.layerCount = network.layerCount;
+        this.inputSizes = network.inputSizes;
+        this.outputSizes = network.outputSizes;
+        this.activations = network.activations;
+        this.parameters = network.parameters;
+        this.weightOffsets = network.weightOffsets;
+        this.biasOffsets = network.biasOffsets;
+
+        int bufferSize = BLOCK * network.maxWidth;
+        this.scratch = ThreadLocal.withInitial(() -> new double[][]{new double[bufferSize], new double[bufferSize]});
+        if (precision.isFloat()) {
+            this.floatParameters = new float[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                floatParameters[i] = (float) parameters[i];
+            }
+            this.floatScratch = ThreadLocal.withInitial(() -> new float[][]{new float[bufferSize], new float[bufferSize]});
+        } else {
+            this.floatParameters = null;
+            this.floatScratch = null;
+        }
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSizes[0];
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSizes[layerCount - 1];
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public double predict(double x) {
+        double[][] buffers = scratch.get();
+        if (floatParameters != null) {
+            float[][] floatBuffers = floatScratch.get();
+            floatBuffers[0][0] = (float) x;
+            return runFloat(floatBuffers, buffers[1], 1)[0];
+        }
+        buffers[0][0] = x;
+        return run(buffers, 1)[0];
+    }
+
+    public void predict(double[] in, double[] out) {
+        predict(in, out, 1);
+    }
+
+    /**
+     * Predicts {@code n} samples packed row-major: {@code xs} holds {@code n * inputSize}
+     * values and {@code ys} receives {@code n * outputSize} values.
+     */
+    @Override
+    public void predict(double[] xs, double[] ys, int n) {
+        double[][] buffers = scratch.get();
+        float[][] floatBuffers = floatParameters != null ? floatScratch.get() : null;
+        int inputSize = getInputSize();
+        int outputSize = getOutputSize();
+        for (int from = 0; from < n; from += BLOCK) {
+            int rows = Math.min(BLOCK, n - from);
+            double[] result;
+            if (floatBuffers != null) {
+                float[] in = floatBuffers[0];
+                for (int i = 0, base = from * inputSize, end = rows * inputSize; i < end; i++) {
+                    in[i] = (float) xs[base + i];
+                }
+                result = runFloat(floatBuffers, buffers[1], rows);
+            } else {
+                System.arraycopy(xs, from * inputSize, buffers[0], 0, rows * inputSize);
+                result = run(buffers, rows);
+            }
+            System.arraycopy(result, 0, ys, from * outputSize, rows * outputSize);
+        }
+    }
+
+    private double[] run(double[][] buffers, int rows) {
+        double[] current = buffers[0];
+        double[] next = buffers[1];
+        for (int i = 0; i < layerCount; i++) {
+            int outputSize = outputSizes[i];
+            ActivationFunction activation = activations[i];
+            KernelActivation fused = KernelActivation.of(activation);
+            if (fused != null) {
+                MatrixKernels.forward(current, rows, inputSizes[i], parameters, weightOffsets[i], biasOffsets[i],
+                        next, outputSize, fused);
+            } else {
+                MatrixKernels.forward(current, rows, inputSizes[i], parameters, weightOffsets[i], biasOffsets[i],
+                        next, outputSize);
+                activation.value(next, next, rows * outputSize);
+            }
+            double[] swap = current;
+            current = next;
+            next = swap;
+        }
+        network.denormalize(current, rows);
+        return current;
+    }
+
+    /** Float forward pass; the final layer is widened into {@code result}, which is returned. */
+    private double[] runFloat(float[][] buffers, double[] result, int rows) {
+        float[] current = buffers[0];
+        float[] next = buffers[1];
+        boolean doubleSums = precision == Precision.MIXED;
+        for (int i = 0; i < layerCount; i++) {
+            int outputSize = outputSizes[i];
+            MatrixKernels.forward(current, rows, inputSizes[i], floatParameters, weightOffsets[i], biasOffsets[i],
+                    next, outputSize, doubleSums);
+            ActivationFunction activation = activations[i];
+            if (activation != null) {
+                int count = rows * outputSize;
+                for (int j = 0; j < count; j++) {
+                    next[j] = (float) activation.value(next[j]);
+                }
+            }
+            float[] swap = current;
+            current = next;
+            next = swap;
+        }
+        for (int j = 0, end = rows * getOutputSize(); j < end; j++) {
+            result[j] = current[j];
+        }
+        network.denormalize(result, rows);
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ifndef.nn.inference;
+
+/**
+ * A frozen, thread-safe model that maps raw inputs to raw outputs.
+ */
+public interface Predictor {
+
+    int getInputSize();
+
+    int getOutputSize();
+
+    /**
+     * Predicts {@code n} samples packed row-major: {@code xs} holds {@code n * inputSize}
+     * values and {@code ys} receives {@code n * outputSize} values.
+     */
+    void predict(double[] xs, double[] ys, int n);
+}
\ No newline at end of file
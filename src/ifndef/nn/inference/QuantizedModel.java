@@ -0,0 +1,465 @@
+package ifndef.nn.inference;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.activation.Activations;
+import ifndef.nn.core.MatrixKernels;
+import ifndef.nn.core.Precision;
+import ifndef.nn.util.FunctionInfo;
+import ifndef.nn.util.NetworkSerializer;
+import ifndef.nn.util.TrainedModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Post-training int8 version of a {@link TrainedModel}, for serving only.
+ *
+ * The hidden-to-hidden layers, which hold almost all of the weights, are quantized. The first
+ * and last layers only have inputSize and outputSize weights per neuron and stay in float: the
+ * first sees the raw x, which 254 levels would turn into a staircase, and the last would
+ * amplify the rounding noise of its inputs straight into y.
+ *
+ * In a quantized layer each input feature k is mapped to an int8 code q_k with
+ * x_k = z_k + s_k * q_k, where z_k and s_k come from the range the feature took while running
+ * calibration points drawn from the function's [minX, maxX]. That affine is folded into the
+ * weights (W' = W * s, b' = b + W * z), and each row of W' gets its own scale so its largest
+ * weight maps to 127. The layer is then one int8 x int8 dot product per output, summed exactly
+ * in int, and y_o = rowScale_o * sum + b'_o. Activations outside the calibrated range saturate.
+ *
+ * Saved as .nnq: 1 byte per hidden weight plus a few floats per neuron, approaching 8x smaller
+ * than double weights as layers get wider. Thread-safe; scratch buffers are per thread.
+ */
+public final class QuantizedModel implements Predictor {
+
+    public static final String EXTENSION = ".nnq";
+    public static final int DEFAULT_CALIBRATION_SAMPLES = 10_000;
+
+    private static final int MAGIC = 0x4D514E4E; // "NNQM" read little-endian
+    private static final int VERSION = 1;
+    private static final int BLOCK = 64;
+    private static final long CALIBRATION_SEED = 42L;
+
+    private final int layerCount;
+    private final int[] inputSizes;
+    private final int[] outputSizes;
+    private final ActivationFunction[] activations;
+
+    // Float layers (first and last): weights then biases, indexed by layer; null for quantized layers
+    private final float[][] floatLayers;
+
+    // Quantized layers, indexed by layer; null for float layers
+    private final byte[][] weights;
+    private final float[][] inputZero;      // x = zero + q / invScale
+    private final float[][] inputInvScale;
+    private final float[][] rowScale;       // y = rowScale * sum + bias
+    private final float[][] bias;
+
+    // Output denormalization that could not be folded (non-linear output layer); null if folded
+    private float[] outputScale;
+    private float[] outputOffset;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    private QuantizedModel(int[] inputSizes, int[] outputSizes, ActivationFunction[] activations) {
+        this.layerCount = inputSizes.length;
+        this.inputSizes = inputSizes;
+        this.outputSizes = outputSizes;
+        this.activations = activations;
+        this.floatLayers = new float[layerCount][];
+        this.weights = new byte[layerCount][];
+        this.inputZero = new float[layerCount][];
+        this.inputInvScale = new float[layerCount][];
+        this.rowScale = new float[layerCount][];
+        this.bias = new float[layerCount][];
+
+        int widest = 0;
+        for (int i = 0; i < layerCount; i++) {
+            widest = Math.max(widest, Math.max(inputSizes[i], outputSizes[i]));
+        }
+        int bufferSize = BLOCK * widest;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(bufferSize));
+    }
+
+    private boolean isQuantized(int layer) {
+        return layer > 0 && layer < layerCount - 1;
+    }
+
+    public static QuantizedModel quantize(TrainedModel model) {
+        return quantize(model, DEFAULT_CALIBRATION_SAMPLES, CALIBRATION_SEED);
+    }
+
+    /** Quantizes {@code model}, calibrating activation ranges on {@code samples} points from its input range. */
+    public static QuantizedModel quantize(TrainedModel model, int samples, long seed) {
+        FoldedNetwork network = new FoldedNetwork(model);
+        FunctionInfo info = model.getFunctionInfo();
+        int layers = network.layerCount;
+        QuantizedModel result = new QuantizedModel(network.inputSizes.clone(), network.outputSizes.clone(),
+                network.activations.clone());
+
+        // Per-feature input range of every layer after the first
+        double[][] low = new double[layers][];
+        double[][] high = new double[layers][];
+        int inputs = network.getInputSize();
+        double[] current = new double[samples * network.maxWidth];
+        double[] next = new double[samples * network.maxWidth];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < samples * inputs; i++) {
+            int k = i % inputs;
+            current[i] = random.nextDouble(info.getMinX(k), info.getMaxX(k));
+        }
+        for (int i = 0; i < layers - 1; i++) {
+            int outputSize = network.outputSizes[i];
+            MatrixKernels.forward(current, samples, network.inputSizes[i], network.parameters,
+                    network.weightOffsets[i], network.biasOffsets[i], next, outputSize);
+            ActivationFunction activation = network.activations[i];
+            low[i + 1] = new double[outputSize];
+            high[i + 1] = new double[outputSize];
+            Arrays.fill(low[i + 1], Double.POSITIVE_INFINITY);
+            Arrays.fill(high[i + 1], Double.NEGATIVE_INFINITY);
+            for (int j = 0, end = samples * outputSize; j < end; j++) {
+                double value = activation != null ? activation.value(next[j]) : next[j];
+                next[j] = value;
+                int o = j % outputSize;
+                low[i + 1][o] = Math.min(low[i + 1][o], value);
+                high[i + 1][o] = Math.max(high[i + 1][o], value);
+            }
+            double[] swap = current;
+            current = next;
+            next = swap;
+        }
+
+        for (int i = 0; i < layers; i++) {
+            int in = network.inputSizes[i];
+            int out = network.outputSizes[i];
+            if (!result.isQuantized(i)) {
+                float[] layer = new float[in * out + out];
+                for (int j = 0; j < layer.length; j++) {
+                    layer[j] = (float) network.parameters[network.weightOffsets[i] + j];
+                }
+                result.floatLayers[i] = layer;
+                continue;
+            }
+
+            float[] zero = new float[in];
+            float[] inverse = new float[in];
+            for (int k = 0; k < in; k++) {
+                zero[k] = (float) ((low[i][k] + high[i][k]) / 2.0);
+                inverse[k] = high[i][k] > low[i][k] ? (float) (254.0 / (high[i][k] - low[i][k])) : 1.0f;
+            }
+
+            byte[] codes = new byte[in * out];
+            float[] scales = new float[out];
+            float[] shifts = new float[out];
+            double[] row = new double[in];
+            for (int o = 0; o < out; o++) {
+                int w = network.weightOffsets[i] + o * in;
+                double shifted = network.parameters[network.biasOffsets[i] + o];
+                double largest = 0.0;
+                for (int k = 0; k < in; k++) {
+                    shifted += network.parameters[w + k] * zero[k];
+                    row[k] = network.parameters[w + k] / inverse[k];
+                    largest = Math.max(largest, Math.abs(row[k]));
+                }
+                double step = largest > 0.0 ? largest / 127.0 : 1.0;
+                for (int k = 0; k < in; k++) {
+                    codes[o * in + k] = (byte) Math.round(row[k] / step);
+                }
+                scales[o] = (float) step;
+                shifts[o] = (float) shifted;
+            }
+            result.weights[i] = codes;
+            result.inputZero[i] = zero;
+            result.inputInvScale[i] = inverse;
+            result.rowScale[i] = scales;
+            result.bias[i] = shifts;
+        }
+        result.outputScale = toFloat(network.outputScale);
+        result.outputOffset = toFloat(network.outputOffset);
+        return result;
+    }
+
+    private static float[] toFloat(double[] values) {
+        if (values == null) {
+            return null;
+        }
+        float[] result = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSizes[0];
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSizes[layerCount - 1];
+    }
+
+    public double predict(double x) {
+        Scratch buffers = scratch.get();
+        buffers.first[0] = (float) x;
+        return run(buffers, 1)[0];
+    }
+
+    public void predict(double[] in, double[] out) {
+        predict(in, out, 1);
+    }
+
+    @Override
+    public void predict(double[] xs, double[] ys, int n) {
+        Scratch buffers = scratch.get();
+        int inputSize = getInputSize();
+        int outputSize = getOutputSize();
+        for (int from = 0; from < n; from += BLOCK) {
+            int rows = Math.min(BLOCK, n - from);
+            float[] in = buffers.first;
+            for (int i = 0, base = from * inputSize, end = rows * inputSize; i < end; i++) {
+                in[i] = (float) xs[base + i];
+            }
+            float[] result = run(buffers, rows);
+            for (int i = 0, base = from * outputSize, end = rows * outputSize; i < end; i++) {
+                ys[base + i] = result[i];
+            }
+        }
+    }
+
+    /** Runs {@code rows} inputs packed in {@code buffers.first} and returns the buffer holding the outputs. */
+    private float[] run(Scratch buffers, int rows) {
+        float[] current = buffers.first;
+        float[] next = buffers.second;
+        byte[] codes = buffers.codes;
+        int[] sums = buffers.sums;
+        for (int i = 0; i < layerCount; i++) {
+            int in = inputSizes[i];
+            int out = outputSizes[i];
+            if (isQuantized(i)) {
+                float[] zero = inputZero[i];
+                float[] inverse = inputInvScale[i];
+                for (int j = 0, end = rows * in; j < end; j++) {
+                    int k = j % in;
+                    int q = Math.round((current[j] - zero[k]) * inverse[k]);
+                    codes[j] = (byte) Math.max(-127, Math.min(127, q));
+                }
+                MatrixKernels.forward(codes, rows, in, weights[i], 0, sums, out);
+                float[] scales = rowScale[i];
+                float[] shifts = bias[i];
+                for (int j = 0, end = rows * out; j < end; j++) {
+                    int o = j % out;
+                    next[j] = sums[j] * scales[o] + shifts[o];
+                }
+            } else {
+                MatrixKernels.forward(current, rows, in, floatLayers[i], 0, in * out, next, out, false);
+            }
+
+            ActivationFunction activation = activations[i];
+            if (activation != null) {
+                for (int j = 0, end = rows * out; j < end; j++) {
+                    next[j] = (float) activation.value(next[j]);
+                }
+            }
+            float[] swap = current;
+            current = next;
+            next = swap;
+        }
+        if (outputScale != null) {
+            int outputs = outputScale.length;
+            for (int j = 0, end = rows * outputs; j < end; j++) {
+                int o = j % outputs;
+                current[j] = current[j] * outputScale[o] + outputOffset[o];
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Little-endian layout: int magic 'NNQM', int version, int layer count, then per layer
+     * int inputSize, int outputSize, int activation id; int 1 if an output scale/offset follows
+     * (else 0). Then per layer either its float weights and biases (first and last layer) or
+     * float[in] input zero, float[in] input inverse scale, float[out] row scale, float[out] bias
+     * and byte[in * out] weights. Last, the optional float[outputs] scale and offset.
+     */
+    public void save(String filename) throws IOException {
+        int size = 3 * 4 + layerCount * 3 * 4 + 4;
+        for (int i = 0; i < layerCount; i++) {
+            size += isQuantized(i)
+                    ? 4 * (2 * inputSizes[i] + 2 * outputSizes[i]) + weights[i].length
+                    : 4 * floatLayers[i].length;
+        }
+        if (outputScale != null) {
+            size += 4 * 2 * outputScale.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(layerCount);
+        for (int i = 0; i < layerCount; i++) {
+            buffer.putInt(inputSizes[i]).putInt(outputSizes[i]).putInt(Activations.idOf(activations[i]));
+        }
+        buffer.putInt(outputScale != null ? 1 : 0);
+        for (int i = 0; i < layerCount; i++) {
+            if (isQuantized(i)) {
+                putFloats(buffer, inputZero[i]);
+                putFloats(buffer, inputInvScale[i]);
+                putFloats(buffer, rowScale[i]);
+                putFloats(buffer, bias[i]);
+                buffer.put(weights[i]);
+            } else {
+                putFloats(buffer, floatLayers[i]);
+            }
+        }
+        if (outputScale != null) {
+            putFloats(buffer, outputScale);
+            putFloats(buffer, outputOffset);
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /** Throws IOException for files that are not quantized models or are truncated or corrupt. */
+    public static QuantizedModel load(String filename) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Quantized model file is truncated.", e);
+        } catch (IllegalArgumentException e) {
+            // Unknown activation ids
+            throw new IOException("Corrupt quantized model file: " + e.getMessage(), e);
+        }
+    }
+
+    private static QuantizedModel read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a quantized model file (bad magic number).");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported quantized model version " + version + ".");
+        }
+        int layers = buffer.getInt();
+        if (layers < 1 || (long) layers * 3 * 4 > buffer.remaining()) {
+            throw new IOException("Corrupt quantized model file: layer count " + layers + " does not fit in the file.");
+        }
+        int[] inputSizes = new int[layers];
+        int[] outputSizes = new int[layers];
+        ActivationFunction[] activations = new ActivationFunction[layers];
+        for (int i = 0; i < layers; i++) {
+            inputSizes[i] = buffer.getInt();
+            outputSizes[i] = buffer.getInt();
+            activations[i] = Activations.fromId(buffer.getInt());
+            if (inputSizes[i] < 1 || outputSizes[i] < 1 || (i > 0 && inputSizes[i] != outputSizes[i - 1])) {
+                throw new IOException("Corrupt quantized model file: layer " + i + " is "
+                        + inputSizes[i] + "x" + outputSizes[i] + ".");
+            }
+        }
+        boolean denormalize = buffer.getInt() != 0;
+
+        QuantizedModel result = new QuantizedModel(inputSizes, outputSizes, activations);
+        long expectedBytes = denormalize ? 4L * 2 * outputSizes[layers - 1] : 0;
+        for (int i = 0; i < layers; i++) {
+            long in = inputSizes[i];
+            long out = outputSizes[i];
+            expectedBytes += result.isQuantized(i) ? 4 * (2 * in + 2 * out) + in * out : 4 * (in * out + out);
+        }
+        if (expectedBytes > buffer.remaining()) {
+            throw new IOException("Quantized model file is truncated: " + expectedBytes + " bytes of weights expected, "
+                    + buffer.remaining() + " left.");
+        }
+        for (int i = 0; i < layers; i++) {
+            int in = inputSizes[i];
+            int out = outputSizes[i];
+            if (result.isQuantized(i)) {
+                result.inputZero[i] = getFloats(buffer, in);
+                result.inputInvScale[i] = getFloats(buffer, in);
+                result.rowScale[i] = getFloats(buffer, out);
+                result.bias[i] = getFloats(buffer, out);
+                result.weights[i] = new byte[in * out];
+                buffer.get(result.weights[i]);
+            } else {
+                result.floatLayers[i] = getFloats(buffer, in * out + out);
+            }
+        }
+        if (denormalize) {
+            int outputs = outputSizes[layers - 1];
+            result.outputScale = getFloats(buffer, outputs);
+            result.outputOffset = getFloats(buffer, outputs);
+        }
+        return result;
+    }
+
+    private static void putFloats(ByteBuffer buffer, float[] values) {
+        for (float value : values) {
+            buffer.putFloat(value);
+        }
+    }
+
+    private static float[] getFloats(ByteBuffer buffer, int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = buffer.getFloat();
+        }
+        return values;
+    }
+
+    private static final class Scratch {
+        final float[] first;
+        final float[] second;
+        final byte[] codes;
+        final int[] sums;
+
+        Scratch(int size) {
+            this.first = new float[size];
+            this.second = new float[size];
+            this.codes = new byte[size];
+            this.sums = new int[size];
+        }
+    }
+
+    /**
+     * Usage: QuantizedModel model.nnb model.nnq [calibration samples]. Quantizes a saved model
+     * and reports the size saving and the error against the double model.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java -cp bin ifndef.nn.inference.QuantizedModel <model.nnb|model.dat> <model.nnq> [samples]");
+            return;
+        }
+        TrainedModel model = NetworkSerializer.load(args[0]);
+        if (model == null) {
+            return;
+        }
+        int samples = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CALIBRATION_SAMPLES;
+        QuantizedModel quantized = quantize(model, samples, CALIBRATION_SEED);
+        quantized.save(args[1]);
+
+        long before = new File(args[0]).length();
+        long after = new File(args[1]).length();
+        System.out.printf("Saved %s: %d bytes (was %d, %.1fx smaller)%n", args[1], after, before,
+                (double) before / after);
+        InferenceModel reference = new InferenceModel(model, Precision.DOUBLE);
+        FunctionInfo info = model.getFunctionInfo();
+        System.out.println(AccuracyReport.compare("FLOAT", reference, new InferenceModel(model, Precision.FLOAT),
+                info, AccuracyReport.DEFAULT_SAMPLES, 7L));
+        System.out.println(AccuracyReport.compare("INT8", reference, quantized, info,
+                AccuracyReport.DEFAULT_SAMPLES, 7L));
+    }
+}
\ No newline at end of file
@@ -9,4 +9,28 @@ public interface LossFunction extends Serializable {
     double compute(double[] predictions, double[] targets);
 
     double[] derivative(double[] predictions, double[] targets);
+
+    default void derivative(double[] predictions, double[] targets, double[] gradient) {
+        double[] result = derivative(predictions, targets);
+        System.arraycopy(result, 0, gradient, 0, result.length);
+    }
+
+    /**
+     * Evaluates a row-major batch of {@code rows x cols} predictions against matching targets,
+     * writing the per-row derivative into {@code gradient} and returning the summed loss.
+     */
+    default double computeBatch(double[] predictions, double[] targets, int rows, int cols, double[] gradient) {
+        double[] p = new double[cols];
+        double[] t = new double[cols];
+        double[] g = new double[cols];
+        double total = 0.0;
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(predictions, r * cols, p, 0, cols);
+            System.arraycopy(targets, r * cols, t, 0, cols);
+            total += compute(p, t);
+            derivative(p, t, g);
+            System.arraycopy(g, 0, gradient, r * cols, cols);
+        }
+        return total;
+    }
 }
\ No newline at end of file
@@ -35,4 +35,33 @@ public class MeanSquaredError implements LossFunction {
 
         return gradient;
     }
+
+    @Override
+    public void derivative(double[] predictions, double[] targets, double[] gradient) {
+        if (predictions.length != targets.length) {
+            throw new IllegalArgumentException("Predictions and targets must have the same length.");
+        }
+
+        double scale = 2.0 / predictions.length;
+        for (int i = 0; i < predictions.length; i++) {
+            gradient[i] = scale * (predictions[i] - targets[i]);
+        }
+    }
+
+    @Override
+    public double computeBatch(double[] predictions, double[] targets, int rows, int cols, double[] gradient) {
+        double scale = 2.0 / cols;
+        double total = 0.0;
+        for (int r = 0; r < rows; r++) {
+            int offset = r * cols;
+            double sumOfSquares = 0.0;
+            for (int i = offset; i < offset + cols; i++) {
+                double error = predictions[i] - targets[i];
+                sumOfSquares += error * error;
+                gradient[i] = scale * error;
+            }
+            total += sumOfSquares / cols;
+        }
+        return total;
+    }
 }
\ No newline at end of file
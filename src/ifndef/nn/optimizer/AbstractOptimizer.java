@@ -0,0 +1,32 @@
+package ifndef.nn.optimizer;
+
+public abstract class AbstractOptimizer implements Optimizer {
+
+    protected final int parameterCount;
+    protected double learningRate;
+
+    protected AbstractOptimizer(int parameterCount, double learningRate) {
+        this.parameterCount = parameterCount;
+        this.learningRate = learningRate;
+    }
+
+    protected void checkRange(double[] parameters, int from, int to) {
+        if (parameters.length != parameterCount || from < 0 || to > parameterCount) {
+            throw new IllegalArgumentException("Optimizer was created for " + parameterCount + " parameters.");
+        }
+    }
+
+    @Override
+    public void beginStep() {
+    }
+
+    @Override
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    @Override
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+}
\ No newline at end of file
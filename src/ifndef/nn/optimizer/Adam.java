@@ -0,0 +1,71 @@
+package ifndef.nn.optimizer;
+
+/**
+ * Adam with bias-corrected first and second moment estimates. The bias corrections depend
+ * only on the step count, so they are computed once per step in {@link #beginStep()}.
+ */
+public class Adam extends AbstractOptimizer {
+
+    private final double beta1;
+    private final double beta2;
+    private final double epsilon;
+    private final double[] firstMoment;
+    private final double[] secondMoment;
+
+    private long step;
+    private double firstCorrection;
+    private double secondCorrection;
+
+    public Adam(int parameterCount, double learningRate, double beta1, double beta2, double epsilon) {
+        super(parameterCount, learningRate);
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+        this.firstMoment = new double[parameterCount];
+        this.secondMoment = new double[parameterCount];
+    }
+
+    public Adam(int parameterCount, double learningRate) {
+        this(parameterCount, learningRate, 0.9, 0.999, 1e-8);
+    }
+
+    @Override
+    public void beginStep() {
+        step++;
+        firstCorrection = 1.0 / (1.0 - Math.pow(beta1, step));
+        secondCorrection = 1.0 / (1.0 - Math.pow(beta2, step));
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, int from, int to) {
+        checkRange(parameters, from, to);
+        double lr = learningRate;
+        double b1 = beta1;
+        double b2 = beta2;
+        double c1 = firstCorrection;
+        double c2 = secondCorrection;
+        for (int i = from; i < to; i++) {
+            double g = gradients[i];
+            double m = b1 * firstMoment[i] + (1.0 - b1) * g;
+            double v = b2 * secondMoment[i] + (1.0 - b2) * g * g;
+            firstMoment[i] = m;
+            secondMoment[i] = v;
+            parameters[i] -= lr * (m * c1) / (Math.sqrt(v * c2) + epsilon);
+        }
+    }
+
+    @Override
+    public double[][] getState() {
+        return new double[][]{firstMoment, secondMoment};
+    }
+
+    @Override
+    public long getStepCount() {
+        return step;
+    }
+
+    @Override
+    public void setStepCount(long steps) {
+        this.step = steps;
+    }
+}
\ No newline at end of file
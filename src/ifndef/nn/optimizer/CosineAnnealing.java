@@ -0,0 +1,19 @@
+package ifndef.nn.optimizer;
+
+/** Decays the rate from the base rate to {@code minRate} along a half cosine over {@code totalEpochs}. */
+public class CosineAnnealing implements LearningRateSchedule {
+
+    private final int totalEpochs;
+    private final double minRate;
+
+    public CosineAnnealing(int totalEpochs, double minRate) {
+        this.totalEpochs = totalEpochs;
+        this.minRate = minRate;
+    }
+
+    @Override
+    public double learningRate(int epoch, double baseRate) {
+        double progress = Math.min(1.0, (double) (epoch - 1) / Math.max(1, totalEpochs - 1));
+        return minRate + 0.5 * (baseRate - minRate) * (1.0 + Math.cos(Math.PI * progress));
+    }
+}
\ No newline at end of file
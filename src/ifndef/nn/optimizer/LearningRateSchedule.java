@@ -0,0 +1,21 @@
+package ifndef.nn.optimizer;
+
+/**
+ * Chooses the learning rate for each epoch from the optimizer's base rate. Schedules that
+ * react to training progress receive the monitored loss through {@link #observeLoss(double)}.
+ */
+public interface LearningRateSchedule {
+
+    double learningRate(int epoch, double baseRate);
+
+    default void observeLoss(double loss) {
+    }
+
+    /** Progress a checkpoint must save; schedules that depend only on the epoch have none. */
+    default double[] getState() {
+        return new double[0];
+    }
+
+    default void setState(double[] state) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package ifndef.nn.optimizer;
+
+/**
+ * SGD with momentum: v = mu * v + g. With Nesterov enabled the step looks ahead along the
+ * velocity, p -= lr * (g + mu * v); otherwise p -= lr * v.
+ */
+public class Momentum extends AbstractOptimizer {
+
+    private final double momentum;
+    private final boolean nesterov;
+    private final double[] velocity;
+
+    public Momentum(int parameterCount, double learningRate, double momentum, boolean nesterov) {
+        super(parameterCount, learningRate);
+        this.momentum = momentum;
+        this.nesterov = nesterov;
+        this.velocity = new double[parameterCount];
+    }
+
+    public Momentum(int parameterCount, double learningRate) {
+        this(parameterCount, learningRate, 0.9, true);
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, int from, int to) {
+        checkRange(parameters, from, to);
+        double lr = learningRate;
+        double mu = momentum;
+        if (nesterov) {
+            for (int i = from; i < to; i++) {
+                double g = gradients[i];
+                double v = mu * velocity[i] + g;
+                velocity[i] = v;
+                parameters[i] -= lr * (g + mu * v);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                double v = mu * velocity[i] + gradients[i];
+                velocity[i] = v;
+                parameters[i] -= lr * v;
+            }
+        }
+    }
+
+    @Override
+    public double[][] getState() {
+        return new double[][]{velocity};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package ifndef.nn.optimizer;
+
+/**
+ * Updates a network's flat parameter array from its averaged gradients. Per-parameter state
+ * (moments, velocities) lives in primitive arrays with the same layout as the parameters and
+ * is allocated once, so updates never allocate.
+ *
+ * Each optimization step is one call to {@link #beginStep()} followed by one or more calls
+ * to {@link #update} over disjoint index ranges, which may run concurrently.
+ */
+public interface Optimizer {
+
+    void beginStep();
+
+    void update(double[] parameters, double[] gradients, int from, int to);
+
+    double getLearningRate();
+
+    void setLearningRate(double learningRate);
+
+    /** The live per-parameter state arrays (moments, velocities) a checkpoint must save; none by default. */
+    default double[][] getState() {
+        return new double[0][];
+    }
+
+    /** Steps taken so far, for optimizers whose update depends on it. */
+    default long getStepCount() {
+        return 0L;
+    }
+
+    default void setStepCount(long steps) {
+    }
+}
\ No newline at end of file
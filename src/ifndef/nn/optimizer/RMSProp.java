@@ -0,0 +1,41 @@
+package ifndef.nn.optimizer;
+
+/**
+ * RMSProp: s = rho * s + (1 - rho) * g^2; p -= lr * g / (sqrt(s) + eps).
+ */
+public class RMSProp extends AbstractOptimizer {
+
+    private final double decay;
+    private final double epsilon;
+    private final double[] meanSquare;
+
+    public RMSProp(int parameterCount, double learningRate, double decay, double epsilon) {
+        super(parameterCount, learningRate);
+        this.decay = decay;
+        this.epsilon = epsilon;
+        this.meanSquare = new double[parameterCount];
+    }
+
+    public RMSProp(int parameterCount, double learningRate) {
+        this(parameterCount, learningRate, 0.9, 1e-8);
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, int from, int to) {
+        checkRange(parameters, from, to);
+        double lr = learningRate;
+        double rho = decay;
+        double oneMinusRho = 1.0 - decay;
+        for (int i = from; i < to; i++) {
+            double g = gradients[i];
+            double s = rho * meanSquare[i] + oneMinusRho * g * g;
+            meanSquare[i] = s;
+            parameters[i] -= lr * g / (Math.sqrt(s) + epsilon);
+        }
+    }
+
+    @Override
+    public double[][] getState() {
+        return new double[][]{meanSquare};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package ifndef.nn.optimizer;
+
+/**
+ * Multiplies the rate by {@code factor} whenever the monitored loss has not improved by at
+ * least {@code minDelta} for {@code patience} consecutive observations.
+ */
+public class ReduceOnPlateau implements LearningRateSchedule {
+
+    private final double factor;
+    private final int patience;
+    private final double minDelta;
+    private final double minRate;
+
+    private double bestLoss = Double.POSITIVE_INFINITY;
+    private int badObservations;
+    private double multiplier = 1.0;
+
+    public ReduceOnPlateau(double factor, int patience, double minDelta, double minRate) {
+        this.factor = factor;
+        this.patience = patience;
+        this.minDelta = minDelta;
+        this.minRate = minRate;
+    }
+
+    public ReduceOnPlateau() {
+        this(0.5, 5, 0.0, 1e-6);
+    }
+
+    @Override
+    public double learningRate(int epoch, double baseRate) {
+        return Math.max(minRate, baseRate * multiplier);
+    }
+
+    @Override
+    public void observeLoss(double loss) {
+        if (loss < bestLoss - minDelta) {
+            bestLoss = loss;
+            badObservations = 0;
+        } else if (++badObservations >= patience) {
+            multiplier *= factor;
+            badObservations = 0;
+        }
+    }
+
+    @Override
+    public double[] getState() {
+        return new double[]{bestLoss, badObservations, multiplier};
+    }
+
+    @Override
+    public void setState(double[] state) {
+        if (state.length == 3) {
+            bestLoss = state[0];
+            badObservations = (int) state[1];
+            multiplier = state[2];
+        }
+    }
+}
\ No newline at end of file
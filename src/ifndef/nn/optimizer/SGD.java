@@ -0,0 +1,16 @@
+package ifndef.nn.optimizer;
+
+import ifndef.nn.core.MatrixKernels;
+
+public class SGD extends AbstractOptimizer {
+
+    public SGD(int parameterCount, double learningRate) {
+        super(parameterCount, learningRate);
+    }
+
+    @Override
+    public void update(double[] parameters, double[] gradients, int from, int to) {
+        checkRange(parameters, from, to);
+        MatrixKernels.axpy(-learningRate, gradients, from, parameters, from, to - from);
+    }
+}
\ No newline at end of file
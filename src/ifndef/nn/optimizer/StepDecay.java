@@ -0,0 +1,18 @@
+package ifndef.nn.optimizer;
+
+/** Multiplies the rate by {@code gamma} every {@code stepSize} epochs. */
+public class StepDecay implements LearningRateSchedule {
+
+    private final int stepSize;
+    private final double gamma;
+
+    public StepDecay(int stepSize, double gamma) {
+        this.stepSize = stepSize;
+        this.gamma = gamma;
+    }
+
+    @Override
+    public double learningRate(int epoch, double baseRate) {
+        return baseRate * Math.pow(gamma, (epoch - 1) / stepSize);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package ifndef.nn.optimizer;
+
+/**
+ * Ramps the rate linearly up to the base rate over {@code warmupEpochs}, then hands over to
+ * another schedule (whose epochs are counted from the end of the warmup).
+ */
+public class Warmup implements LearningRateSchedule {
+
+    private final int warmupEpochs;
+    private final LearningRateSchedule after;
+
+    public Warmup(int warmupEpochs, LearningRateSchedule after) {
+        this.warmupEpochs = warmupEpochs;
+        this.after = after;
+    }
+
+    public Warmup(int warmupEpochs) {
+        this(warmupEpochs, (epoch, baseRate) -> baseRate);
+    }
+
+    @Override
+    public double learningRate(int epoch, double baseRate) {
+        if (epoch <= warmupEpochs) {
+            return baseRate * epoch / warmupEpochs;
+        }
+        return after.learningRate(epoch - warmupEpochs, baseRate);
+    }
+
+    @Override
+    public void observeLoss(double loss) {
+        after.observeLoss(loss);
+    }
+
+    @Override
+    public double[] getState() {
+        return after.getState();
+    }
+
+    @Override
+    public void setState(double[] state) {
+        after.setState(state);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,33 @@
+package ifndef.nn.search;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.NeuralNetwork;
+
+/**
+ * The network shapes offered by the menu. Hidden layers widen as the function gains inputs and
+ * outputs; the output layer is linear.
+ */
+public enum Architecture {
+    STANDARD(2, 16),
+    DEEP(4, 32);
+
+    private final int hiddenLayers;
+    private final int baseWidth;
+
+    Architecture(int hiddenLayers, int baseWidth) {
+        this.hiddenLayers = hiddenLayers;
+        this.baseWidth = baseWidth;
+    }
+
+    public NeuralNetwork create(int inputs, int outputs, ActivationFunction activation) {
+        int width = baseWidth * Math.max(1, (inputs + outputs) / 2);
+        NeuralNetwork network = new NeuralNetwork();
+        network.add(new DenseLayer(inputs, width, activation));
+        for (int i = 1; i < hiddenLayers; i++) {
+            network.add(new DenseLayer(width, width, activation));
+        }
+        network.add(new DenseLayer(width, outputs, null));
+        return network;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,355 @@
+package ifndef.nn.search;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.LossFunction;
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.training.Dataset;
+import ifndef.nn.training.SamplingStrategy;
+import ifndef.nn.training.Trainer;
+import ifndef.nn.util.DataNormalizer;
+import ifndef.nn.util.FunctionInfo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Trains many {@link TrialConfig}s of a {@link SearchSpace} at once and ranks them by loss on a
+ * shared validation set.
+ * <p>
+ * Trials train in rungs of growing epoch counts; after each rung the worst are pruned and the
+ * survivors continue from where they stopped (see {@link SearchStrategy}). All trials draw from
+ * one budget of {@code cores}: a trial whose {@link Trainer} uses {@code t} threads holds
+ * {@code t} cores while it trains. Unless fixed with {@link #setThreadsPerTrial}, each rung
+ * spreads the cores over its trials, so early rungs run many single-threaded trials and the
+ * last few survivors get several threads each. One dataset is generated per sample count and
+ * shared read-only; each trial shuffles its own index over it.
+ */
+public class HyperparameterSearch {
+
+    private static final int LEADERBOARD_ROWS = 10;
+
+    private final FunctionInfo function;
+    private final SearchSpace space;
+    private final LossFunction lossFunction = new MeanSquaredError();
+
+    private SearchStrategy strategy = SearchStrategy.HYPERBAND;
+    private int maxEpochs = 1000;
+    private int minEpochs;
+    private int eta = 3;
+    private int randomTrials = 20;
+    private boolean pruning = true;
+    private int cores = Runtime.getRuntime().availableProcessors();
+    private int threadsPerTrial;
+    private int validationSamples = 5000;
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private String leaderboardFile;
+
+    private Dataset validation;
+    private Map<Integer, Dataset> datasets;
+    private DataNormalizer inputNormalizer;
+    private DataNormalizer outputNormalizer;
+    private Semaphore budget;
+    private ExecutorService trialPool;
+    private final List<Trial> trials = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public HyperparameterSearch(FunctionInfo function, SearchSpace space) {
+        this.function = function;
+        this.space = space;
+    }
+
+    public void setStrategy(SearchStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /** Epochs a trial trains if it is never pruned. */
+    public void setMaxEpochs(int maxEpochs) {
+        if (maxEpochs < 1) {
+            throw new IllegalArgumentException("Max epochs must be at least 1.");
+        }
+        this.maxEpochs = maxEpochs;
+    }
+
+    /** Epochs of the first rung; defaults to {@code maxEpochs / eta^3}. */
+    public void setMinEpochs(int minEpochs) {
+        this.minEpochs = minEpochs;
+    }
+
+    /** Rung growth factor: each rung trains eta times longer, and Hyperband keeps 1/eta of the trials. */
+    public void setEta(int eta) {
+        if (eta < 2) {
+            throw new IllegalArgumentException("Eta must be at least 2.");
+        }
+        this.eta = eta;
+    }
+
+    /** Number of candidates for {@link SearchStrategy#RANDOM}. */
+    public void setRandomTrials(int randomTrials) {
+        this.randomTrials = randomTrials;
+    }
+
+    /** With {@code false}, grid and random trials all train the full {@code maxEpochs}. */
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    /** Cores shared by all trials; defaults to every available processor. */
+    public void setCores(int cores) {
+        if (cores < 1) {
+            throw new IllegalArgumentException("Need at least one core.");
+        }
+        this.cores = cores;
+    }
+
+    /** Trainer threads per trial; 0 (the default) spreads the cores over each rung's trials. */
+    public void setThreadsPerTrial(int threadsPerTrial) {
+        this.threadsPerTrial = threadsPerTrial;
+    }
+
+    public void setValidationSamples(int validationSamples) {
+        this.validationSamples = validationSamples;
+    }
+
+    /** Seeds the datasets, the random candidates and the trials' shuffles. */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /** Also writes the full leaderboard as CSV to this file. */
+    public void setLeaderboardFile(String leaderboardFile) {
+        this.leaderboardFile = leaderboardFile;
+    }
+
+    public DataNormalizer getInputNormalizer() {
+        return inputNormalizer;
+    }
+
+    public DataNormalizer getOutputNormalizer() {
+        return outputNormalizer;
+    }
+
+    /** Runs the search and returns every trial, best first. */
+    public List<Trial> run() {
+        prepareData();
+        List<List<TrialConfig>> brackets = new ArrayList<>();
+        List<int[]> rungs = new ArrayList<>();
+        planBrackets(brackets, rungs);
+
+        int total = brackets.stream().mapToInt(List::size).sum();
+        System.out.printf("Searching %d candidates of %s (%s, up to %d epochs each) on %d cores...\n",
+                total, function.name, strategy, maxEpochs, cores);
+
+        long start = System.nanoTime();
+        budget = new Semaphore(cores, true);
+        trialPool = Executors.newFixedThreadPool(cores);
+        ExecutorService coordinators = Executors.newFixedThreadPool(brackets.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int b = 0; b < brackets.size(); b++) {
+                int bracket = b;
+                futures.add(coordinators.submit(() -> runBracket(bracket, brackets.get(bracket), rungs.get(bracket))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error during hyperparameter search: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            coordinators.shutdownNow();
+            trialPool.shutdownNow();
+        }
+
+        List<Trial> ranked = new ArrayList<>(trials);
+        ranked.sort(Comparator.comparing((Trial t) -> t.getStatus() == Trial.Status.FAILED)
+                .thenComparing(Trial::getEpochs, Comparator.reverseOrder())
+                .thenComparingDouble(Trial::getValidationLoss));
+        System.out.printf("Search finished in %.1f seconds.\n", (System.nanoTime() - start) / 1_000_000_000.0);
+        printLeaderboard(ranked);
+        if (leaderboardFile != null) {
+            writeLeaderboard(ranked, leaderboardFile);
+        }
+        return ranked;
+    }
+
+    private void prepareData() {
+        int inputs = function.getInputSize();
+        int outputs = function.getOutputSize();
+        validation = new Dataset(function.vectorFunction, inputs, outputs);
+        validation.generateData(validationSamples, function.getInputMin(), function.getInputMax(),
+                SamplingStrategy.UNIFORM, seed - 1);
+        if (function.shouldNormalize) {
+            // One pair for every trial, so their losses are comparable
+            inputNormalizer = new DataNormalizer(function.getInputMin(), function.getInputMax());
+            outputNormalizer = new DataNormalizer(validation.getOutputMin(), validation.getOutputMax());
+        }
+        datasets = new HashMap<>();
+        for (int samples : space.getSampleCounts()) {
+            Dataset dataset = new Dataset(function.vectorFunction, inputs, outputs);
+            dataset.generateData(samples, function.getInputMin(), function.getInputMax(),
+                    SamplingStrategy.UNIFORM, seed + samples);
+            datasets.put(samples, dataset);
+        }
+    }
+
+    private void planBrackets(List<List<TrialConfig>> brackets, List<int[]> rungs) {
+        Random random = new Random(seed);
+        int firstRung = minEpochs > 0 ? Math.min(minEpochs, maxEpochs) : Math.max(1, maxEpochs / (eta * eta * eta));
+        if (strategy == SearchStrategy.HYPERBAND) {
+            int sMax = (int) Math.floor(Math.log((double) maxEpochs / firstRung) / Math.log(eta) + 1e-9);
+            for (int s = sMax; s >= 0; s--) {
+                int count = (int) Math.ceil((double) (sMax + 1) / (s + 1) * Math.pow(eta, s));
+                List<TrialConfig> configs = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    configs.add(space.sample(random));
+                }
+                int[] epochs = new int[s + 1];
+                for (int i = 0; i <= s; i++) {
+                    epochs[i] = Math.max(1, (int) Math.round(maxEpochs * Math.pow(eta, i - s)));
+                }
+                brackets.add(configs);
+                rungs.add(epochs);
+            }
+            return;
+        }
+
+        List<TrialConfig> configs;
+        if (strategy == SearchStrategy.GRID) {
+            configs = space.grid();
+        } else {
+            configs = new ArrayList<>();
+            for (int i = 0; i < randomTrials; i++) {
+                configs.add(space.sample(random));
+            }
+        }
+        List<Integer> epochs = new ArrayList<>();
+        if (pruning) {
+            for (long e = firstRung; e < maxEpochs; e *= eta) {
+                epochs.add((int) e);
+            }
+        }
+        epochs.add(maxEpochs);
+        brackets.add(configs);
+        rungs.add(epochs.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private void runBracket(int bracket, List<TrialConfig> configs, int[] rungEpochs) {
+        List<Trial> alive = new ArrayList<>();
+        for (TrialConfig config : configs) {
+            NeuralNetwork network = config.createNetwork(function.getInputSize(), function.getOutputSize());
+            // Own index over the shared samples; shuffling never touches another trial's order
+            Dataset shared = datasets.get(config.getSamples());
+            Trial trial = new Trial(nextId.incrementAndGet(), bracket + 1, config, network, shared.subset(0, shared.size()));
+            trials.add(trial);
+            alive.add(trial);
+        }
+
+        for (int rung = 0; rung < rungEpochs.length && !alive.isEmpty(); rung++) {
+            int epochs = rungEpochs[rung];
+            int threads = threadsPerTrial > 0 ? threadsPerTrial : Math.max(1, cores / alive.size());
+            int trialThreads = Math.min(threads, cores);
+            List<Future<?>> futures = new ArrayList<>();
+            for (Trial trial : alive) {
+                futures.add(trialPool.submit(() -> advance(trial, epochs, trialThreads)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    System.err.println("Trial failed: " + e.getCause());
+                }
+            }
+            alive.removeIf(trial -> trial.getStatus() == Trial.Status.FAILED);
+            alive.sort(Comparator.comparingDouble(Trial::getValidationLoss));
+
+            if (rung == rungEpochs.length - 1) {
+                alive.forEach(Trial::complete);
+                break;
+            }
+            int keep = strategy == SearchStrategy.HYPERBAND
+                    ? Math.max(1, alive.size() / eta)
+                    : Math.max(1, (alive.size() + 1) / 2);
+            int pruned = alive.size() - keep;
+            while (alive.size() > keep) {
+                alive.remove(alive.size() - 1).prune();
+            }
+            if (!alive.isEmpty()) {
+                System.out.printf("Bracket %d, rung %d: %d trials at %d epochs, best %.8f (%s), %d pruned\n",
+                        bracket + 1, rung + 1, keep + pruned, epochs, alive.get(0).getValidationLoss(),
+                        alive.get(0).getConfig(), pruned);
+            }
+        }
+    }
+
+    /** Continues a trial up to {@code epochs} in total, holding {@code threads} cores of the budget. */
+    private void advance(Trial trial, int epochs, int threads) {
+        budget.acquireUninterruptibly(threads);
+        Trainer trainer = null;
+        try {
+            trainer = new Trainer(trial.getNetwork(), lossFunction, trial.getOptimizer(), threads);
+            trainer.setVerbose(false);
+            trainer.setNormalizers(inputNormalizer, outputNormalizer);
+            trainer.setSeed(seed + 31L * trial.getId() + trial.getEpochs());
+            long start = System.nanoTime();
+            trainer.train(trial.getData(), epochs - trial.getEpochs(), trial.getConfig().getBatchSize(), 1);
+            double loss = trainer.evaluate(validation);
+            trial.record(epochs, loss, (System.nanoTime() - start) / 1_000_000_000.0);
+        } catch (RuntimeException e) {
+            System.err.println("Trial " + trial.getId() + " (" + trial.getConfig() + ") failed: " + e.getMessage());
+            trial.fail();
+        } finally {
+            if (trainer != null) {
+                trainer.shutdown();
+            }
+            budget.release(threads);
+        }
+    }
+
+    private static void printLeaderboard(List<Trial> ranked) {
+        System.out.printf("%-5s %-14s %-7s %-10s %-8s %s\n", "Rank", "Val loss", "Epochs", "Status", "Seconds",
+                "Configuration");
+        for (int i = 0; i < Math.min(LEADERBOARD_ROWS, ranked.size()); i++) {
+            Trial trial = ranked.get(i);
+            System.out.printf("%-5d %-14.8f %-7d %-10s %-8.1f %s\n", i + 1, trial.getValidationLoss(),
+                    trial.getEpochs(), trial.getStatus(), trial.getSeconds(), trial.getConfig());
+        }
+    }
+
+    private static void writeLeaderboard(List<Trial> ranked, String filename) {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(filename)))) {
+            out.println("rank,validation_loss,epochs,status,seconds,bracket,architecture,activation,optimizer,"
+                    + "learning_rate,batch_size,samples");
+            for (int i = 0; i < ranked.size(); i++) {
+                Trial trial = ranked.get(i);
+                TrialConfig config = trial.getConfig();
+                out.printf(Locale.ROOT, "%d,%.10g,%d,%s,%.3f,%d,%s,%s,%s,%.6g,%d,%d\n", i + 1, trial.getValidationLoss(),
+                        trial.getEpochs(), trial.getStatus(), trial.getSeconds(), trial.getBracket(),
+                        config.getArchitecture(), config.getActivationName(), config.getOptimizer(),
+                        config.getLearningRate(), config.getBatchSize(), config.getSamples());
+            }
+            System.out.println("Leaderboard written to " + filename);
+        } catch (IOException e) {
+            System.err.println("Error writing leaderboard: " + e.getMessage());
+        }
+    }
+}
\ No newline at end of file
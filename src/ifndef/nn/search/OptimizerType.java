@@ -0,0 +1,24 @@
+package ifndef.nn.search;
+
+import ifndef.nn.optimizer.Adam;
+import ifndef.nn.optimizer.Momentum;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.optimizer.RMSProp;
+import ifndef.nn.optimizer.SGD;
+
+/** The optimizers a search can choose between, with their default settings. */
+public enum OptimizerType {
+    SGD,
+    MOMENTUM,
+    RMSPROP,
+    ADAM;
+
+    public Optimizer create(int parameterCount, double learningRate) {
+        switch (this) {
+            case MOMENTUM: return new Momentum(parameterCount, learningRate);
+            case RMSPROP:  return new RMSProp(parameterCount, learningRate);
+            case ADAM:     return new Adam(parameterCount, learningRate);
+            default:       return new SGD(parameterCount, learningRate);
+        }
+    }
+}
\ No newline at end of file
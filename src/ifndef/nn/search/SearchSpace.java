@@ -0,0 +1,109 @@
+package ifndef.nn.search;
+
+import ifndef.nn.activation.Activations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The choices a {@link HyperparameterSearch} may combine. Defaults cover the ranges of the
+ * README's recommendation table: both architectures, ReLU and Tanh, Adam at three learning
+ * rates, and two batch sizes and sample counts.
+ */
+public class SearchSpace {
+
+    private Architecture[] architectures = Architecture.values();
+    private int[] activations = {Activations.RELU, Activations.TANH};
+    private OptimizerType[] optimizers = {OptimizerType.ADAM};
+    private double[] learningRates = {0.001, 0.003, 0.01};
+    private int[] batchSizes = {32, 128};
+    private int[] sampleCounts = {5_000, 20_000};
+
+    public void setArchitectures(Architecture... architectures) {
+        requireChoices(architectures.length);
+        this.architectures = architectures.clone();
+    }
+
+    /** {@link Activations} ids for the hidden layers. */
+    public void setActivations(int... activations) {
+        for (int activation : activations) {
+            if (Activations.fromId(activation) == null) {
+                throw new IllegalArgumentException("Hidden layers need an activation function.");
+            }
+        }
+        requireChoices(activations.length);
+        this.activations = activations.clone();
+    }
+
+    public void setOptimizers(OptimizerType... optimizers) {
+        requireChoices(optimizers.length);
+        this.optimizers = optimizers.clone();
+    }
+
+    /** The grid's rates; random points are drawn log-uniformly between the smallest and the largest. */
+    public void setLearningRates(double... learningRates) {
+        for (double rate : learningRates) {
+            if (!(rate > 0.0)) {
+                throw new IllegalArgumentException("Learning rates must be positive.");
+            }
+        }
+        requireChoices(learningRates.length);
+        this.learningRates = learningRates.clone();
+    }
+
+    public void setBatchSizes(int... batchSizes) {
+        requireChoices(batchSizes.length);
+        this.batchSizes = batchSizes.clone();
+    }
+
+    /** Dataset sizes; trials with the same size train on one shared dataset. */
+    public void setSampleCounts(int... sampleCounts) {
+        requireChoices(sampleCounts.length);
+        this.sampleCounts = sampleCounts.clone();
+    }
+
+    private static void requireChoices(int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("Every dimension needs at least one choice.");
+        }
+    }
+
+    public int[] getSampleCounts() {
+        return sampleCounts.clone();
+    }
+
+    /** Every combination, in a fixed order. */
+    public List<TrialConfig> grid() {
+        List<TrialConfig> grid = new ArrayList<>();
+        for (Architecture architecture : architectures) {
+            for (int activation : activations) {
+                for (OptimizerType optimizer : optimizers) {
+                    for (double learningRate : learningRates) {
+                        for (int batchSize : batchSizes) {
+                            for (int samples : sampleCounts) {
+                                grid.add(new TrialConfig(architecture, activation, optimizer, learningRate,
+                                        batchSize, samples));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /** A uniformly drawn point, with the learning rate drawn log-uniformly over the listed range. */
+    public TrialConfig sample(Random random) {
+        double minRate = Arrays.stream(learningRates).min().getAsDouble();
+        double maxRate = Arrays.stream(learningRates).max().getAsDouble();
+        double learningRate = minRate * Math.pow(maxRate / minRate, random.nextDouble());
+        return new TrialConfig(architectures[random.nextInt(architectures.length)],
+                activations[random.nextInt(activations.length)],
+                optimizers[random.nextInt(optimizers.length)],
+                learningRate,
+                batchSizes[random.nextInt(batchSizes.length)],
+                sampleCounts[random.nextInt(sampleCounts.length)]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ifndef.nn.search;
+
+/**
+ * How {@link HyperparameterSearch} picks candidates and hands out epochs. Every strategy trains
+ * in rungs of growing epoch counts and prunes the worst trials after each rung.
+ */
+public enum SearchStrategy {
+    /** Every combination in the {@link SearchSpace}; the better half survives each rung. */
+    GRID,
+    /** A fixed number of random points; the better half survives each rung. */
+    RANDOM,
+    /**
+     * Hyperband: several successive-halving brackets of random points, from many trials started
+     * on few epochs to a handful started on the full budget; the best 1/eta survive each rung.
+     */
+    HYPERBAND
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package ifndef.nn.search;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.training.Dataset;
+
+/**
+ * One candidate of a search. A running trial keeps its network, optimizer state and dataset view
+ * between rungs so each rung continues where the last one stopped; a pruned trial lets them go.
+ */
+public class Trial {
+
+    public enum Status { RUNNING, COMPLETED, PRUNED, FAILED }
+
+    private final int id;
+    private final int bracket;
+    private final TrialConfig config;
+
+    private NeuralNetwork network;
+    private Optimizer optimizer;
+    private Dataset data;
+
+    private volatile Status status = Status.RUNNING;
+    private volatile int epochs;
+    private volatile double validationLoss = Double.NaN;
+    private volatile double seconds;
+
+    Trial(int id, int bracket, TrialConfig config, NeuralNetwork network, Dataset data) {
+        this.id = id;
+        this.bracket = bracket;
+        this.config = config;
+        this.network = network;
+        this.optimizer = config.createOptimizer(network.getParameterCount());
+        this.data = data;
+    }
+
+    void record(int epochs, double validationLoss, double seconds) {
+        this.epochs = epochs;
+        this.validationLoss = validationLoss;
+        this.seconds += seconds;
+    }
+
+    void complete() {
+        status = Status.COMPLETED;
+    }
+
+    void prune() {
+        status = Status.PRUNED;
+        release();
+    }
+
+    void fail() {
+        status = Status.FAILED;
+        release();
+    }
+
+    private void release() {
+        network = null;
+        optimizer = null;
+        data = null;
+    }
+
+    Optimizer getOptimizer() {
+        return optimizer;
+    }
+
+    Dataset getData() {
+        return data;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getBracket() {
+        return bracket;
+    }
+
+    public TrialConfig getConfig() {
+        return config;
+    }
+
+    /** The trained network, or null once the trial was pruned or failed. */
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getEpochs() {
+        return epochs;
+    }
+
+    /** Loss on the search's shared validation set after the last rung; NaN before the first. */
+    public double getValidationLoss() {
+        return validationLoss;
+    }
+
+    public double getSeconds() {
+        return seconds;
+    }
+}
\ No newline at end of file
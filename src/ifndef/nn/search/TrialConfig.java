@@ -0,0 +1,65 @@
+package ifndef.nn.search;
+
+import ifndef.nn.activation.Activations;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.optimizer.Optimizer;
+
+/** One point of a {@link SearchSpace}: the settings from the README's recommendation table plus the optimizer. */
+public final class TrialConfig {
+
+    private final Architecture architecture;
+    private final int activation;
+    private final OptimizerType optimizer;
+    private final double learningRate;
+    private final int batchSize;
+    private final int samples;
+
+    /** {@code activation} is an {@link Activations} id. */
+    public TrialConfig(Architecture architecture, int activation, OptimizerType optimizer, double learningRate,
+                       int batchSize, int samples) {
+        this.architecture = architecture;
+        this.activation = activation;
+        this.optimizer = optimizer;
+        this.learningRate = learningRate;
+        this.batchSize = batchSize;
+        this.samples = samples;
+    }
+
+    public NeuralNetwork createNetwork(int inputs, int outputs) {
+        return architecture.create(inputs, outputs, Activations.fromId(activation));
+    }
+
+    public Optimizer createOptimizer(int parameterCount) {
+        return optimizer.create(parameterCount, learningRate);
+    }
+
+    public Architecture getArchitecture() {
+        return architecture;
+    }
+
+    public String getActivationName() {
+        return Activations.fromId(activation).getClass().getSimpleName();
+    }
+
+    public OptimizerType getOptimizer() {
+        return optimizer;
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s %s lr=%.5g batch=%d samples=%d", architecture, getActivationName(), optimizer,
+                learningRate, batchSize, samples);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package ifndef.nn.server;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency and throughput counters for one model.
+ * Percentiles are computed over the most recent {@link #WINDOW} requests.
+ */
+public class LatencyStats {
+
+    private static final int WINDOW = 4096;
+
+    private final AtomicLongArray recent = new AtomicLongArray(WINDOW);
+    private final AtomicLong cursor = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    void recordRequest(long latencyNanos) {
+        recent.set((int) (cursor.getAndIncrement() & (WINDOW - 1)), latencyNanos);
+        requests.increment();
+    }
+
+    void recordBatch() {
+        batches.increment();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long b = getBatches();
+        return b == 0 ? 0.0 : (double) getRequests() / b;
+    }
+
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds == 0 ? 0.0 : getRequests() / seconds;
+    }
+
+    /** Latency at the given quantile (0..1) in milliseconds. */
+    public double getPercentileMillis(double quantile) {
+        int count = (int) Math.min(cursor.get(), WINDOW);
+        if (count == 0) {
+            return 0.0;
+        }
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = recent.get(i);
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.min(count - 1, Math.ceil(quantile * count) - 1);
+        return samples[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    public String toJson() {
+        return String.format(java.util.Locale.ROOT,
+                "{\"requests\":%d,\"batches\":%d,\"avgBatchSize\":%.2f,\"throughput\":%.1f,\"p50Ms\":%.3f,\"p99Ms\":%.3f}",
+                getRequests(), getBatches(), getAverageBatchSize(), getThroughput(),
+                getPercentileMillis(0.50), getPercentileMillis(0.99));
+    }
+}
\ No newline at end of file
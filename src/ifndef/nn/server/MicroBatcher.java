@@ -0,0 +1,141 @@
+package ifndef.nn.server;
+
+import ifndef.nn.inference.Predictor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent single-point requests for one model into batched forward passes.
+ *
+ * A dispatcher thread waits for the first pending request, then keeps collecting more until
+ * either {@code maxBatchSize} is reached or {@code windowMicros} has passed, and runs them
+ * through {@link Predictor#predict(double[], double[], int)} in one go. Every returned future
+ * completes: a failing batch fails its requests, and requests still pending at {@link #close()}
+ * fail with an IllegalStateException.
+ */
+public class MicroBatcher implements AutoCloseable {
+
+    private static final class Pending {
+        final double[] input;
+        final long enqueuedNanos;
+        final CompletableFuture<double[]> result = new CompletableFuture<>();
+
+        Pending(double[] input) {
+            this.input = input;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
+
+    private final Predictor model;
+    private final LatencyStats stats;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, Predictor model, int maxBatchSize, long windowMicros) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1.");
+        }
+        this.model = model;
+        this.stats = new LatencyStats();
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.dispatcher = new Thread(this::dispatchLoop, "batcher-" + name);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public CompletableFuture<double[]> submit(double[] input) {
+        if (input.length != model.getInputSize()) {
+            throw new IllegalArgumentException("Expected " + model.getInputSize() + " input value(s), got " + input.length);
+        }
+        if (!running) {
+            throw new IllegalStateException("Batcher is closed.");
+        }
+        Pending pending = new Pending(input);
+        queue.add(pending);
+        // close() may have drained the queue between the check above and the add
+        if (!running && queue.remove(pending)) {
+            pending.result.completeExceptionally(new IllegalStateException("Batcher is closed."));
+        }
+        return pending.result;
+    }
+
+    public LatencyStats getStats() {
+        return stats;
+    }
+
+    private void dispatchLoop() {
+        try {
+            dispatch();
+        } finally {
+            Pending leftover;
+            while ((leftover = queue.poll()) != null) {
+                leftover.result.completeExceptionally(new IllegalStateException("Batcher is closed."));
+            }
+        }
+    }
+
+    private void dispatch() {
+        int inputSize = model.getInputSize();
+        int outputSize = model.getOutputSize();
+        Pending[] batch = new Pending[maxBatchSize];
+        double[] xs = new double[maxBatchSize * inputSize];
+        double[] ys = new double[maxBatchSize * outputSize];
+
+        while (running) {
+            int count = 0;
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch[count++] = first;
+                long deadline = System.nanoTime() + windowNanos;
+                while (count < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch[count++] = next;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(batch[i].input, 0, xs, i * inputSize, inputSize);
+            }
+            try {
+                model.predict(xs, ys, count);
+            } catch (Throwable e) {
+                for (int i = 0; i < count; i++) {
+                    batch[i].result.completeExceptionally(e);
+                    batch[i] = null;
+                }
+                continue;
+            }
+            stats.recordBatch();
+            long now = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                double[] out = new double[outputSize];
+                System.arraycopy(ys, i * outputSize, out, 0, outputSize);
+                stats.recordRequest(now - batch[i].enqueuedNanos);
+                batch[i].result.complete(out);
+                batch[i] = null;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+    }
+}
\ No newline at end of file
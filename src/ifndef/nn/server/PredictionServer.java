@@ -0,0 +1,271 @@
+package ifndef.nn.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ifndef.nn.inference.InferenceModel;
+import ifndef.nn.inference.Predictor;
+import ifndef.nn.inference.QuantizedModel;
+import ifndef.nn.util.NetworkSerializer;
+import ifndef.nn.util.TrainedModel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Minimal HTTP front end for one or more trained models.
+ *
+ * GET /predict?model=NAME&amp;x=1.5   (comma-separated x for multi-input models)
+ * GET /stats                          per-model request count, batch size, throughput, p50/p99 latency
+ * GET /models                         loaded model names
+ *
+ * Each request runs on a virtual thread when the JDK provides them (21+), otherwise on a
+ * cached thread pool; single-point requests for the same model are coalesced by a {@link MicroBatcher}.
+ * A prediction that takes longer than {@link #REQUEST_TIMEOUT_SECONDS} is answered with 503.
+ * Outputs that are NaN or infinite are sent as JSON null.
+ */
+public class PredictionServer implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_BATCH = 64;
+    public static final long DEFAULT_WINDOW_MICROS = 200;
+    static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+    private final Map<String, MicroBatcher> batchers = new LinkedHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public PredictionServer(int port, Map<String, ? extends Predictor> models, int maxBatchSize, long windowMicros)
+            throws IOException {
+        for (Map.Entry<String, ? extends Predictor> entry : models.entrySet()) {
+            batchers.put(entry.getKey(),
+                    new MicroBatcher(entry.getKey(), entry.getValue(), maxBatchSize, windowMicros));
+        }
+        this.executor = createRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/predict", this::handlePredict);
+        server.createContext("/stats", this::handleStats);
+        server.createContext("/models", this::handleModels);
+        server.setExecutor(executor);
+    }
+
+    /** Virtual thread per task when available (JDK 21+), looked up reflectively so the build stays on 17. */
+    static ExecutorService createRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public LatencyStats getStats(String model) {
+        MicroBatcher batcher = batchers.get(model);
+        return batcher == null ? null : batcher.getStats();
+    }
+
+    private void handlePredict(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String name = query.get("model");
+        if (name == null && batchers.size() == 1) {
+            name = batchers.keySet().iterator().next();
+        }
+        MicroBatcher batcher = name == null ? null : batchers.get(name);
+        if (batcher == null) {
+            respond(exchange, 404, "{\"error\":\"unknown model\"}");
+            return;
+        }
+        String xParam = query.get("x");
+        if (xParam == null) {
+            respond(exchange, 400, "{\"error\":\"missing x\"}");
+            return;
+        }
+
+        double[] input;
+        try {
+            String[] parts = xParam.split(",");
+            input = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                input[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, "{\"error\":\"x must be numeric\"}");
+            return;
+        }
+
+        try {
+            double[] output = batcher.submit(input).get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            StringBuilder body = new StringBuilder("{\"model\":").append(jsonString(name)).append(",\"y\":[");
+            for (int i = 0; i < output.length; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                body.append(jsonNumber(output[i]));
+            }
+            respond(exchange, 200, body.append("]}").toString());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            respond(exchange, 400, error(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{\"error\":\"interrupted\"}");
+        } catch (TimeoutException e) {
+            respond(exchange, 503, "{\"error\":\"timed out\"}");
+        } catch (ExecutionException e) {
+            respond(exchange, 500, error(e.getCause()));
+        }
+    }
+
+    private static String error(Throwable e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return "{\"error\":" + jsonString(message) + "}";
+    }
+
+    /** JSON has no NaN or Infinity; such outputs are sent as null. */
+    static String jsonNumber(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    static String jsonString(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder("{");
+        boolean first = true;
+        for (Map.Entry<String, MicroBatcher> entry : batchers.entrySet()) {
+            if (!first) {
+                body.append(',');
+            }
+            first = false;
+            body.append(jsonString(entry.getKey())).append(':').append(entry.getValue().getStats().toJson());
+        }
+        respond(exchange, 200, body.append('}').toString());
+    }
+
+    private void handleModels(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder("[");
+        for (String name : batchers.keySet()) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            body.append(jsonString(name));
+        }
+        respond(exchange, 200, body.append(']').toString());
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        for (MicroBatcher batcher : batchers.values()) {
+            batcher.close();
+        }
+        executor.shutdown();
+    }
+
+    /** Loads an int8 .nnq model as is and compiles any other model file into an {@link InferenceModel}. */
+    static Predictor load(String file) {
+        if (file.endsWith(QuantizedModel.EXTENSION)) {
+            try {
+                return QuantizedModel.load(file);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error loading model: " + e.getMessage());
+                return null;
+            }
+        }
+        TrainedModel model = NetworkSerializer.load(file);
+        return model != null ? new InferenceModel(model) : null;
+    }
+
+    /**
+     * Usage: PredictionServer [--port N] [--batch N] [--window-us N] name=model.nnb [name=model.nnq ...]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int maxBatch = DEFAULT_MAX_BATCH;
+        long window = DEFAULT_WINDOW_MICROS;
+        Map<String, Predictor> models = new LinkedHashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch":
+                    maxBatch = Integer.parseInt(args[++i]);
+                    break;
+                case "--window-us":
+                    window = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    int eq = args[i].indexOf('=');
+                    String name = eq > 0 ? args[i].substring(0, eq) : args[i].replaceFirst("\\.[^.]*$", "");
+                    String file = eq > 0 ? args[i].substring(eq + 1) : args[i];
+                    Predictor model = load(file);
+                    if (model == null) {
+                        System.err.println("Skipping " + file);
+                    } else {
+                        models.put(name, model);
+                    }
+            }
+        }
+        if (models.isEmpty()) {
+            System.err.println("Usage: PredictionServer [--port N] [--batch N] [--window-us N] name=model.nnb ...");
+            return;
+        }
+
+        PredictionServer server = new PredictionServer(port, models, maxBatch, window);
+        server.start();
+        System.out.println("Serving " + models.keySet() + " on http://localhost:" + server.getPort()
+                + " (batch <= " + maxBatch + ", window " + window + "us)");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ifndef.nn.telemetry;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("ifndef.nn.LayerGradient")
+@Label("Layer Gradient")
+@Category({"Neural Network", "Training"})
+@Description("Mean L2 norm over an epoch's steps of one layer's averaged gradient")
+@StackTrace(false)
+class LayerGradientEvent extends jdk.jfr.Event {
+
+    @Label("Trainer")
+    String trainer;
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Layer")
+    int layer;
+
+    @Label("Gradient Norm")
+    double norm;
+}
\ No newline at end of file
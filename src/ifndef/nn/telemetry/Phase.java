@@ -0,0 +1,20 @@
+package ifndef.nn.telemetry;
+
+/** Where a training step spends its time. */
+public enum Phase {
+
+    /** shuffling, packing and normalizing mini-batches */
+    DATA,
+
+    /** forward pass and loss */
+    FORWARD,
+
+    /** backward pass into the per-worker gradients */
+    BACKWARD,
+
+    /** summing and averaging the per-worker gradients */
+    REDUCE,
+
+    /** optimizer step on the parameters */
+    APPLY
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ifndef.nn.telemetry;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("ifndef.nn.TrainingEpoch")
+@Label("Training Epoch")
+@Category({"Neural Network", "Training"})
+@Description("One training epoch, with its time split by phase (summed over threads)")
+@StackTrace(false)
+class TrainingEpochEvent extends jdk.jfr.Event {
+
+    @Label("Trainer")
+    String trainer;
+
+    @Label("Epoch")
+    int epoch;
+
+    @Label("Loss")
+    double loss;
+
+    @Label("Validation Loss")
+    double validationLoss;
+
+    @Label("Samples per Second")
+    double samplesPerSecond;
+
+    @Label("Data")
+    @Timespan
+    long data;
+
+    @Label("Forward")
+    @Timespan
+    long forward;
+
+    @Label("Backward")
+    @Timespan
+    long backward;
+
+    @Label("Reduce")
+    @Timespan
+    long reduce;
+
+    @Label("Apply")
+    @Timespan
+    long apply;
+
+    @Label("Allocated per Step")
+    @DataAmount
+    long allocatedPerStep;
+}
\ No newline at end of file
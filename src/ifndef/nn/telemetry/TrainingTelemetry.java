@@ -0,0 +1,362 @@
+package ifndef.nn.telemetry;
+
+import ifndef.nn.core.GradientPackage;
+import ifndef.nn.core.Layer;
+import ifndef.nn.core.NeuralNetwork;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live metrics of one trainer: time per {@link Phase}, samples/sec, loss, allocation per step
+ * and per-layer gradient norms. Published as the JMX MBean {@code ifndef.nn:type=Trainer,name=...}
+ * and as the JFR events {@code ifndef.nn.TrainingEpoch} and {@code ifndef.nn.LayerGradient}.
+ * <p>
+ * Phase times are wall-clock time summed over every thread that spends it. Allocation only counts
+ * the threads the trainer marks with {@link #trackCurrentThread()}. Per step the cost is
+ * a {@code System.nanoTime()} per phase and one pass over the averaged gradient for the norms.
+ * Disabled (JMX {@code Enabled}, or {@code -Difndef.nn.telemetry=false}), every per-step hook
+ * returns after one volatile read; loss and samples/sec are still updated once per epoch.
+ */
+public final class TrainingTelemetry implements TrainingTelemetryMBean {
+
+    public static final String ENABLED_PROPERTY = "ifndef.nn.telemetry";
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String name;
+    private final int[] layerOffsets;
+    private final LongAdder[] phaseNanos = new LongAdder[PHASES.length];
+    private volatile boolean enabled = Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    private ObjectName objectName;
+
+    // Written once per step by whichever thread holds the averaged gradient; steps are ordered by the trainer
+    private final double[] normSums;
+    private int normSteps;
+    private int epochSteps;
+    private volatile long steps;
+
+    // Ids of the live threads working for this trainer, and the final counts of those that stopped
+    private final Set<Long> threadIds = ConcurrentHashMap.newKeySet();
+    private final LongAdder finishedAllocated = new LongAdder();
+
+    // Epoch start snapshot, owned by the thread running the epoch bookkeeping
+    private final long[] epochStartPhase = new long[PHASES.length];
+    private long epochStartNanos;
+    private long epochStartAllocated;
+    private TrainingEpochEvent epochEvent;
+
+    private volatile int epoch;
+    private volatile double loss = Double.NaN;
+    private volatile double validationLoss = Double.NaN;
+    private volatile double samplesPerSecond;
+    private volatile double allocatedBytesPerStep;
+    private volatile double[] layerGradientNorms = new double[0];
+
+    public TrainingTelemetry(NeuralNetwork network) {
+        this("trainer-" + COUNTER.incrementAndGet(), network);
+    }
+
+    public TrainingTelemetry(String name, NeuralNetwork network) {
+        this.name = name;
+        List<Layer> layers = network.getLayers();
+        this.layerOffsets = new int[layers.size() + 1];
+        for (int i = 0; i < layers.size(); i++) {
+            layerOffsets[i + 1] = layerOffsets[i] + layers.get(i).getParameterCount();
+        }
+        this.normSums = new double[layers.size()];
+        for (int p = 0; p < PHASES.length; p++) {
+            phaseNanos[p] = new LongAdder();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Registers the MBean with the platform MBean server; failures are reported and ignored. */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("ifndef.nn:type=Trainer,name=" + name);
+            server.registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch (JMException e) {
+            System.err.println("Could not register training telemetry: " + e.getMessage());
+        }
+    }
+
+    public void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            System.err.println("Could not unregister training telemetry: " + e.getMessage());
+        }
+        objectName = null;
+    }
+
+    /** Counts the calling thread's allocations towards this trainer until {@link #untrackCurrentThread()}. */
+    public void trackCurrentThread() {
+        threadIds.add(Thread.currentThread().getId());
+    }
+
+    /** Stops counting the calling thread but keeps what it has allocated; call before the thread exits. */
+    public void untrackCurrentThread() {
+        long id = Thread.currentThread().getId();
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        if (threadIds.contains(id) && threads != null) {
+            finishedAllocated.add(threads.getThreadAllocatedBytes(id));
+        }
+        threadIds.remove(id);
+    }
+
+    /** Timestamp to pass to {@link #lap}, or 0 when disabled. */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /** Adds the time since {@code since} to {@code phase} and returns the new timestamp (0 stays 0). */
+    public long lap(Phase phase, long since) {
+        if (since == 0L) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()].add(now - since);
+        return now;
+    }
+
+    /** Adds {@code nanos} timed by the caller to {@code phase}; ignored when disabled. */
+    public void record(Phase phase, long nanos) {
+        if (enabled) {
+            phaseNanos[phase.ordinal()].add(nanos);
+        }
+    }
+
+    /** Counts one optimizer step and, when enabled, the per-layer norms of its averaged gradient. */
+    public void recordStep(GradientPackage gradients) {
+        steps++;
+        epochSteps++;
+        if (!enabled) {
+            return;
+        }
+        double[] values = gradients.getValues();
+        for (int l = 0; l < normSums.length; l++) {
+            double sum = 0.0;
+            for (int i = layerOffsets[l]; i < layerOffsets[l + 1]; i++) {
+                sum += values[i] * values[i];
+            }
+            normSums[l] += Math.sqrt(sum);
+        }
+        normSteps++;
+    }
+
+    public void beginEpoch(int epoch) {
+        epochStartNanos = System.nanoTime();
+        epochStartAllocated = enabled ? allocatedBytes() : -1L;
+        for (int p = 0; p < PHASES.length; p++) {
+            epochStartPhase[p] = phaseNanos[p].sum();
+        }
+        epochSteps = 0;
+        normSteps = 0;
+        Arrays.fill(normSums, 0.0);
+        epochEvent = new TrainingEpochEvent();
+        epochEvent.begin();
+    }
+
+    /** {@code validationLoss} is NaN on epochs without a validation check. */
+    public void endEpoch(int epoch, int samples, double loss, double validationLoss) {
+        double seconds = (System.nanoTime() - epochStartNanos) / 1_000_000_000.0;
+        this.samplesPerSecond = seconds > 0 ? samples / seconds : 0.0;
+        this.loss = loss;
+        if (!Double.isNaN(validationLoss)) {
+            this.validationLoss = validationLoss;
+        }
+        if (epochStartAllocated >= 0 && epochSteps > 0) {
+            long allocated = allocatedBytes();
+            if (allocated >= 0) {
+                // A thread stopping while this is read may be counted twice or not at all for a moment
+                this.allocatedBytesPerStep = (double) Math.max(0L, allocated - epochStartAllocated) / epochSteps;
+            }
+        }
+        if (normSteps > 0) {
+            double[] norms = new double[normSums.length];
+            for (int l = 0; l < norms.length; l++) {
+                norms[l] = normSums[l] / normSteps;
+            }
+            this.layerGradientNorms = norms;
+        }
+        this.epoch = epoch;
+        commitEvents(epoch);
+    }
+
+    private void commitEvents(int epoch) {
+        TrainingEpochEvent event = epochEvent;
+        if (event != null && event.shouldCommit()) {
+            event.trainer = name;
+            event.epoch = epoch;
+            event.loss = loss;
+            event.validationLoss = validationLoss;
+            event.samplesPerSecond = samplesPerSecond;
+            event.data = epochNanos(Phase.DATA);
+            event.forward = epochNanos(Phase.FORWARD);
+            event.backward = epochNanos(Phase.BACKWARD);
+            event.reduce = epochNanos(Phase.REDUCE);
+            event.apply = epochNanos(Phase.APPLY);
+            event.allocatedPerStep = (long) allocatedBytesPerStep;
+            event.commit();
+        }
+        epochEvent = null;
+
+        if (normSteps == 0) {
+            return;
+        }
+        double[] norms = layerGradientNorms;
+        for (int l = 0; l < norms.length; l++) {
+            LayerGradientEvent layerEvent = new LayerGradientEvent();
+            if (!layerEvent.isEnabled()) {
+                return;
+            }
+            layerEvent.trainer = name;
+            layerEvent.epoch = epoch;
+            layerEvent.layer = l;
+            layerEvent.norm = norms[l];
+            layerEvent.commit();
+        }
+    }
+
+    private long epochNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum() - epochStartPhase[phase.ordinal()];
+    }
+
+    /** Bytes allocated so far by the tracked threads, or -1 if the JVM cannot tell. */
+    long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        if (threads == null) {
+            return -1L;
+        }
+        long total = finishedAllocated.sum();
+        long[] ids = threadIds.stream().mapToLong(Long::longValue).toArray();
+        for (long bytes : threads.getThreadAllocatedBytes(ids)) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /** The per-thread allocation counter, or null if this JVM does not have one switched on. */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        return hotspot;
+    }
+
+    public double getPhaseSeconds(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum() / 1_000_000_000.0;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public int getEpoch() {
+        return epoch;
+    }
+
+    @Override
+    public long getSteps() {
+        return steps;
+    }
+
+    @Override
+    public double getLoss() {
+        return loss;
+    }
+
+    @Override
+    public double getValidationLoss() {
+        return validationLoss;
+    }
+
+    @Override
+    public double getSamplesPerSecond() {
+        return samplesPerSecond;
+    }
+
+    @Override
+    public double getDataSeconds() {
+        return getPhaseSeconds(Phase.DATA);
+    }
+
+    @Override
+    public double getForwardSeconds() {
+        return getPhaseSeconds(Phase.FORWARD);
+    }
+
+    @Override
+    public double getBackwardSeconds() {
+        return getPhaseSeconds(Phase.BACKWARD);
+    }
+
+    @Override
+    public double getReduceSeconds() {
+        return getPhaseSeconds(Phase.REDUCE);
+    }
+
+    @Override
+    public double getApplySeconds() {
+        return getPhaseSeconds(Phase.APPLY);
+    }
+
+    @Override
+    public double getAllocatedBytesPerStep() {
+        return allocatedBytesPerStep;
+    }
+
+    @Override
+    public double[] getLayerGradientNorms() {
+        return layerGradientNorms.clone();
+    }
+
+    @Override
+    public String toString() {
+        double total = 0.0;
+        for (Phase phase : PHASES) {
+            total += getPhaseSeconds(phase);
+        }
+        StringBuilder text = new StringBuilder("Phase time -");
+        for (Phase phase : PHASES) {
+            double seconds = getPhaseSeconds(phase);
+            text.append(String.format(" %s: %.3fs (%.1f%%),", phase.name().toLowerCase(), seconds,
+                    total == 0 ? 0.0 : 100.0 * seconds / total));
+        }
+        text.setLength(text.length() - 1);
+        return text.append(String.format(" | last epoch %.0f samples/s", samplesPerSecond)).toString();
+    }
+}
\ No newline at end of file
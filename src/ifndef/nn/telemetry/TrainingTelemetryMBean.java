@@ -0,0 +1,33 @@
+package ifndef.nn.telemetry;
+
+/** JMX view of a {@link TrainingTelemetry}. Phase times are cumulative over the trainer's life. */
+public interface TrainingTelemetryMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    int getEpoch();
+
+    long getSteps();
+
+    double getLoss();
+
+    double getValidationLoss();
+
+    double getSamplesPerSecond();
+
+    double getDataSeconds();
+
+    double getForwardSeconds();
+
+    double getBackwardSeconds();
+
+    double getReduceSeconds();
+
+    double getApplySeconds();
+
+    double getAllocatedBytesPerStep();
+
+    double[] getLayerGradientNorms();
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package ifndef.nn.training;
+
+import ifndef.nn.telemetry.Phase;
+import ifndef.nn.telemetry.TrainingTelemetry;
+import ifndef.nn.util.DataNormalizer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Background stage that shuffles the training set at each epoch boundary and packs upcoming
+ * mini-batches, split into per-worker parts and normalized, into a fixed ring of reusable
+ * {@link PackedBatch} slots while the trainer computes the current one. Memory is bounded by
+ * {@code depth} slots; the producer blocks when every slot is filled and not yet released.
+ */
+class BatchPrefetcher implements AutoCloseable {
+
+    /** One mini-batch, pre-split into at most {@code parts} row-major sub-batches. */
+    static final class PackedBatch {
+        final double[][] inputs;
+        final double[][] targets;
+        final int[] rows;
+        int parts;
+        int totalRows;
+
+        PackedBatch(int maxParts, int partCapacity, int inputSize, int outputSize) {
+            this.inputs = new double[maxParts][partCapacity * inputSize];
+            this.targets = new double[maxParts][partCapacity * outputSize];
+            this.rows = new int[maxParts];
+        }
+    }
+
+    private static final PackedBatch END = new PackedBatch(0, 0, 0, 0);
+
+    private final Dataset dataset;
+    private final EpochShuffle shuffle;
+    private final int firstEpoch;
+    private final int epochs;
+    private final int batchSize;
+    private final int maxParts;
+    private final DataNormalizer inputNormalizer;
+    private final DataNormalizer outputNormalizer;
+    private final BlockingQueue<PackedBatch> free;
+    private final BlockingQueue<PackedBatch> ready;
+    private final PrefetchStats stats = new PrefetchStats();
+    private final TrainingTelemetry telemetry;
+    private final Thread producer;
+    private volatile Throwable failure;
+
+    BatchPrefetcher(Dataset dataset, EpochShuffle shuffle, int firstEpoch, int epochs, int batchSize, int maxParts,
+                    int depth, DataNormalizer inputNormalizer, DataNormalizer outputNormalizer,
+                    TrainingTelemetry telemetry) {
+        this.dataset = dataset;
+        this.shuffle = shuffle;
+        this.firstEpoch = firstEpoch;
+        this.epochs = epochs;
+        this.batchSize = batchSize;
+        this.maxParts = maxParts;
+        this.inputNormalizer = inputNormalizer;
+        this.outputNormalizer = outputNormalizer;
+        this.telemetry = telemetry;
+        this.free = new ArrayBlockingQueue<>(depth);
+        this.ready = new ArrayBlockingQueue<>(depth + 1);
+
+        int partCapacity = (int) Math.ceil((double) Math.min(batchSize, dataset.size()) / maxParts);
+        for (int i = 0; i < depth; i++) {
+            free.add(new PackedBatch(maxParts, partCapacity, dataset.getInputSize(), dataset.getOutputSize()));
+        }
+        this.producer = new Thread(this::produce, "batch-prefetch");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    private void produce() {
+        int size = dataset.size();
+        telemetry.trackCurrentThread();
+        try {
+            for (int epoch = firstEpoch; epoch <= epochs; epoch++) {
+                shuffle.shuffle(epoch);
+                for (int from = 0; from < size; from += batchSize) {
+                    PackedBatch batch = free.take();
+                    long start = System.nanoTime();
+                    pack(batch, from, Math.min(from + batchSize, size));
+                    long packTime = System.nanoTime() - start;
+                    stats.recordBatch(packTime);
+                    telemetry.record(Phase.DATA, packTime);
+                    ready.put(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        } finally {
+            telemetry.untrackCurrentThread();
+        }
+        ready.offer(END);
+    }
+
+    private void pack(PackedBatch batch, int from, int to) {
+        int rows = to - from;
+        int partSize = (int) Math.ceil((double) rows / maxParts);
+        int parts = (int) Math.ceil((double) rows / partSize);
+        for (int p = 0; p < parts; p++) {
+            int pFrom = from + p * partSize;
+            int pTo = Math.min(pFrom + partSize, to);
+            dataset.copyBatch(pFrom, pTo, batch.inputs[p], batch.targets[p], inputNormalizer, outputNormalizer);
+            batch.rows[p] = pTo - pFrom;
+        }
+        batch.parts = parts;
+        batch.totalRows = rows;
+    }
+
+    /** Next packed batch in training order; blocks (and counts a stall) if it is not ready yet. */
+    PackedBatch next() throws InterruptedException {
+        PackedBatch batch = ready.poll();
+        if (batch == null) {
+            long start = System.nanoTime();
+            batch = ready.take();
+            stats.recordStall(System.nanoTime() - start);
+        }
+        if (batch == END) {
+            ready.offer(END);
+            if (failure != null) {
+                throw new IllegalStateException("Batch prefetch failed", failure);
+            }
+            throw new IllegalStateException("No more batches.");
+        }
+        return batch;
+    }
+
+    /** Hands a consumed slot back to the producer. */
+    void release(PackedBatch batch) {
+        free.add(batch);
+    }
+
+    PrefetchStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        producer.interrupt();
+    }
+}
\ No newline at end of file
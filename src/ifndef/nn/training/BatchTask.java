@@ -1,43 +1,107 @@
 package ifndef.nn.training;
 
-import ifndef.nn.core.GradientPackage;
+import ifndef.nn.core.ExecutionContext;
 import ifndef.nn.core.NeuralNetwork;
 import ifndef.nn.loss.LossFunction;
+import ifndef.nn.telemetry.Phase;
+import ifndef.nn.telemetry.TrainingTelemetry;
+import ifndef.nn.util.DataNormalizer;
 
-import java.util.List;
 import java.util.concurrent.Callable;
 
 public class BatchTask implements Callable<BatchTaskResult> {
 
     private final NeuralNetwork network;
     private final LossFunction lossFunction;
-    private final List<DataPoint> subBatch;
+    private final double[] inputs;
+    private final double[] targets;
+    private final int rows;
+    private final ExecutionContext context;
+    private final GradientReducer reducer;
+    private final int worker;
+    private final TrainingTelemetry telemetry;
 
-    public BatchTask(NeuralNetwork network, LossFunction lossFunction, List<DataPoint> subBatch) {
+    /**
+     * Task over a sub-batch that is already packed row-major by the prefetch pipeline. Reports its
+     * phase times to {@code telemetry} (may be null).
+     */
+    public BatchTask(NeuralNetwork network, LossFunction lossFunction, double[] inputs, double[] targets, int rows,
+                     ExecutionContext context, GradientReducer reducer, int worker, TrainingTelemetry telemetry) {
         this.network = network;
         this.lossFunction = lossFunction;
-        this.subBatch = subBatch;
+        this.inputs = inputs;
+        this.targets = targets;
+        this.rows = rows;
+        this.context = context;
+        this.reducer = reducer;
+        this.worker = worker;
+        this.telemetry = telemetry;
     }
 
     @Override
     public BatchTaskResult call() throws Exception {
+        if (reducer == null) {
+            return compute();
+        }
+        try {
+            return compute();
+        } finally {
+            // Always publish, even on failure, so tree partners never wait forever
+            long start = telemetry != null ? telemetry.start() : 0L;
+            reducer.contribute(worker, context.getGradients());
+            if (telemetry != null) {
+                telemetry.lap(Phase.REDUCE, start);
+            }
+        }
+    }
 
-        List<GradientPackage> totalGradients = network.createEmptyGradientsList();
-        double totalLoss = 0.0;
-
-        for (DataPoint dp : subBatch) {
-            double[] predictions = network.predict(dp.getInputs());
+    private BatchTaskResult compute() {
+        context.clearGradients();
+        double totalLoss = accumulateGradients(network, lossFunction, inputs, targets, rows, context, telemetry);
+        return new BatchTaskResult(context.getGradients(), totalLoss);
+    }
 
-            totalLoss += lossFunction.compute(predictions, dp.getTargets());
-            double[] lossGradient = lossFunction.derivative(predictions, dp.getTargets());
+    /**
+     * Packs samples [from, to) into the context's batch matrices, runs one batched forward and
+     * backward pass and adds the resulting gradients to the context. Returns the summed loss.
+     */
+    static double accumulateGradients(NeuralNetwork network, LossFunction lossFunction, Dataset samples,
+                                      int from, int to, DataNormalizer inputNormalizer,
+                                      DataNormalizer outputNormalizer, ExecutionContext context,
+                                      TrainingTelemetry telemetry) {
+        long start = telemetry != null ? telemetry.start() : 0L;
+        context.ensureBatchCapacity(to - from);
+        double[] inputs = context.getBatchInputs();
+        double[] targets = context.getBatchTargets();
+        samples.copyBatch(from, to, inputs, targets, inputNormalizer, outputNormalizer);
+        if (telemetry != null) {
+            telemetry.lap(Phase.DATA, start);
+        }
+        return accumulateGradients(network, lossFunction, inputs, targets, to - from, context, telemetry);
+    }
 
-            List<GradientPackage> sampleGradients = network.backward(lossGradient);
+    /**
+     * Batched forward and backward pass over {@code rows} packed samples. Returns the summed loss.
+     * {@code telemetry} may be null.
+     */
+    static double accumulateGradients(NeuralNetwork network, LossFunction lossFunction, double[] inputs,
+                                      double[] targets, int rows, ExecutionContext context,
+                                      TrainingTelemetry telemetry) {
+        long start = telemetry != null ? telemetry.start() : 0L;
+        int outputSize = network.getOutputSize();
+        context.ensureBatchCapacity(rows);
+        double[] lossGradient = context.getBatchLossGradient();
 
-            for (int i = 0; i < totalGradients.size(); i++) {
-                totalGradients.get(i).add(sampleGradients.get(i));
-            }
+        double[] predictions = network.predictBatch(inputs, rows, context);
+        double totalLoss = lossFunction.computeBatch(predictions, targets, rows, outputSize, lossGradient);
+        if (telemetry != null) {
+            start = telemetry.lap(Phase.FORWARD, start);
+        }
+        network.backwardBatch(lossGradient, rows, context);
+        if (telemetry != null) {
+            telemetry.lap(Phase.BACKWARD, start);
         }
 
-        return new BatchTaskResult(totalGradients, totalLoss);
+        return totalLoss;
     }
 }
\ No newline at end of file
@@ -0,0 +1,323 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.Layer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.optimizer.LearningRateSchedule;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.util.DataNormalizer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Everything needed to continue a training run: the weights, the optimizer's state, the last
+ * completed epoch, the shuffle seed (which fixes every later epoch's order), the normalizers,
+ * the learning-rate schedule's progress and the early-stopping best so far. Little-endian layout:
+ *
+ * <pre>
+ * int    magic 'NNCK', int version
+ * int    epoch, long seed
+ * int    layer count, then per layer: int inputSize, int outputSize
+ * int    parameter count
+ * per normalizer, input then output:
+ *        int feature count (-1 = none, 0 = one shared range), then min, max for each range
+ * int    optimizer name length, byte[] UTF-8 optimizer class name, long step count, int state array count
+ * int    schedule state length, double[] schedule state
+ * double best validation loss, int bad checks, int 1 if best parameters follow
+ * zero padding to an 8-byte boundary
+ * double[parameter count] parameters, then each optimizer state array, then the best parameters
+ * </pre>
+ *
+ * Files are written next to the target and atomically renamed over it once forced to disk, so
+ * a crash leaves either the previous checkpoint or the new one.
+ */
+public final class Checkpoint {
+
+    private static final int MAGIC = 0x4B434E4E; // "NNCK" read little-endian
+    private static final int VERSION = 1;
+    private static final int CHUNK = 64 * 1024;
+
+    private int epoch;
+    private long seed;
+    private int[] layerShapes;
+    private double[] parameters;
+    private String optimizerName;
+    private long stepCount;
+    private double[][] optimizerState;
+    private double[] scheduleState;
+    private double bestLoss;
+    private int badChecks;
+    private double[] bestParameters;
+    private DataNormalizer inputNormalizer;
+    private DataNormalizer outputNormalizer;
+
+    Checkpoint(long seed, DataNormalizer inputNormalizer, DataNormalizer outputNormalizer) {
+        this.seed = seed;
+        this.inputNormalizer = inputNormalizer;
+        this.outputNormalizer = outputNormalizer;
+    }
+
+    private Checkpoint() {
+    }
+
+    /** Last completed epoch; training resumes with the one after it. */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public DataNormalizer getInputNormalizer() {
+        return inputNormalizer;
+    }
+
+    public DataNormalizer getOutputNormalizer() {
+        return outputNormalizer;
+    }
+
+    double getBestLoss() {
+        return bestLoss;
+    }
+
+    int getBadChecks() {
+        return badChecks;
+    }
+
+    double[] getBestParameters() {
+        return bestParameters;
+    }
+
+    double[] getScheduleState() {
+        return scheduleState;
+    }
+
+    /** Copies the live training state in; arrays are allocated on the first call and reused afterwards. */
+    void capture(int epoch, NeuralNetwork network, Optimizer optimizer, LearningRateSchedule schedule,
+                 double bestLoss, int badChecks, double[] bestParameters) {
+        this.epoch = epoch;
+        if (layerShapes == null) {
+            List<Layer> layers = network.getLayers();
+            layerShapes = new int[layers.size() * 2];
+            for (int i = 0; i < layers.size(); i++) {
+                layerShapes[2 * i] = layers.get(i).getInputSize();
+                layerShapes[2 * i + 1] = layers.get(i).getOutputSize();
+            }
+            optimizerName = optimizer.getClass().getName();
+        }
+        parameters = copy(network.getParameters(), parameters);
+
+        double[][] state = optimizer.getState();
+        if (optimizerState == null || optimizerState.length != state.length) {
+            optimizerState = new double[state.length][];
+        }
+        for (int s = 0; s < state.length; s++) {
+            optimizerState[s] = copy(state[s], optimizerState[s]);
+        }
+        stepCount = optimizer.getStepCount();
+
+        scheduleState = schedule != null ? schedule.getState() : new double[0];
+        this.bestLoss = bestLoss;
+        this.badChecks = badChecks;
+        this.bestParameters = bestParameters != null ? copy(bestParameters, this.bestParameters) : null;
+    }
+
+    private static double[] copy(double[] source, double[] target) {
+        if (target == null || target.length != source.length) {
+            target = new double[source.length];
+        }
+        System.arraycopy(source, 0, target, 0, source.length);
+        return target;
+    }
+
+    /** Copies the saved weights and optimizer state into a network and optimizer of the same shape and kind. */
+    void restore(NeuralNetwork network, Optimizer optimizer) {
+        List<Layer> layers = network.getLayers();
+        boolean sameShape = layers.size() * 2 == layerShapes.length;
+        for (int i = 0; sameShape && i < layers.size(); i++) {
+            sameShape = layers.get(i).getInputSize() == layerShapes[2 * i]
+                    && layers.get(i).getOutputSize() == layerShapes[2 * i + 1];
+        }
+        if (!sameShape || network.getParameterCount() != parameters.length) {
+            throw new IllegalArgumentException("Checkpoint layer shapes do not match the network.");
+        }
+        double[][] state = optimizer.getState();
+        if (!optimizer.getClass().getName().equals(optimizerName) || state.length != optimizerState.length) {
+            throw new IllegalArgumentException("Checkpoint was written with " + optimizerName + ", not "
+                    + optimizer.getClass().getName() + ".");
+        }
+        System.arraycopy(parameters, 0, network.getParameters(), 0, parameters.length);
+        for (int s = 0; s < state.length; s++) {
+            System.arraycopy(optimizerState[s], 0, state[s], 0, state[s].length);
+        }
+        optimizer.setStepCount(stepCount);
+    }
+
+    /** Writes to {@code filename}.tmp, forces it to disk and renames it over {@code filename}. */
+    void write(String filename) throws IOException {
+        Path target = Paths.get(filename);
+        Path temporary = Paths.get(filename + ".tmp");
+        byte[] name = optimizerName.getBytes(StandardCharsets.UTF_8);
+        int headerSize = 2 * 4 + 4 + 8 + 4 + layerShapes.length * 4 + 4
+                + normalizerSize(inputNormalizer) + normalizerSize(outputNormalizer)
+                + 4 + name.length + 8 + 4 + 4 + scheduleState.length * 8 + 8 + 4 + 4;
+        int paddedHeaderSize = (headerSize + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(paddedHeaderSize).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putInt(epoch).putLong(seed);
+        header.putInt(layerShapes.length / 2);
+        for (int shape : layerShapes) {
+            header.putInt(shape);
+        }
+        header.putInt(parameters.length);
+        writeNormalizer(header, inputNormalizer);
+        writeNormalizer(header, outputNormalizer);
+        header.putInt(name.length).put(name).putLong(stepCount).putInt(optimizerState.length);
+        header.putInt(scheduleState.length);
+        for (double value : scheduleState) {
+            header.putDouble(value);
+        }
+        header.putDouble(bestLoss).putInt(badChecks).putInt(bestParameters != null ? 1 : 0);
+        header.position(paddedHeaderSize).flip();
+
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            writeDoubles(channel, chunk, parameters);
+            for (double[] state : optimizerState) {
+                writeDoubles(channel, chunk, state);
+            }
+            if (bestParameters != null) {
+                writeDoubles(channel, chunk, bestParameters);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer chunk, double[] values) throws IOException {
+        for (int from = 0; from < values.length; ) {
+            int count = Math.min(values.length - from, CHUNK / 8);
+            chunk.clear();
+            chunk.asDoubleBuffer().put(values, from, count);
+            chunk.limit(count * 8);
+            while (chunk.hasRemaining()) {
+                channel.write(chunk);
+            }
+            from += count;
+        }
+    }
+
+    private static int normalizerSize(DataNormalizer normalizer) {
+        return 4 + (normalizer == null ? 0 : normalizer.getFeatureCount() * 2 * 8);
+    }
+
+    private static void writeNormalizer(ByteBuffer buffer, DataNormalizer normalizer) {
+        if (normalizer == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(normalizer.isPerFeature() ? normalizer.getFeatureCount() : 0);
+        for (int f = 0; f < normalizer.getFeatureCount(); f++) {
+            buffer.putDouble(normalizer.getDataMin(f)).putDouble(normalizer.getDataMax(f));
+        }
+    }
+
+    private static DataNormalizer readNormalizer(ByteBuffer buffer) {
+        int features = buffer.getInt();
+        if (features < 0) {
+            return null;
+        }
+        if (features == 0) {
+            return new DataNormalizer(buffer.getDouble(), buffer.getDouble());
+        }
+        double[] min = new double[features];
+        double[] max = new double[features];
+        for (int f = 0; f < features; f++) {
+            min[f] = buffer.getDouble();
+            max[f] = buffer.getDouble();
+        }
+        return new DataNormalizer(min, max);
+    }
+
+    public static Checkpoint read(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    private static Checkpoint read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint file (bad magic number).");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ".");
+        }
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.epoch = buffer.getInt();
+        checkpoint.seed = buffer.getLong();
+        checkpoint.layerShapes = new int[buffer.getInt() * 2];
+        for (int i = 0; i < checkpoint.layerShapes.length; i++) {
+            checkpoint.layerShapes[i] = buffer.getInt();
+        }
+        int parameterCount = buffer.getInt();
+        checkpoint.inputNormalizer = readNormalizer(buffer);
+        checkpoint.outputNormalizer = readNormalizer(buffer);
+
+        byte[] name = new byte[buffer.getInt()];
+        buffer.get(name);
+        checkpoint.optimizerName = new String(name, StandardCharsets.UTF_8);
+        checkpoint.stepCount = buffer.getLong();
+        int stateArrays = buffer.getInt();
+        checkpoint.scheduleState = new double[buffer.getInt()];
+        for (int i = 0; i < checkpoint.scheduleState.length; i++) {
+            checkpoint.scheduleState[i] = buffer.getDouble();
+        }
+        checkpoint.bestLoss = buffer.getDouble();
+        checkpoint.badChecks = buffer.getInt();
+        boolean hasBest = buffer.getInt() != 0;
+        buffer.position((buffer.position() + 7) & ~7);
+
+        long expected = (long) parameterCount * 8 * (1 + stateArrays + (hasBest ? 1 : 0));
+        if (buffer.remaining() != expected) {
+            throw new IOException("Checkpoint is truncated: expected " + expected + " bytes of parameters, found "
+                    + buffer.remaining() + ".");
+        }
+        checkpoint.parameters = readDoubles(buffer, parameterCount);
+        checkpoint.optimizerState = new double[stateArrays][];
+        for (int s = 0; s < stateArrays; s++) {
+            checkpoint.optimizerState[s] = readDoubles(buffer, parameterCount);
+        }
+        checkpoint.bestParameters = hasBest ? readDoubles(buffer, parameterCount) : null;
+        return checkpoint;
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+}
\ No newline at end of file
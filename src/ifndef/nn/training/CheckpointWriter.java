@@ -0,0 +1,113 @@
+package ifndef.nn.training;
+
+import ifndef.nn.util.DataNormalizer;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Background stage that writes {@link Checkpoint}s so training never waits for the disk. There
+ * is one spare checkpoint: the training thread copies its state into it and moves on, and the
+ * writer thread encodes and stores it. A checkpoint that comes due while the previous one is
+ * still being written is skipped rather than waited for, except the final one.
+ */
+class CheckpointWriter implements AutoCloseable {
+
+    private static final Checkpoint END = new Checkpoint(0L, null, null);
+
+    private final String filename;
+    private final int interval;
+    private final BlockingQueue<Checkpoint> free = new ArrayBlockingQueue<>(1);
+    private final BlockingQueue<Checkpoint> pending = new ArrayBlockingQueue<>(2);
+    private final Thread writer;
+    private volatile int written;
+    private volatile int lastEpoch;
+    private int skipped;
+    private boolean failed;
+    private boolean closed;
+
+    CheckpointWriter(String filename, int interval, long seed, DataNormalizer inputNormalizer,
+                     DataNormalizer outputNormalizer) {
+        this.filename = filename;
+        this.interval = interval;
+        this.free.add(new Checkpoint(seed, inputNormalizer, outputNormalizer));
+        this.writer = new Thread(this::write, "checkpoint-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                Checkpoint checkpoint = pending.take();
+                if (checkpoint == END) {
+                    return;
+                }
+                try {
+                    checkpoint.write(filename);
+                    lastEpoch = checkpoint.getEpoch();
+                    written++;
+                } catch (IOException | RuntimeException e) {
+                    if (!failed) {
+                        System.err.println("Error writing checkpoint: " + e.getMessage());
+                        failed = true;
+                    }
+                } finally {
+                    // Even on an Error, so the final acquire(true) never waits on a dead writer
+                    free.add(checkpoint);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isDue(int epoch) {
+        return epoch % interval == 0;
+    }
+
+    /**
+     * The spare checkpoint to capture into, or null (counted as skipped) while it is still being
+     * written. With {@code wait} the caller blocks until it is free instead.
+     */
+    Checkpoint acquire(boolean wait) {
+        Checkpoint checkpoint = free.poll();
+        if (checkpoint == null && wait) {
+            try {
+                checkpoint = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (checkpoint == null) {
+            skipped++;
+        }
+        return checkpoint;
+    }
+
+    void submit(Checkpoint checkpoint) {
+        pending.add(checkpoint);
+    }
+
+    /** Waits for the checkpoint being written, if any, then stops the writer thread. Safe to call twice. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pending.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Checkpoints - %d written to %s (last after epoch %d), %d skipped while writing",
+                written, filename, lastEpoch, skipped);
+    }
+}
\ No newline at end of file
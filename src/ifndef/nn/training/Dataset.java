@@ -1,71 +1,509 @@
 package ifndef.nn.training;
 
+import ifndef.nn.util.DataNormalizer;
+import ifndef.nn.util.ScalarFunction;
+import ifndef.nn.util.VectorFunction;
+
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
+/**
+ * Training samples held column-wise in a {@link SampleStore} (primitive arrays on the heap, or a
+ * memory-mapped {@link DatasetFile}) and visited through a permuted index. Shuffling only
+ * reorders the index, and {@link #copyBatch} gathers a batch straight into packed matrices,
+ * so no per-sample objects exist during training. Samples may have any number of inputs and outputs.
+ */
 public class Dataset implements Serializable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
-    private final List<DataPoint> data;
-    
-    private transient Function<Double, Double> targetFunction;
+    // Fixed work unit for generation: each chunk owns one split of the seed's random stream,
+    // so the output depends only on the seed, never on how many threads ran the chunks
+    private static final int GENERATION_CHUNK = 4096;
+    private static final int MAX_RETRIES = 10_000;
+    private static final int STRATUM_RETRIES = 8;
+
+    // Halton bases for LOW_DISCREPANCY, one prime per input dimension
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53,
+            59, 61, 67, 71, 73, 79, 83, 89, 97, 101, 103, 107, 109, 113, 127, 131};
+
+    private SampleStore store;  // A mapped store serializes as its file's path
+    private int[] order;
+    private int size;
+
+    private transient VectorFunction targetFunction;
+    private transient ScalarFunction scalarFunction;  // Set for 1 -> 1 functions; enables the bulk path
+    private final int functionInputs;
+    private final int functionOutputs;
 
     private double xMin = Double.POSITIVE_INFINITY;
     private double xMax = Double.NEGATIVE_INFINITY;
     private double yMin = Double.POSITIVE_INFINITY;
     private double yMax = Double.NEGATIVE_INFINITY;
 
-    public Dataset(Function<Double, Double> targetFunction) {
-        this.data = new ArrayList<>();
+    // Per-feature ranges of the samples, computed on demand
+    private double[] inputMin;
+    private double[] inputMax;
+    private double[] outputMin;
+    private double[] outputMax;
+
+    public Dataset(DoubleUnaryOperator targetFunction) {
+        this(targetFunction == null ? null : (in, out) -> out[0] = targetFunction.applyAsDouble(in[0]), 1, 1);
+        this.scalarFunction = ScalarFunction.of(targetFunction);
+    }
+
+    public Dataset(VectorFunction targetFunction, int inputSize, int outputSize) {
         this.targetFunction = targetFunction;
+        this.functionInputs = inputSize;
+        this.functionOutputs = outputSize;
+        this.order = new int[0];
     }
     
     public Dataset() {
-        this.data = new ArrayList<>();
-        this.targetFunction = null;
+        this((VectorFunction) null, 1, 1);
+    }
+
+    Dataset(SampleStore store, double xMin, double xMax, double yMin, double yMax) {
+        this((VectorFunction) null, store.getInputSize(), store.getOutputSize());
+        this.store = store;
+        this.size = store.size();
+        this.order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        this.xMin = xMin;
+        this.xMax = xMax;
+        this.yMin = yMin;
+        this.yMax = yMax;
     }
 
     public void generateData(int numSamples, double minX, double maxX) {
-        this.data.clear();
-        this.xMin = minX;
-        this.xMax = maxX;
-        this.yMin = Double.POSITIVE_INFINITY;
-        this.yMax = Double.NEGATIVE_INFINITY;
+        generateData(numSamples, minX, maxX, SamplingStrategy.UNIFORM, ThreadLocalRandom.current().nextLong());
+    }
+
+    public void generateData(int numSamples, double minX, double maxX, SamplingStrategy strategy, long seed) {
+        generateData(numSamples, new double[]{minX}, new double[]{maxX}, strategy, seed);
+    }
 
+    /**
+     * Samples the target function in parallel over the box [minX[d], maxX[d]] for every input d.
+     * Points where any output is NaN or infinite are redrawn (first within the same stratum for
+     * STRATIFIED). In more than one dimension STRATIFIED is a Latin hypercube and LOW_DISCREPANCY
+     * a shifted Halton sequence. The same seed and strategy always produce a bit-identical
+     * dataset, whatever the number of cores. Per-feature ranges are reduced in the same pass.
+     */
+    public void generateData(int numSamples, double[] minX, double[] maxX, SamplingStrategy strategy, long seed) {
+        int inputSize = functionInputs;
+        int outputSize = functionOutputs;
+        if (minX.length != inputSize || maxX.length != inputSize) {
+            throw new IllegalArgumentException("Need a range for each of the " + inputSize + " inputs.");
+        }
+        if (strategy == SamplingStrategy.LOW_DISCREPANCY && inputSize > PRIMES.length) {
+            throw new IllegalArgumentException("LOW_DISCREPANCY supports at most " + PRIMES.length + " inputs.");
+        }
+        double[] xs = new double[HeapSampleStore.arrayLength(numSamples, inputSize)];
+        double[] ys = new double[HeapSampleStore.arrayLength(numSamples, outputSize)];
+        int chunks = (numSamples + GENERATION_CHUNK - 1) / GENERATION_CHUNK;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            streams[c] = root.split();
+        }
+        double[] shift = new double[inputSize];
+        for (int d = 0; d < inputSize; d++) {
+            shift[d] = root.nextDouble();
+        }
+        // Latin hypercube: dimension d > 0 visits the strata in its own random order
+        int[][] strata = new int[inputSize][];
+        if (strategy == SamplingStrategy.STRATIFIED) {
+            for (int d = 1; d < inputSize; d++) {
+                strata[d] = randomPermutation(numSamples, root);
+            }
+        }
+        double[][] chunkRanges = new double[chunks][];
+
+        ScalarFunction scalar = inputSize == 1 && outputSize == 1 ? scalarFunction : null;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom random = streams[c];
+            if (scalar != null) {
+                chunkRanges[c] = generateScalarChunk(scalar, c, numSamples, minX[0], maxX[0], strategy, shift[0],
+                        random, xs, ys);
+                return;
+            }
+            double[] in = new double[inputSize];
+            double[] out = new double[outputSize];
+            double[] ranges = emptyRanges(inputSize + outputSize);
+            int from = c * GENERATION_CHUNK;
+            int to = Math.min(from + GENERATION_CHUNK, numSamples);
+            for (int i = from; i < to; i++) {
+                for (int d = 0; d < inputSize; d++) {
+                    int stratum = strata[d] == null ? i : strata[d][i];
+                    double u = unitSample(strategy, i, stratum, d, numSamples, shift[d], random);
+                    in[d] = minX[d] + u * (maxX[d] - minX[d]);
+                }
+                targetFunction.apply(in, out);
+                for (int retry = 0; !isFinite(out); retry++) {
+                    if (retry == MAX_RETRIES) {
+                        throw new IllegalStateException("Target function is undefined almost everywhere in "
+                                + Arrays.toString(minX) + " - " + Arrays.toString(maxX));
+                    }
+                    for (int d = 0; d < inputSize; d++) {
+                        int stratum = strata[d] == null ? i : strata[d][i];
+                        double u = redrawUnit(strategy, stratum, retry, numSamples, random);
+                        in[d] = minX[d] + u * (maxX[d] - minX[d]);
+                    }
+                    targetFunction.apply(in, out);
+                }
+                System.arraycopy(in, 0, xs, i * inputSize, inputSize);
+                System.arraycopy(out, 0, ys, i * outputSize, outputSize);
+                widen(ranges, in, 0);
+                widen(ranges, out, inputSize);
+            }
+            chunkRanges[c] = ranges;
+        });
+
+        this.store = new HeapSampleStore(inputSize, outputSize, xs, ys, numSamples);
+        this.size = numSamples;
+        this.order = new int[numSamples];
         for (int i = 0; i < numSamples; i++) {
-            double x = minX + (Math.random() * (maxX - minX));
-            double y = this.targetFunction.apply(x);
+            order[i] = i;
+        }
+        setRanges(merge(chunkRanges, inputSize + outputSize), inputSize);
+        this.xMin = minX[0];
+        this.xMax = maxX[0];
+        this.yMin = outputMin[0];
+        this.yMax = outputMax[0];
+    }
+
+    /** Fills one chunk of a 1 -> 1 dataset: all x first, then one bulk call for y. Returns the chunk's ranges. */
+    private static double[] generateScalarChunk(ScalarFunction function, int chunk, int numSamples, double minX,
+                                                double maxX, SamplingStrategy strategy, double shift,
+                                                SplittableRandom random, double[] xs, double[] ys) {
+        int from = chunk * GENERATION_CHUNK;
+        int to = Math.min(from + GENERATION_CHUNK, numSamples);
+        double width = maxX - minX;
+        for (int i = from; i < to; i++) {
+            xs[i] = minX + unitSample(strategy, i, i, 0, numSamples, shift, random) * width;
+        }
+        function.apply(xs, ys, from, to);
 
-            if (Double.isNaN(y) || Double.isInfinite(y)) {
-                i--;
-                continue;
+        double[] ranges = emptyRanges(2);
+        for (int i = from; i < to; i++) {
+            for (int retry = 0; Double.isNaN(ys[i]) || Double.isInfinite(ys[i]); retry++) {
+                if (retry == MAX_RETRIES) {
+                    throw new IllegalStateException("Target function is undefined almost everywhere in ["
+                            + minX + ", " + maxX + "]");
+                }
+                xs[i] = minX + redrawUnit(strategy, i, retry, numSamples, random) * width;
+                ys[i] = function.applyAsDouble(xs[i]);
             }
+            if (xs[i] < ranges[0]) ranges[0] = xs[i];
+            if (xs[i] > ranges[1]) ranges[1] = xs[i];
+            if (ys[i] < ranges[2]) ranges[2] = ys[i];
+            if (ys[i] > ranges[3]) ranges[3] = ys[i];
+        }
+        return ranges;
+    }
+
+    /** Replacement draw for an undefined point: stays in its stratum for a few tries, then gives up on it (e.g. log(x) for x < 0). */
+    private static double redrawUnit(SamplingStrategy strategy, int stratum, int retry, int count,
+                                     SplittableRandom random) {
+        if (strategy == SamplingStrategy.STRATIFIED && retry < STRATUM_RETRIES) {
+            return (stratum + random.nextDouble()) / count;
+        }
+        return random.nextDouble();
+    }
+
+    private static double unitSample(SamplingStrategy strategy, int index, int stratum, int dimension, int count,
+                                     double shift, SplittableRandom random) {
+        switch (strategy) {
+            case STRATIFIED:
+                return (stratum + random.nextDouble()) / count;
+            case LOW_DISCREPANCY:
+                double u = radicalInverse(index, PRIMES[dimension]) + shift;
+                return u >= 1.0 ? u - 1.0 : u;
+            default:
+                return random.nextDouble();
+        }
+    }
+
+    /** Mirrors the base-b digits of {@code index} around the radix point (van der Corput for b = 2). */
+    private static double radicalInverse(int index, int base) {
+        if (base == 2) {
+            return (Integer.reverse(index) >>> 1) * 0x1.0p-31;
+        }
+        double result = 0.0;
+        double digitWeight = 1.0 / base;
+        for (int n = index; n > 0; n /= base) {
+            result += (n % base) * digitWeight;
+            digitWeight /= base;
+        }
+        return result;
+    }
+
+    private static int[] randomPermutation(int n, SplittableRandom random) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+
+    private static boolean isFinite(double[] values) {
+        for (double v : values) {
+            if (Double.isNaN(v) || Double.isInfinite(v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** [min_0, max_0, min_1, max_1, ...] */
+    private static double[] emptyRanges(int features) {
+        double[] ranges = new double[2 * features];
+        for (int f = 0; f < features; f++) {
+            ranges[2 * f] = Double.POSITIVE_INFINITY;
+            ranges[2 * f + 1] = Double.NEGATIVE_INFINITY;
+        }
+        return ranges;
+    }
+
+    private static void widen(double[] ranges, double[] values, int firstFeature) {
+        for (int k = 0; k < values.length; k++) {
+            int f = 2 * (firstFeature + k);
+            if (values[k] < ranges[f]) ranges[f] = values[k];
+            if (values[k] > ranges[f + 1]) ranges[f + 1] = values[k];
+        }
+    }
 
-            if (y < yMin) yMin = y;
-            if (y > yMax) yMax = y;
+    private static double[] merge(double[][] parts, int features) {
+        double[] ranges = emptyRanges(features);
+        for (double[] part : parts) {
+            for (int f = 0; f < features; f++) {
+                ranges[2 * f] = Math.min(ranges[2 * f], part[2 * f]);
+                ranges[2 * f + 1] = Math.max(ranges[2 * f + 1], part[2 * f + 1]);
+            }
+        }
+        return ranges;
+    }
 
-            this.data.add(new DataPoint(new double[]{x}, new double[]{y}));
+    private void setRanges(double[] ranges, int inputSize) {
+        int outputSize = ranges.length / 2 - inputSize;
+        inputMin = new double[inputSize];
+        inputMax = new double[inputSize];
+        outputMin = new double[outputSize];
+        outputMax = new double[outputSize];
+        for (int k = 0; k < inputSize; k++) {
+            inputMin[k] = ranges[2 * k];
+            inputMax[k] = ranges[2 * k + 1];
+        }
+        for (int k = 0; k < outputSize; k++) {
+            outputMin[k] = ranges[2 * (inputSize + k)];
+            outputMax[k] = ranges[2 * (inputSize + k) + 1];
         }
     }
 
+    /** Computes every input's and output's min/max in one parallel pass over the samples. */
+    private void computeRanges() {
+        int inputSize = getInputSize();
+        int outputSize = getOutputSize();
+        int chunks = (size + GENERATION_CHUNK - 1) / GENERATION_CHUNK;
+        double[][] chunkRanges = new double[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            double[] in = new double[inputSize];
+            double[] out = new double[outputSize];
+            double[] ranges = emptyRanges(inputSize + outputSize);
+            int to = Math.min((c + 1) * GENERATION_CHUNK, size);
+            for (int i = c * GENERATION_CHUNK; i < to; i++) {
+                store.copyInputs(order[i], in, 0);
+                store.copyTargets(order[i], out, 0);
+                widen(ranges, in, 0);
+                widen(ranges, out, inputSize);
+            }
+            chunkRanges[c] = ranges;
+        });
+        setRanges(merge(chunkRanges, inputSize + outputSize), inputSize);
+    }
+
     public void add(DataPoint dp) {
-        this.data.add(dp);
+        add(dp.getInputs(), dp.getTargets());
+    }
+
+    public void add(double[] inputs, double[] targets) {
+        if (store == null) {
+            store = new HeapSampleStore(inputs.length, targets.length, 16);
+        }
+        if (!(store instanceof HeapSampleStore) || size != store.size()) {
+            throw new UnsupportedOperationException("Samples can only be added to a standalone in-memory dataset.");
+        }
+        int row = ((HeapSampleStore) store).add(inputs, targets);
+        if (size == order.length) {
+            order = Arrays.copyOf(order, Math.max(16, size * 2));
+        }
+        order[size++] = row;
+        inputMin = null;
     }
 
     public void shuffle() {
-        Collections.shuffle(this.data);
+        shuffle(ThreadLocalRandom.current());
+    }
+
+    /** Fisher-Yates over the index; the samples themselves never move. */
+    public void shuffle(Random random) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    /** Copy of the current visiting order. */
+    int[] copyOrder() {
+        return Arrays.copyOf(order, size);
+    }
+
+    /** Replaces the visiting order with one taken from {@link #copyOrder()}. */
+    void setOrder(int[] order) {
+        if (order.length != size) {
+            throw new IllegalArgumentException("Order has " + order.length + " entries for " + size + " samples.");
+        }
+        System.arraycopy(order, 0, this.order, 0, size);
+    }
+
+    /** Returns a view of the points in [from, to) sharing this dataset's storage and ranges. */
+    public Dataset subset(int from, int to) {
+        Dataset subset = new Dataset(targetFunction, functionInputs, functionOutputs);
+        subset.scalarFunction = this.scalarFunction;
+        subset.store = this.store;
+        subset.order = Arrays.copyOfRange(this.order, from, to);
+        subset.size = to - from;
+        subset.xMin = this.xMin;
+        subset.xMax = this.xMax;
+        subset.yMin = this.yMin;
+        subset.yMax = this.yMax;
+        return subset;
+    }
+
+    /** Returns a new in-memory dataset with every input and target mapped through the normalizers. */
+    public Dataset normalize(DataNormalizer inputNormalizer, DataNormalizer outputNormalizer) {
+        Dataset normalized = new Dataset(targetFunction, functionInputs, functionOutputs);
+        normalized.scalarFunction = this.scalarFunction;
+        double[] in = new double[getInputSize()];
+        double[] out = new double[getOutputSize()];
+        for (int i = 0; i < size; i++) {
+            copyBatch(i, i + 1, in, out, inputNormalizer, outputNormalizer);
+            normalized.add(in, out);
+        }
+        return normalized;
+    }
+
+    /**
+     * Copies samples [from, to) in the current order into row-major {@code inputs} and
+     * {@code targets} matrices, the layout the batched forward pass consumes.
+     */
+    public void copyBatch(int from, int to, double[] inputs, double[] targets) {
+        int inputSize = store.getInputSize();
+        int outputSize = store.getOutputSize();
+        for (int r = 0, i = from; i < to; r++, i++) {
+            int row = order[i];
+            store.copyInputs(row, inputs, r * inputSize);
+            store.copyTargets(row, targets, r * outputSize);
+        }
+    }
+
+    /** {@link #copyBatch} followed by normalizing the copied values; either normalizer may be null. */
+    public void copyBatch(int from, int to, double[] inputs, double[] targets,
+                          DataNormalizer inputNormalizer, DataNormalizer outputNormalizer) {
+        copyBatch(from, to, inputs, targets);
+        if (inputNormalizer != null) {
+            normalizeInPlace(inputs, to - from, getInputSize(), inputNormalizer);
+        }
+        if (outputNormalizer != null) {
+            normalizeInPlace(targets, to - from, getOutputSize(), outputNormalizer);
+        }
+    }
+
+    private static void normalizeInPlace(double[] values, int rows, int width, DataNormalizer normalizer) {
+        for (int k = 0; k < width; k++) {
+            double scale = normalizer.getNormalizeScale(k);
+            double offset = normalizer.getNormalizeOffset(k);
+            for (int i = k, end = rows * width; i < end; i += width) {
+                values[i] = values[i] * scale + offset;
+            }
+        }
     }
 
+    /** Read-only view in the current order. Allocates a DataPoint per access; training uses {@link #copyBatch}. */
     public List<DataPoint> getData() {
-        return this.data;
+        return new AbstractList<DataPoint>() {
+            @Override
+            public DataPoint get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                double[] in = new double[getInputSize()];
+                double[] out = new double[getOutputSize()];
+                copyBatch(index, index + 1, in, out);
+                return new DataPoint(in, out);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
     public int size() {
-        return this.data.size();
+        return this.size;
+    }
+
+    public int getInputSize() {
+        return store == null ? functionInputs : store.getInputSize();
+    }
+
+    public int getOutputSize() {
+        return store == null ? functionOutputs : store.getOutputSize();
+    }
+
+    public double[] getInputMin() {
+        ensureRanges();
+        return inputMin.clone();
+    }
+
+    public double[] getInputMax() {
+        ensureRanges();
+        return inputMax.clone();
+    }
+
+    public double[] getOutputMin() {
+        ensureRanges();
+        return outputMin.clone();
+    }
+
+    public double[] getOutputMax() {
+        ensureRanges();
+        return outputMax.clone();
+    }
+
+    private void ensureRanges() {
+        if (inputMin == null) {
+            computeRanges();
+        }
     }
     
     public double getXMin() { return xMin; }
@@ -0,0 +1,160 @@
+package ifndef.nn.training;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Columnar little-endian dataset file (.nnd) that {@link #open} memory-maps instead of reading
+ * into the heap. Layout:
+ *
+ * <pre>
+ * int    magic 'NNDS', int version, int sample count, int inputSize, int outputSize, int reserved
+ * double xMin, xMax, yMin, yMax
+ * double[count * inputSize]  inputs, row-major
+ * double[count * outputSize] targets, row-major
+ * </pre>
+ *
+ * Use {@link Writer} to stream samples to disk without ever holding them all in memory.
+ */
+public class DatasetFile {
+
+    public static final String EXTENSION = ".nnd";
+
+    private static final int MAGIC = 0x53444E4E; // "NNDS" read little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6 * 4 + 4 * 8;
+
+    /** Maps a dataset file. Only the shuffle index (one int per sample) lives on the heap. */
+    public static Dataset open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a dataset file: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported dataset file version " + version);
+            }
+            int size = header.getInt();
+            int inputSize = header.getInt();
+            int outputSize = header.getInt();
+            header.getInt();
+            double xMin = header.getDouble();
+            double xMax = header.getDouble();
+            double yMin = header.getDouble();
+            double yMax = header.getDouble();
+
+            long expected = HEADER_SIZE + (long) size * (inputSize + outputSize) * Double.BYTES;
+            if (channel.size() < expected) {
+                throw new IOException("Dataset file is truncated: " + path);
+            }
+            // Mappings stay valid after the channel is closed
+            SampleStore store = new MappedSampleStore(path, channel, HEADER_SIZE, size, inputSize, outputSize);
+            return new Dataset(store, xMin, xMax, yMin, yMax);
+        }
+    }
+
+    /** Writes the dataset's samples in their current order. */
+    public static void write(Dataset dataset, Path path) throws IOException {
+        try (Writer writer = new Writer(path, dataset.size(), dataset.getInputSize(), dataset.getOutputSize())) {
+            double[] in = new double[dataset.getInputSize()];
+            double[] out = new double[dataset.getOutputSize()];
+            for (int i = 0; i < dataset.size(); i++) {
+                dataset.copyBatch(i, i + 1, in, out);
+                writer.add(in, out);
+            }
+        }
+    }
+
+    /** Streams a fixed number of samples into a new dataset file through two small buffers. */
+    public static class Writer implements AutoCloseable {
+
+        private static final int BUFFER_BYTES = 1 << 16;
+
+        private final FileChannel channel;
+        private final int size;
+        private final int inputSize;
+        private final int outputSize;
+        private final ByteBuffer inputBuffer;
+        private final ByteBuffer targetBuffer;
+        private long inputPosition;
+        private long targetPosition;
+        private int written;
+
+        private double xMin = Double.POSITIVE_INFINITY;
+        private double xMax = Double.NEGATIVE_INFINITY;
+        private double yMin = Double.POSITIVE_INFINITY;
+        private double yMax = Double.NEGATIVE_INFINITY;
+
+        public Writer(Path path, int size, int inputSize, int outputSize) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.size = size;
+            this.inputSize = inputSize;
+            this.outputSize = outputSize;
+            this.inputBuffer = ByteBuffer.allocate(Math.max(BUFFER_BYTES, inputSize * Double.BYTES))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.targetBuffer = ByteBuffer.allocate(Math.max(BUFFER_BYTES, outputSize * Double.BYTES))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            this.inputPosition = HEADER_SIZE;
+            this.targetPosition = HEADER_SIZE + (long) size * inputSize * Double.BYTES;
+        }
+
+        public void add(double[] in, double[] out) throws IOException {
+            if (written == size) {
+                throw new IllegalStateException("Dataset file already holds " + size + " samples.");
+            }
+            if (inputBuffer.remaining() < inputSize * Double.BYTES) {
+                inputPosition = flush(inputBuffer, inputPosition);
+            }
+            if (targetBuffer.remaining() < outputSize * Double.BYTES) {
+                targetPosition = flush(targetBuffer, targetPosition);
+            }
+            for (int i = 0; i < inputSize; i++) {
+                inputBuffer.putDouble(in[i]);
+            }
+            for (int i = 0; i < outputSize; i++) {
+                targetBuffer.putDouble(out[i]);
+            }
+            xMin = Math.min(xMin, in[0]);
+            xMax = Math.max(xMax, in[0]);
+            yMin = Math.min(yMin, out[0]);
+            yMax = Math.max(yMax, out[0]);
+            written++;
+        }
+
+        private long flush(ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (written != size) {
+                    throw new IOException("Expected " + size + " samples but " + written + " were written.");
+                }
+                inputPosition = flush(inputBuffer, inputPosition);
+                targetPosition = flush(targetBuffer, targetPosition);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(inputSize).putInt(outputSize).putInt(0);
+                header.putDouble(xMin).putDouble(xMax).putDouble(yMin).putDouble(yMax);
+                flush(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package ifndef.nn.training;
+
+/**
+ * Early-stopping settings for {@link Trainer}. A {@code validationFraction} of the dataset is
+ * held out, its loss is evaluated every {@code checkInterval} epochs, and training stops once
+ * it has failed to improve by {@code minDelta} for {@code patience} consecutive checks. The
+ * weights from the best check are restored when training ends.
+ */
+public class EarlyStopping {
+
+    private final double validationFraction;
+    private final int checkInterval;
+    private final int patience;
+    private final double minDelta;
+
+    public EarlyStopping(double validationFraction, int checkInterval, int patience, double minDelta) {
+        if (validationFraction <= 0.0 || validationFraction >= 1.0) {
+            throw new IllegalArgumentException("Validation fraction must be between 0 and 1.");
+        }
+        this.validationFraction = validationFraction;
+        this.checkInterval = Math.max(1, checkInterval);
+        this.patience = Math.max(1, patience);
+        this.minDelta = minDelta;
+    }
+
+    public double getValidationFraction() {
+        return validationFraction;
+    }
+
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    public int getPatience() {
+        return patience;
+    }
+
+    public double getMinDelta() {
+        return minDelta;
+    }
+}
\ No newline at end of file
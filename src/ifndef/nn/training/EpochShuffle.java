@@ -0,0 +1,27 @@
+package ifndef.nn.training;
+
+import java.util.Random;
+
+/**
+ * Per-epoch shuffle that depends only on a seed and the epoch number: each epoch starts again
+ * from the order the dataset had when training began, then shuffles with a random stream
+ * derived from {@code (seed, epoch)}. A run resumed at epoch {@code e} therefore sees exactly
+ * the batches an uninterrupted run would have seen.
+ */
+final class EpochShuffle {
+
+    private final Dataset dataset;
+    private final int[] initialOrder;
+    private final long seed;
+
+    EpochShuffle(Dataset dataset, long seed) {
+        this.dataset = dataset;
+        this.initialOrder = dataset.copyOrder();
+        this.seed = seed;
+    }
+
+    void shuffle(int epoch) {
+        dataset.setOrder(initialOrder);
+        dataset.shuffle(new Random(seed * 0x9E3779B97F4A7C15L + epoch));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.GradientPackage;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free binary-tree reduction of per-worker gradients. At level {@code s} (1, 2, 4, ...)
+ * worker {@code w} with {@code w % 2s == 0} waits for worker {@code w + s} to publish its
+ * subtree and adds it into its own package; worker 0 ends up with the averaged total.
+ * Workers publish through a per-slot flag, so no locks are taken on the reduce path.
+ */
+public class GradientReducer {
+
+    private static final int SPIN_LIMIT = 1 << 10;
+
+    private final GradientPackage[] slots;
+    private final AtomicIntegerArray ready;
+    private int workers;
+    private double scale;
+
+    public GradientReducer(int maxWorkers) {
+        this.slots = new GradientPackage[maxWorkers];
+        this.ready = new AtomicIntegerArray(maxWorkers);
+    }
+
+    /** Prepares for a new round; must be called before any worker of that round starts. */
+    public void reset(int workers, double scale) {
+        if (workers > slots.length) {
+            throw new IllegalArgumentException("Too many workers for this reducer: " + workers);
+        }
+        this.workers = workers;
+        this.scale = scale;
+        for (int i = 0; i < workers; i++) {
+            ready.set(i, 0);
+        }
+    }
+
+    public void contribute(int worker, GradientPackage gradients) {
+        slots[worker] = gradients;
+        try {
+            if (workers == 1) {
+                gradients.scale(scale);
+                return;
+            }
+            for (int stride = 1; stride < workers; stride <<= 1) {
+                if ((worker & (2 * stride - 1)) != 0) {
+                    break;
+                }
+                int partner = worker + stride;
+                if (partner >= workers) {
+                    continue;
+                }
+                awaitReady(partner);
+                if (worker == 0 && 2 * stride >= workers) {
+                    gradients.addScaled(slots[partner], scale);
+                } else {
+                    gradients.add(slots[partner]);
+                }
+            }
+        } finally {
+            ready.set(worker, 1);
+        }
+    }
+
+    private void awaitReady(int partner) {
+        int spins = 0;
+        while (ready.get(partner) == 0) {
+            // Spin briefly for the common case, then yield so oversubscribed cores still progress
+            if (++spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    public GradientPackage getResult() {
+        return slots[0];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package ifndef.nn.training;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/** Growable in-memory {@link SampleStore} backed by two primitive arrays. */
+class HeapSampleStore implements SampleStore, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Largest array the VM reliably allocates
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final int inputSize;
+    private final int outputSize;
+    private double[] inputs;
+    private double[] targets;
+    private int size;
+
+    HeapSampleStore(int inputSize, int outputSize, int initialCapacity) {
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        int capacity = Math.max(16, initialCapacity);
+        this.inputs = new double[arrayLength(capacity, inputSize)];
+        this.targets = new double[arrayLength(capacity, outputSize)];
+    }
+
+    /** Length of a row-major array of {@code rows} samples with {@code width} values each. */
+    static int arrayLength(long rows, int width) {
+        long length = rows * width;
+        if (length > MAX_ARRAY_LENGTH) {
+            throw new IllegalArgumentException(rows + " samples of width " + width + " need " + length
+                    + " values, more than one array can hold; stream them into a DatasetFile instead.");
+        }
+        return (int) length;
+    }
+
+    /** Adopts already-filled arrays holding {@code size} samples. */
+    HeapSampleStore(int inputSize, int outputSize, double[] inputs, double[] targets, int size) {
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.inputs = inputs;
+        this.targets = targets;
+        this.size = size;
+    }
+
+    int add(double[] in, double[] out) {
+        if (in.length != inputSize || out.length != outputSize) {
+            throw new IllegalArgumentException("Sample shape does not match dataset (" + inputSize + " -> "
+                    + outputSize + ").");
+        }
+        if ((size + 1L) * inputSize > inputs.length || (size + 1L) * outputSize > targets.length) {
+            long capacity = Math.max(16L, size * 2L);
+            inputs = Arrays.copyOf(inputs, arrayLength(capacity, inputSize));
+            targets = Arrays.copyOf(targets, arrayLength(capacity, outputSize));
+        }
+        System.arraycopy(in, 0, inputs, size * inputSize, inputSize);
+        System.arraycopy(out, 0, targets, size * outputSize, outputSize);
+        return size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public void copyInputs(int row, double[] dest, int offset) {
+        System.arraycopy(inputs, row * inputSize, dest, offset, inputSize);
+    }
+
+    @Override
+    public void copyTargets(int row, double[] dest, int offset) {
+        System.arraycopy(targets, row * outputSize, dest, offset, outputSize);
+    }
+}
\ No newline at end of file
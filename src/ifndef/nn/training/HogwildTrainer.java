@@ -0,0 +1,263 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.ExecutionContext;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.LossFunction;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.optimizer.SGD;
+import ifndef.nn.util.DataNormalizer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Asynchronous lock-free SGD (Hogwild). Each worker owns a shard of the dataset, shuffles it
+ * independently and reads and writes the network's shared parameter array without any
+ * synchronization between workers. {@code pushInterval} is the number of local mini-batches
+ * a worker accumulates before pushing its update. Staleness is unbounded unless
+ * {@link #setMaxStaleness} is set, in which case workers run stale-synchronous: none gets more
+ * than that many pushes ahead of the slowest. Every push is a plain SGD step, so {@link SGD} is
+ * the only optimizer accepted.
+ */
+public class HogwildTrainer {
+
+    private static final VarHandle PARAMETER = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final int SPIN_LIMIT = 1 << 10;
+
+    private final NeuralNetwork network;
+    private final LossFunction lossFunction;
+    private final Optimizer optimizer;
+    private final int numThreads;
+    private final ExecutorService threadPool;
+
+    private UpdatePolicy updatePolicy = UpdatePolicy.RACY;
+    private int pushInterval = 1;
+    private int maxStaleness = UNBOUNDED;
+    private DataNormalizer inputNormalizer;
+    private DataNormalizer outputNormalizer;
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private boolean verbose = true;
+    private double lastSamplesPerSecond;
+
+    public HogwildTrainer(NeuralNetwork network, LossFunction lossFunction, double learningRate) {
+        this(network, lossFunction, learningRate, Runtime.getRuntime().availableProcessors());
+    }
+
+    public HogwildTrainer(NeuralNetwork network, LossFunction lossFunction, double learningRate, int numThreads) {
+        this(network, lossFunction, new SGD(network.getParameterCount(), learningRate), numThreads);
+    }
+
+    public HogwildTrainer(NeuralNetwork network, LossFunction lossFunction, Optimizer optimizer, int numThreads) {
+        if (optimizer.getClass() != SGD.class) {
+            throw new IllegalArgumentException("Hogwild only applies plain SGD steps, not "
+                    + optimizer.getClass().getSimpleName() + ".");
+        }
+        this.network = network;
+        this.lossFunction = lossFunction;
+        this.optimizer = optimizer;
+        this.numThreads = numThreads;
+        this.threadPool = Trainer.createWorkerPool(numThreads);
+    }
+
+    public void setUpdatePolicy(UpdatePolicy updatePolicy) {
+        this.updatePolicy = updatePolicy;
+    }
+
+    /** Local mini-batches a worker accumulates before pushing them to the shared weights. */
+    public void setPushInterval(int pushInterval) {
+        if (pushInterval < 1) {
+            throw new IllegalArgumentException("Push interval must be at least 1 mini-batch.");
+        }
+        this.pushInterval = pushInterval;
+    }
+
+    /**
+     * Makes a worker wait before its next mini-batch while it has pushed more than
+     * {@code maxStaleness} times more often than the slowest worker still running, so the weights it
+     * reads miss at most that many pushes of any other worker. 0 keeps the workers in lock-step.
+     */
+    public void setMaxStaleness(int maxStaleness) {
+        if (maxStaleness < 0) {
+            throw new IllegalArgumentException("Maximum staleness must not be negative.");
+        }
+        this.maxStaleness = maxStaleness;
+    }
+
+    /** With {@code false}, training prints nothing, as with {@link Trainer#setVerbose}. */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /** Normalizes samples the same way as {@link Trainer#setNormalizers}. */
+    public void setNormalizers(DataNormalizer inputNormalizer, DataNormalizer outputNormalizer) {
+        this.inputNormalizer = inputNormalizer;
+        this.outputNormalizer = outputNormalizer;
+    }
+
+    /** Seeds every worker's per-epoch shuffle; random unless set. */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public double getLastSamplesPerSecond() {
+        return lastSamplesPerSecond;
+    }
+
+    public void train(Dataset dataset, int epochs, int batchSize, int printInterval) {
+        if (verbose) {
+            System.out.println("Hogwild trainer initialized with " + numThreads + " threads.");
+        }
+        int size = dataset.size();
+        int shardSize = (int) Math.ceil((double) size / numThreads);
+        Map<Integer, EpochLoss> reports = new ConcurrentHashMap<>();
+        // Pushes per worker; Long.MAX_VALUE once a worker is done, so it never holds the others back
+        AtomicLongArray clocks = new AtomicLongArray(numThreads);
+        int reportInterval = verbose ? printInterval : 0;
+
+        List<Future<?>> futures = new ArrayList<>();
+        long startTime = System.nanoTime();
+        for (int t = 0; t < numThreads; t++) {
+            int from = Math.min(t * shardSize, size);
+            int to = Math.min(from + shardSize, size);
+            Dataset shard = dataset.subset(from, to);
+            EpochShuffle shuffle = new EpochShuffle(shard, seed + t);
+            int worker = t;
+            futures.add(threadPool.submit(() -> {
+                try {
+                    runWorker(worker, shard, shuffle, epochs, batchSize, reportInterval, reports, size, clocks);
+                } finally {
+                    clocks.set(worker, Long.MAX_VALUE);
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Error during Hogwild training: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        this.lastSamplesPerSecond = (double) size * epochs / seconds;
+        if (verbose) {
+            System.out.printf("Training finished. Throughput: %.0f samples/sec\n", lastSamplesPerSecond);
+        }
+    }
+
+    private void runWorker(int worker, Dataset shard, EpochShuffle shuffle, int epochs, int batchSize,
+                           int printInterval, Map<Integer, EpochLoss> reports, int totalSamples,
+                           AtomicLongArray clocks) {
+        ExecutionContext context = network.createContext();
+        double[] gradients = context.getGradients().getValues();
+        int pending = 0;
+        int pendingRows = 0;
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            shuffle.shuffle(epoch);
+            double loss = 0.0;
+
+            for (int from = 0; from < shard.size(); from += batchSize) {
+                int to = Math.min(from + batchSize, shard.size());
+                if (pending == 0) {
+                    awaitSlowest(worker, clocks);
+                }
+                loss += BatchTask.accumulateGradients(network, lossFunction, shard, from, to, inputNormalizer,
+                        outputNormalizer, context, null);
+                pendingRows += to - from;
+
+                if (++pending >= pushInterval) {
+                    push(gradients, optimizer.getLearningRate() / pendingRows);
+                    clocks.incrementAndGet(worker);
+                    context.clearGradients();
+                    pending = 0;
+                    pendingRows = 0;
+                }
+            }
+
+            if (printInterval > 0 && (epoch % printInterval == 0 || epoch == epochs)) {
+                EpochLoss report = reports.computeIfAbsent(epoch, e -> new EpochLoss());
+                report.sum.add(loss);
+                if (report.arrivals.incrementAndGet() == numThreads) {
+                    System.out.printf("Epoch: %d/%d, Average Loss: %.8f\n", epoch, epochs,
+                            report.sum.sum() / totalSamples);
+                    reports.remove(epoch);
+                }
+            }
+        }
+
+        if (pending > 0) {
+            push(gradients, optimizer.getLearningRate() / pendingRows);
+        }
+    }
+
+    /** Blocks while this worker is more than {@code maxStaleness} pushes ahead of the slowest one. */
+    private void awaitSlowest(int worker, AtomicLongArray clocks) {
+        if (maxStaleness == UNBOUNDED) {
+            return;
+        }
+        long own = clocks.get(worker);
+        int spins = 0;
+        while (own - slowest(clocks) > maxStaleness) {
+            if (++spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static long slowest(AtomicLongArray clocks) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < clocks.length(); i++) {
+            min = Math.min(min, clocks.get(i));
+        }
+        return min;
+    }
+
+    private void push(double[] gradients, double step) {
+        double[] params = network.getParameters();
+        if (updatePolicy == UpdatePolicy.ATOMIC) {
+            for (int i = 0; i < params.length; i++) {
+                double delta = step * gradients[i];
+                if (delta == 0.0) {
+                    continue;
+                }
+                double current;
+                double next;
+                do {
+                    current = (double) PARAMETER.getVolatile(params, i);
+                    next = current - delta;
+                } while (!PARAMETER.compareAndSet(params, i, current, next));
+            }
+        } else {
+            for (int i = 0; i < params.length; i++) {
+                params[i] -= step * gradients[i];
+            }
+        }
+    }
+
+    public void shutdown() {
+        this.threadPool.shutdown();
+    }
+
+    private static final class EpochLoss {
+        final DoubleAdder sum = new DoubleAdder();
+        final AtomicInteger arrivals = new AtomicInteger();
+    }
+}
\ No newline at end of file
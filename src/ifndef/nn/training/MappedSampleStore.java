@@ -0,0 +1,113 @@
+package ifndef.nn.training;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only {@link SampleStore} over a memory-mapped {@link DatasetFile}. The file is mapped in
+ * segments of {@link #SEGMENT_DOUBLES} values, so datasets may exceed both the heap and the 2 GB
+ * limit of a single mapping; the operating system pages data in and out as it is read.
+ * Serializes as a reference to the file, which is mapped again when read back, so the file
+ * must still exist at the same absolute path.
+ */
+class MappedSampleStore implements SampleStore, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final int SEGMENT_SHIFT = 27;
+    static final int SEGMENT_DOUBLES = 1 << SEGMENT_SHIFT;
+
+    private final String path;
+    private final long dataOffset;
+    private final int size;
+    private final int inputSize;
+    private final int outputSize;
+    private transient DoubleBuffer[] inputSegments;
+    private transient DoubleBuffer[] targetSegments;
+
+    MappedSampleStore(Path path, FileChannel channel, long dataOffset, int size, int inputSize, int outputSize)
+            throws IOException {
+        this.path = path.toAbsolutePath().toString();
+        this.dataOffset = dataOffset;
+        this.size = size;
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        mapSegments(channel);
+    }
+
+    private void mapSegments(FileChannel channel) throws IOException {
+        long inputCount = (long) size * inputSize;
+        this.inputSegments = map(channel, dataOffset, inputCount);
+        this.targetSegments = map(channel, dataOffset + inputCount * Double.BYTES, (long) size * outputSize);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long expected = dataOffset + (long) size * (inputSize + outputSize) * Double.BYTES;
+            if (channel.size() < expected) {
+                throw new InvalidObjectException("Dataset file is shorter than when it was serialized: " + path);
+            }
+            mapSegments(channel);
+        }
+    }
+
+    private static DoubleBuffer[] map(FileChannel channel, long offset, long count) throws IOException {
+        int segments = (int) ((count + SEGMENT_DOUBLES - 1) >>> SEGMENT_SHIFT);
+        DoubleBuffer[] buffers = new DoubleBuffer[segments];
+        for (int s = 0; s < segments; s++) {
+            long first = (long) s << SEGMENT_SHIFT;
+            long length = Math.min(SEGMENT_DOUBLES, count - first);
+            buffers[s] = channel.map(FileChannel.MapMode.READ_ONLY, offset + first * Double.BYTES,
+                    length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return buffers;
+    }
+
+    private static void copy(DoubleBuffer[] segments, long first, int count, double[] dest, int offset) {
+        int segment = (int) (first >>> SEGMENT_SHIFT);
+        int start = (int) (first & (SEGMENT_DOUBLES - 1));
+        if (start + count <= SEGMENT_DOUBLES) {
+            segments[segment].get(start, dest, offset, count);
+            return;
+        }
+        // Row straddles two segments
+        for (int i = 0; i < count; i++) {
+            long index = first + i;
+            dest[offset + i] = segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & (SEGMENT_DOUBLES - 1)));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    @Override
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    @Override
+    public void copyInputs(int row, double[] dest, int offset) {
+        copy(inputSegments, (long) row * inputSize, inputSize, dest, offset);
+    }
+
+    @Override
+    public void copyTargets(int row, double[] dest, int offset) {
+        copy(targetSegments, (long) row * outputSize, outputSize, dest, offset);
+    }
+}
\ No newline at end of file
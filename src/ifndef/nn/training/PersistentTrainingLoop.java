@@ -0,0 +1,247 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.ExecutionContext;
+import ifndef.nn.core.GradientPackage;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.LossFunction;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.telemetry.Phase;
+import ifndef.nn.telemetry.TrainingTelemetry;
+import ifndef.nn.util.DataNormalizer;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Training loop with one long-lived worker per thread. After each epoch's shuffle the data is
+ * cut into one contiguous shard per worker; on every step each worker takes the next
+ * {@code batchSize / workers} samples of its shard, then all workers meet at a barrier,
+ * reduce one stripe of the parameter vector each and hand it to the optimizer, and meet again.
+ * No tasks, futures or sub-lists are created per step.
+ * <p>
+ * If a worker fails, the others are interrupted out of their barriers and {@link #run} throws
+ * the first failure once every worker has stopped.
+ */
+class PersistentTrainingLoop {
+
+    private final NeuralNetwork network;
+    private final LossFunction lossFunction;
+    private final Optimizer optimizer;
+    private final ExecutorService threadPool;
+    private final int workers;
+    private final DataNormalizer inputNormalizer;
+    private final DataNormalizer outputNormalizer;
+    private final TrainingTelemetry telemetry;
+
+    private final ExecutionContext[] contexts;
+    private final GradientPackage totalGradients;
+    private final double[] epochLoss;
+    private final SyncStats stats = new SyncStats();
+    private final AtomicReferenceArray<Thread> threads;
+
+    private Dataset data;
+    private int[] shardStart;
+    private int[] shardEnd;
+    private int perWorkerBatch;
+    private int stepsPerEpoch;
+    private volatile boolean stopped;
+    private volatile boolean aborted;
+
+    PersistentTrainingLoop(NeuralNetwork network, LossFunction lossFunction, Optimizer optimizer,
+                           ExecutorService threadPool, int workers, DataNormalizer inputNormalizer,
+                           DataNormalizer outputNormalizer, TrainingTelemetry telemetry) {
+        this.network = network;
+        this.lossFunction = lossFunction;
+        this.optimizer = optimizer;
+        this.threadPool = threadPool;
+        this.workers = workers;
+        this.inputNormalizer = inputNormalizer;
+        this.outputNormalizer = outputNormalizer;
+        this.telemetry = telemetry;
+
+        this.contexts = new ExecutionContext[workers];
+        for (int w = 0; w < workers; w++) {
+            contexts[w] = network.createContext();
+        }
+        this.totalGradients = network.createEmptyGradients();
+        this.epochLoss = new double[workers];
+        this.threads = new AtomicReferenceArray<>(workers);
+    }
+
+    SyncStats run(Dataset dataset, EpochShuffle shuffle, int firstEpoch, int epochs, int batchSize,
+                  TrainingMonitor monitor) {
+        this.data = dataset;
+        int size = dataset.size();
+        this.shardStart = new int[workers];
+        this.shardEnd = new int[workers];
+        int shardSize = (int) Math.ceil((double) size / workers);
+        for (int w = 0; w < workers; w++) {
+            shardStart[w] = Math.min(w * shardSize, size);
+            shardEnd[w] = Math.min(shardStart[w] + shardSize, size);
+        }
+        this.perWorkerBatch = Math.max(1, (int) Math.ceil((double) batchSize / workers));
+        this.stepsPerEpoch = (int) Math.ceil((double) shardSize / perWorkerBatch);
+
+        int[] epochCounter = {firstEpoch};
+        CyclicBarrier gradientBarrier = new CyclicBarrier(workers, optimizer::beginStep);
+        CyclicBarrier applyBarrier = new CyclicBarrier(workers, () -> telemetry.recordStep(totalGradients));
+        CyclicBarrier epochBarrier = new CyclicBarrier(workers, () -> {
+            // Runs on the last worker to arrive while all others are parked
+            int epoch = epochCounter[0]++;
+            double totalLoss = 0.0;
+            for (double loss : epochLoss) {
+                totalLoss += loss;
+            }
+            if (monitor.endEpoch(epoch, totalLoss)) {
+                stopped = true;
+                return;
+            }
+            shuffle.shuffle(epoch + 1);
+            monitor.beginEpoch(epoch + 1);
+        });
+
+        stopped = false;
+        aborted = false;
+        shuffle.shuffle(firstEpoch);
+        monitor.beginEpoch(firstEpoch);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(threadPool);
+        for (int w = 0; w < workers; w++) {
+            int worker = w;
+            completion.submit(() -> {
+                threads.set(worker, Thread.currentThread());
+                try {
+                    if (!aborted) {
+                        runWorker(worker, firstEpoch, epochs, gradientBarrier, applyBarrier, epochBarrier);
+                    }
+                } finally {
+                    threads.set(worker, null);
+                }
+                return null;
+            });
+        }
+
+        // Wait for every worker, even after a failure, so none is still touching the network on return
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (int done = 0; done < workers; ) {
+            try {
+                completion.take().get();
+                done++;
+            } catch (ExecutionException e) {
+                done++;
+                if (failure == null || isSecondary(failure) && !isSecondary(e.getCause())) {
+                    failure = e.getCause();
+                }
+                abort();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                if (failure == null) {
+                    failure = e;
+                }
+                abort();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Persistent-worker training failed: " + failure, failure);
+        }
+        return stats;
+    }
+
+    /** Interrupts every running worker; the interrupt breaks the barriers the others wait on. */
+    private void abort() {
+        aborted = true;
+        for (int w = 0; w < workers; w++) {
+            Thread thread = threads.get(w);
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /** Failures that only follow from another worker's failure. */
+    private static boolean isSecondary(Throwable failure) {
+        return failure instanceof BrokenBarrierException || failure instanceof InterruptedException;
+    }
+
+    private void runWorker(int worker, int firstEpoch, int epochs, CyclicBarrier gradientBarrier,
+                           CyclicBarrier applyBarrier, CyclicBarrier epochBarrier)
+            throws InterruptedException, BrokenBarrierException {
+        ExecutionContext context = contexts[worker];
+        int paramCount = network.getParameterCount();
+        int stripe = (int) Math.ceil((double) paramCount / workers);
+        int stripeFrom = Math.min(worker * stripe, paramCount);
+        int stripeTo = Math.min(stripeFrom + stripe, paramCount);
+
+        for (int epoch = firstEpoch; epoch <= epochs; epoch++) {
+            double loss = 0.0;
+            for (int step = 0; step < stepsPerEpoch; step++) {
+                long t0 = System.nanoTime();
+                context.clearGradients();
+                int from = shardStart[worker] + step * perWorkerBatch;
+                int to = Math.min(from + perWorkerBatch, shardEnd[worker]);
+                if (from < to) {
+                    loss += BatchTask.accumulateGradients(network, lossFunction, data, from, to, inputNormalizer,
+                            outputNormalizer, context, telemetry);
+                }
+                long t1 = System.nanoTime();
+                gradientBarrier.await();
+                long t2 = System.nanoTime();
+
+                int rows = stepRows(step);
+                if (rows > 0) {
+                    reduceAndApply(stripeFrom, stripeTo, 1.0 / rows);
+                }
+                long t3 = System.nanoTime();
+                applyBarrier.await();
+                long t4 = System.nanoTime();
+
+                stats.record(t1 - t0, t3 - t2, (t2 - t1) + (t4 - t3));
+            }
+            epochLoss[worker] = loss;
+            epochBarrier.await();
+            if (stopped) {
+                return;
+            }
+        }
+    }
+
+    private int stepRows(int step) {
+        int rows = 0;
+        for (int w = 0; w < workers; w++) {
+            int from = shardStart[w] + step * perWorkerBatch;
+            int to = Math.min(from + perWorkerBatch, shardEnd[w]);
+            rows += Math.max(0, to - from);
+        }
+        return rows;
+    }
+
+    /** Sums every worker's gradients over [from, to), averages them and applies the optimizer step. */
+    private void reduceAndApply(int from, int to, double scale) {
+        long start = telemetry.start();
+        double[] total = totalGradients.getValues();
+        double[] params = network.getParameters();
+        for (int i = from; i < to; i++) {
+            total[i] = 0.0;
+        }
+        for (ExecutionContext context : contexts) {
+            double[] g = context.getGradients().getValues();
+            for (int i = from; i < to; i++) {
+                total[i] += g[i];
+            }
+        }
+        for (int i = from; i < to; i++) {
+            total[i] *= scale;
+        }
+        start = telemetry.lap(Phase.REDUCE, start);
+        optimizer.update(params, total, from, to);
+        telemetry.lap(Phase.APPLY, start);
+    }
+}
\ No newline at end of file
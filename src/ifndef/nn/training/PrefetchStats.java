@@ -0,0 +1,49 @@
+package ifndef.nn.training;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the batch prefetch pipeline. A stall is a step where the trainer asked for
+ * the next batch before the background thread had finished packing it.
+ */
+public class PrefetchStats {
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder stallNanos = new LongAdder();
+    private final LongAdder packNanos = new LongAdder();
+
+    void recordBatch(long packTime) {
+        batches.increment();
+        packNanos.add(packTime);
+    }
+
+    void recordStall(long waitTime) {
+        stalls.increment();
+        stallNanos.add(waitTime);
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    public double getStallSeconds() {
+        return stallNanos.sum() / 1_000_000_000.0;
+    }
+
+    public double getPackSeconds() {
+        return packNanos.sum() / 1_000_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        long total = getBatches();
+        double stallShare = total == 0 ? 0 : 100.0 * getStalls() / total;
+        return String.format("Prefetch - batches packed: %d (%.3fs), trainer stalls: %d (%.1f%%), waiting: %.3fs",
+                total, getPackSeconds(), getStalls(), stallShare, getStallSeconds());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ifndef.nn.training;
+
+public enum ReductionMode {
+
+    /** The training thread sums every worker's gradients in turn, then averages them. */
+    SEQUENTIAL,
+
+    /**
+     * Workers merge their gradients pairwise in a binary tree as soon as they finish, with the
+     * 1/N averaging fused into the final merge, so the reduce takes log2(workers) steps.
+     */
+    TREE
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package ifndef.nn.training;
+
+/**
+ * Columnar sample storage behind a {@link Dataset}: all inputs in one row-major block and all
+ * targets in another, addressed by sample row.
+ */
+interface SampleStore {
+
+    int size();
+
+    int getInputSize();
+
+    int getOutputSize();
+
+    void copyInputs(int row, double[] dest, int offset);
+
+    void copyTargets(int row, double[] dest, int offset);
+}
\ No newline at end of file
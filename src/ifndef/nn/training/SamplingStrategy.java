@@ -0,0 +1,11 @@
+package ifndef.nn.training;
+
+/** How {@link Dataset#generateData} places x values inside [minX, maxX]. */
+public enum SamplingStrategy {
+    /** Independent uniform draws. */
+    UNIFORM,
+    /** One uniform draw inside each of numSamples equal-width strata. */
+    STRATIFIED,
+    /** Base-2 van der Corput sequence (the 1-D Sobol sequence) with a seeded random shift. */
+    LOW_DISCREPANCY
+}
\ No newline at end of file
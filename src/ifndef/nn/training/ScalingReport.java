@@ -0,0 +1,71 @@
+package ifndef.nn.training;
+
+import ifndef.nn.activation.Tanh;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.loss.MeanSquaredError;
+import ifndef.nn.util.DataNormalizer;
+
+/**
+ * Measures training throughput (samples/sec) of the synchronous {@link Trainer} against the
+ * {@link HogwildTrainer} for 1, 2, 4, ... up to all available threads, on the Deep Tanh
+ * network learning sin(x). Both trainers get the same normalizers and seed.
+ *
+ * Usage: java -cp bin ifndef.nn.training.ScalingReport [samples] [epochs] [batchSize]
+ */
+public class ScalingReport {
+
+    public static void main(String[] args) {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int epochs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 128;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        Dataset dataset = new Dataset(Math::sin);
+        dataset.generateData(samples, -Math.PI, Math.PI);
+        DataNormalizer inputNormalizer = new DataNormalizer(-Math.PI, Math.PI);
+        DataNormalizer outputNormalizer = new DataNormalizer(dataset.getOutputMin(), dataset.getOutputMax());
+        long seed = 42L;
+
+        StringBuilder report = new StringBuilder(String.format("%-8s %18s %18s%n",
+                "Threads", "Sync samples/s", "Hogwild samples/s"));
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            Trainer trainer = new Trainer(createDeepNetwork(), new MeanSquaredError(), 0.01, threads);
+            trainer.setNormalizers(inputNormalizer, outputNormalizer);
+            trainer.setSeed(seed);
+            long start = System.nanoTime();
+            trainer.train(dataset, epochs, batchSize, epochs);
+            double syncRate = (double) samples * epochs / ((System.nanoTime() - start) / 1_000_000_000.0);
+            trainer.shutdown();
+
+            HogwildTrainer hogwild = new HogwildTrainer(createDeepNetwork(), new MeanSquaredError(), 0.01, threads);
+            hogwild.setNormalizers(inputNormalizer, outputNormalizer);
+            hogwild.setSeed(seed);
+            hogwild.train(dataset, epochs, batchSize, epochs);
+            double hogwildRate = hogwild.getLastSamplesPerSecond();
+            hogwild.shutdown();
+
+            report.append(String.format("%-8d %18.0f %18.0f%n", threads, syncRate, hogwildRate));
+        }
+
+        System.out.println();
+        System.out.print(report);
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    private static NeuralNetwork createDeepNetwork() {
+        NeuralNetwork nn = new NeuralNetwork();
+        nn.add(new DenseLayer(1, 32, new Tanh()));
+        nn.add(new DenseLayer(32, 32, new Tanh()));
+        nn.add(new DenseLayer(32, 32, new Tanh()));
+        nn.add(new DenseLayer(32, 32, new Tanh()));
+        nn.add(new DenseLayer(32, 1, null));
+        return nn;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package ifndef.nn.training;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall-clock time spent by persistent training workers, summed over all workers.
+ */
+public class SyncStats {
+
+    private final LongAdder computeNanos = new LongAdder();
+    private final LongAdder reduceNanos = new LongAdder();
+    private final LongAdder syncNanos = new LongAdder();
+    private final LongAdder steps = new LongAdder();
+
+    void record(long compute, long reduce, long sync) {
+        computeNanos.add(compute);
+        reduceNanos.add(reduce);
+        syncNanos.add(sync);
+        steps.increment();
+    }
+
+    public double getComputeSeconds() {
+        return computeNanos.sum() / 1_000_000_000.0;
+    }
+
+    public double getReduceSeconds() {
+        return reduceNanos.sum() / 1_000_000_000.0;
+    }
+
+    public double getSyncSeconds() {
+        return syncNanos.sum() / 1_000_000_000.0;
+    }
+
+    public long getSteps() {
+        return steps.sum();
+    }
+
+    @Override
+    public String toString() {
+        double total = getComputeSeconds() + getReduceSeconds() + getSyncSeconds();
+        double syncShare = total == 0 ? 0 : 100.0 * getSyncSeconds() / total;
+        return String.format("Worker time - compute: %.3fs, reduce+apply: %.3fs, barrier wait: %.3fs (%.1f%%)",
+                getComputeSeconds(), getReduceSeconds(), getSyncSeconds(), syncShare);
+    }
+}
\ No newline at end of file
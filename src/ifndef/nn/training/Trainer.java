@@ -1,109 +1,450 @@
 package ifndef.nn.training;
 
+import ifndef.nn.core.ExecutionContext;
 import ifndef.nn.core.GradientPackage;
 import ifndef.nn.core.NeuralNetwork;
 import ifndef.nn.loss.LossFunction;
+import ifndef.nn.optimizer.LearningRateSchedule;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.optimizer.SGD;
+import ifndef.nn.telemetry.Phase;
+import ifndef.nn.telemetry.TrainingTelemetry;
+import ifndef.nn.training.BatchPrefetcher.PackedBatch;
+import ifndef.nn.util.DataNormalizer;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
 
 public class Trainer {
 
+    private static final int EVALUATION_BLOCK = 256;
+    private static final long IDLE_THREAD_SECONDS = 30;
+
     private final NeuralNetwork network;
     private final LossFunction lossFunction;
-    private final double learningRate;
+    private final Optimizer optimizer;
+    private LearningRateSchedule schedule;
+    private double baseRate;
+    private EarlyStopping earlyStopping;
     private final int numThreads;
     private final ExecutorService threadPool;
+    private ReductionMode reductionMode = ReductionMode.SEQUENTIAL;
+    private TrainingMode trainingMode = TrainingMode.TASK_PER_BATCH;
+    private DataNormalizer inputNormalizer;
+    private DataNormalizer outputNormalizer;
+    private int prefetchDepth = 2;
+    private final TrainingTelemetry telemetry;
+    private long seed = ThreadLocalRandom.current().nextLong();
+    private String checkpointFile;
+    private int checkpointInterval;
+    private Checkpoint resumeFrom;
+    private boolean verbose = true;
 
     public Trainer(NeuralNetwork network, LossFunction lossFunction, double learningRate) {
+        this(network, lossFunction, learningRate, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Trainer(NeuralNetwork network, LossFunction lossFunction, double learningRate, int numThreads) {
+        this(network, lossFunction, new SGD(network.getParameterCount(), learningRate), numThreads);
+    }
+
+    public Trainer(NeuralNetwork network, LossFunction lossFunction, Optimizer optimizer) {
+        this(network, lossFunction, optimizer, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Trainer(NeuralNetwork network, LossFunction lossFunction, Optimizer optimizer, int numThreads) {
         this.network = network;
         this.lossFunction = lossFunction;
-        this.learningRate = learningRate;
+        this.optimizer = optimizer;
+
+        this.numThreads = numThreads;
+        this.telemetry = new TrainingTelemetry(network);
+        this.threadPool = createWorkerPool(numThreads, telemetry);
+    }
+
+    static ExecutorService createWorkerPool(int numThreads) {
+        return createWorkerPool(numThreads, null);
+    }
+
+    /**
+     * Idle daemon workers time out, so a trainer dropped without shutdown() does not keep threads alive.
+     * Each worker's allocations count towards {@code telemetry} (may be null).
+     */
+    static ExecutorService createWorkerPool(int numThreads, TrainingTelemetry telemetry) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(numThreads, numThreads, IDLE_THREAD_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Runnable worker = telemetry == null ? runnable : () -> {
+                        telemetry.trackCurrentThread();
+                        try {
+                            runnable.run();
+                        } finally {
+                            telemetry.untrackCurrentThread();
+                        }
+                    };
+                    Thread thread = Executors.defaultThreadFactory().newThread(worker);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    public void setReductionMode(ReductionMode reductionMode) {
+        this.reductionMode = reductionMode;
+    }
+
+    public void setTrainingMode(TrainingMode trainingMode) {
+        this.trainingMode = trainingMode;
+    }
+
+    /** The optimizer's current learning rate becomes the base rate the schedule scales in every run. */
+    public void setLearningRateSchedule(LearningRateSchedule schedule) {
+        this.schedule = schedule;
+        this.baseRate = optimizer.getLearningRate();
+    }
+
+    public void setEarlyStopping(EarlyStopping earlyStopping) {
+        this.earlyStopping = earlyStopping;
+    }
+
+    /** Normalizes samples as batches are packed, so the raw dataset can be trained on directly. */
+    public void setNormalizers(DataNormalizer inputNormalizer, DataNormalizer outputNormalizer) {
+        this.inputNormalizer = inputNormalizer;
+        this.outputNormalizer = outputNormalizer;
+    }
+
+    /** Number of mini-batches the background prefetch thread may pack ahead of training. */
+    public void setPrefetchDepth(int prefetchDepth) {
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("Prefetch depth must be at least 1.");
+        }
+        this.prefetchDepth = prefetchDepth;
+    }
+
+    /** With {@code false}, training prints nothing; for runners that train many networks at once. */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
 
-        this.numThreads = Runtime.getRuntime().availableProcessors();
-        this.threadPool = Executors.newFixedThreadPool(this.numThreads);
-        System.out.println("Trainer initialized with " + this.numThreads + " threads.");
+    /** Seeds the validation split and every epoch's shuffle; random unless set. */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Writes a checkpoint to {@code filename} every {@code interval} epochs and after the last one,
+     * on a background thread. Pass the file to {@link #resume} to continue an interrupted run.
+     */
+    public void setCheckpointing(String filename, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1.");
+        }
+        this.checkpointFile = filename;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Restores weights, optimizer state, seed and normalizers from a checkpoint; the next
+     * {@link #train} call continues after its epoch, with {@code epochs} still counting the whole run.
+     * Given the same dataset it produces the same weights as a run that was never interrupted.
+     */
+    public Checkpoint resume(String filename) throws IOException {
+        Checkpoint checkpoint = Checkpoint.read(filename);
+        checkpoint.restore(network, optimizer);
+        this.seed = checkpoint.getSeed();
+        setNormalizers(checkpoint.getInputNormalizer(), checkpoint.getOutputNormalizer());
+        this.resumeFrom = checkpoint;
+        System.out.println("Resuming from " + filename + " after epoch " + checkpoint.getEpoch() + ".");
+        return checkpoint;
+    }
+
+    /** Phase timers, throughput and gradient statistics, also published over JMX (while training) and JFR. */
+    public TrainingTelemetry getTelemetry() {
+        return telemetry;
     }
 
     public void train(Dataset dataset, int epochs, int batchSize, int printInterval) {
-        
-        List<DataPoint> data = dataset.getData();
-        int numBatches = (int) Math.ceil((double) data.size() / batchSize);
+        if (verbose) {
+            System.out.println("Trainer initialized with " + numThreads + " threads.");
+        }
+
+        // Shuffles only ever permute this private view, never the caller's dataset
+        Dataset samples = dataset.subset(0, dataset.size());
+        Dataset trainingSet = samples;
+        Dataset validationSet = null;
+        EarlyStopping stopping = earlyStopping;
+        if (stopping != null && samples.size() < 2) {
+            // Holding out the only sample would leave nothing to train on
+            stopping = null;
+            if (verbose) {
+                System.out.println("Too few samples for a validation split; early stopping is off for this run.");
+            }
+        }
+        if (stopping != null) {
+            samples.shuffle(new Random(seed));
+            int validationSize = (int) (samples.size() * stopping.getValidationFraction());
+            validationSize = Math.min(samples.size() - 1, Math.max(1, validationSize));
+            validationSet = samples.subset(0, validationSize);
+            trainingSet = samples.subset(validationSize, samples.size());
+            if (verbose) {
+                System.out.println("Holding out " + validationSize + " samples for validation.");
+            }
+        }
+
+        ExecutionContext[] contexts = new ExecutionContext[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            contexts[t] = network.createContext();
+        }
+
+        boolean persistent = trainingMode == TrainingMode.PERSISTENT_WORKERS;
+        Dataset heldOut = validationSet;
+        // Persistent workers occupy every pool thread, so their validation runs on the caller
+        DoubleSupplier validationLoss = () -> computeLoss(heldOut, contexts, !persistent);
+        TrainingMonitor monitor = new TrainingMonitor(network, optimizer, schedule, baseRate, stopping,
+                validationLoss, epochs, verbose ? printInterval : 0, trainingSet.size(), telemetry);
+        int firstEpoch = 1;
+        if (resumeFrom != null) {
+            monitor.restore(resumeFrom);
+            firstEpoch = resumeFrom.getEpoch() + 1;
+            resumeFrom = null;
+        }
+        if (firstEpoch > epochs) {
+            if (verbose) {
+                System.out.println("Checkpoint already covers all " + epochs + " epochs.");
+            }
+            monitor.finish();
+            return;
+        }
+
+        CheckpointWriter checkpoints = null;
+        BatchPrefetcher prefetcher = null;
+        // Published only while training, so a Trainer dropped without shutdown() leaves nothing registered
+        telemetry.register();
+        telemetry.trackCurrentThread();
+        try {
+            if (checkpointFile != null) {
+                checkpoints = new CheckpointWriter(checkpointFile, checkpointInterval, seed, inputNormalizer,
+                        outputNormalizer);
+                monitor.setCheckpoints(checkpoints);
+            }
+            EpochShuffle shuffle = new EpochShuffle(trainingSet, seed);
 
-        for (int epoch = 1; epoch <= epochs; epoch++) {
-            dataset.shuffle();
+            Object stats;  // SyncStats or PrefetchStats, printed with the summary
+            if (persistent) {
+                PersistentTrainingLoop loop = new PersistentTrainingLoop(network, lossFunction, optimizer,
+                        threadPool, numThreads, inputNormalizer, outputNormalizer, telemetry);
+                stats = loop.run(trainingSet, shuffle, firstEpoch, epochs, batchSize, monitor);
+            } else {
+                // Shuffling and packing run on the prefetch thread, one or more batches ahead
+                prefetcher = new BatchPrefetcher(trainingSet, shuffle, firstEpoch, epochs, batchSize,
+                        numThreads, prefetchDepth, inputNormalizer, outputNormalizer, telemetry);
+                trainTasks(trainingSet, firstEpoch, epochs, batchSize, contexts, prefetcher, monitor);
+                stats = prefetcher.getStats();
+            }
+
+            monitor.finish();
+            closeCheckpoints(checkpoints);
+            if (verbose) {
+                System.out.println("Training finished.");
+                System.out.println(stats);
+                System.out.println(telemetry);
+                printCheckpoints(checkpoints);
+            }
+        } finally {
+            // Also on failure: no prefetch or checkpoint thread may outlive the run
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+            closeCheckpoints(checkpoints);
+            telemetry.untrackCurrentThread();
+            telemetry.unregister();
+        }
+    }
+
+    private void trainTasks(Dataset trainingSet, int firstEpoch, int epochs, int batchSize,
+                            ExecutionContext[] contexts, BatchPrefetcher prefetcher, TrainingMonitor monitor) {
+        int trainingSize = trainingSet.size();
+        int numBatches = (int) Math.ceil((double) trainingSize / batchSize);
+
+        GradientPackage totalGradients = network.createEmptyGradients();
+        GradientReducer reducer = new GradientReducer(numThreads);
+        boolean treeReduce = reductionMode == ReductionMode.TREE;
+
+        for (int epoch = firstEpoch; epoch <= epochs; epoch++) {
+            monitor.beginEpoch(epoch);
             double totalLoss = 0.0;
 
             for (int b = 0; b < numBatches; b++) {
 
-                int from = b * batchSize;
-                int to = Math.min(from + batchSize, data.size());
-                List<DataPoint> miniBatch = data.subList(from, to);
-                int miniBatchSize = miniBatch.size();
+                PackedBatch batch;
+                try {
+                    batch = prefetcher.next();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for training data", e);
+                }
+                int miniBatchSize = batch.totalRows;
+                int workers = batch.parts;
 
+                List<Future<BatchTaskResult>> futures = new ArrayList<>(workers);
+                BatchTaskResult[] results;
                 try {
-                    List<GradientPackage> totalGradients = network.createEmptyGradientsList();
-
-                    List<Future<BatchTaskResult>> futures = new ArrayList<>();
-                    int subBatchSize = (int) Math.ceil((double) miniBatchSize / numThreads);
-
-                    for (int t = 0; t < numThreads; t++) {
-                        int tFrom = t * subBatchSize;
-                        int tTo = Math.min(tFrom + subBatchSize, miniBatchSize);
-                        if (tFrom < tTo) {
-                            List<DataPoint> subBatch = miniBatch.subList(tFrom, tTo);
-                            BatchTask task = new BatchTask(network, lossFunction, subBatch);
-                            futures.add(threadPool.submit(task));
-                        }
+                    if (treeReduce) {
+                        reducer.reset(workers, 1.0 / miniBatchSize);
                     }
-
-                    double batchLoss = 0.0;
-                    for (Future<BatchTaskResult> future : futures) {
-                        BatchTaskResult result = future.get(); 
-                        batchLoss += result.getBatchLoss();
-                        List<GradientPackage> threadGradients = result.getGradients();
-
-                        for (int i = 0; i < totalGradients.size(); i++) {
-                            totalGradients.get(i).add(threadGradients.get(i));
-                        }
+                    for (int t = 0; t < workers; t++) {
+                        BatchTask task = new BatchTask(network, lossFunction, batch.inputs[t], batch.targets[t],
+                                batch.rows[t], contexts[t], treeReduce ? reducer : null, t, telemetry);
+                        futures.add(threadPool.submit(task));
                     }
+                } finally {
+                    // Even after a failure: the slot and the reducer are only reused once no task touches them
+                    results = awaitAll(futures);
+                    prefetcher.release(batch);
+                }
 
-                    for (GradientPackage grad : totalGradients) {
-                        
-                        for (double[] row : grad.getWeightGradients()) {
-                            for (int j = 0; j < row.length; j++) {
-                                row[j] /= miniBatchSize;
-                            }
-                        }
-                        
-                        for (int i = 0; i < grad.getBiasGradients().length; i++) {
-                            grad.getBiasGradients()[i] /= miniBatchSize;
-                        }
+                double batchLoss = 0.0;
+                for (BatchTaskResult result : results) {
+                    batchLoss += result.getBatchLoss();
+                }
+                if (treeReduce) {
+                    applyGradients(reducer.getResult());
+                } else {
+                    long start = telemetry.start();
+                    totalGradients.clear();
+                    for (BatchTaskResult result : results) {
+                        totalGradients.add(result.getGradients());
                     }
-                    
-                    network.applyGradients(totalGradients, learningRate);
-                    
-                    totalLoss += batchLoss;
-
-                } catch (Exception e) {
-                    System.err.println("Error during multi-threaded training: " + e.getMessage());
-                    e.printStackTrace();
+                    totalGradients.scale(1.0 / miniBatchSize);
+                    telemetry.lap(Phase.REDUCE, start);
+                    applyGradients(totalGradients);
                 }
+                totalLoss += batchLoss;
             }
 
-            if (epoch % printInterval == 0 || epoch == epochs) {
-                double averageLoss = totalLoss / data.size();
-                System.out.printf("Epoch: %d/%d, Average Loss: %.8f\n", epoch, epochs, averageLoss);
+            if (monitor.endEpoch(epoch, totalLoss)) {
+                break;
+            }
+        }
+    }
+
+    /** Waits for every task, then rethrows the first failure as the persistent-worker loop does. */
+    private static BatchTaskResult[] awaitAll(List<Future<BatchTaskResult>> futures) {
+        BatchTaskResult[] results = new BatchTaskResult[futures.size()];
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (int i = 0; i < results.length; ) {
+            try {
+                results[i] = futures.get(i).get();
+                i++;
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+                i++;
+            } catch (InterruptedException e) {
+                // Keep waiting: the task still reads the batch slot
+                interrupted = true;
+                if (failure == null) {
+                    failure = e;
+                }
             }
         }
-        
-        System.out.println("Training finished.");
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Task-per-batch training failed: " + failure, failure);
+        }
+        return results;
+    }
+
+    /** Waits for the final checkpoint to reach the disk. */
+    private static void closeCheckpoints(CheckpointWriter checkpoints) {
+        if (checkpoints != null) {
+            checkpoints.close();
+        }
+    }
+
+    private static void printCheckpoints(CheckpointWriter checkpoints) {
+        if (checkpoints != null) {
+            System.out.println(checkpoints);
+        }
+    }
+
+    /** Average loss of the network over {@code dataset}, normalized like the training batches. */
+    public double evaluate(Dataset dataset) {
+        ExecutionContext[] contexts = new ExecutionContext[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            contexts[t] = network.createContext();
+        }
+        return computeLoss(dataset, contexts, true);
+    }
+
+    private void applyGradients(GradientPackage averaged) {
+        telemetry.recordStep(averaged);
+        long start = telemetry.start();
+        network.applyGradients(averaged, optimizer);
+        telemetry.lap(Phase.APPLY, start);
+    }
+
+    /** Average loss of the network over a dataset, split across the pool when {@code parallel}. */
+    private double computeLoss(Dataset dataset, ExecutionContext[] contexts, boolean parallel) {
+        int size = dataset.size();
+        int chunk = parallel ? (int) Math.ceil((double) size / numThreads) : size;
+        List<Future<Double>> futures = new ArrayList<>();
+        double total = 0.0;
+
+        for (int t = 0; t * chunk < size; t++) {
+            int from = t * chunk;
+            int to = Math.min(from + chunk, size);
+            ExecutionContext context = contexts[t];
+            if (parallel) {
+                futures.add(threadPool.submit(() -> evaluate(dataset, from, to, context)));
+            } else {
+                total += evaluate(dataset, from, to, context);
+            }
+        }
+        try {
+            for (Future<Double> future : futures) {
+                total += future.get();
+            }
+        } catch (Exception e) {
+            System.err.println("Error during validation: " + e.getMessage());
+            return Double.NaN;
+        }
+        return total / size;
+    }
+
+    private double evaluate(Dataset samples, int from, int to, ExecutionContext context) {
+        int outputSize = network.getOutputSize();
+        double total = 0.0;
+
+        for (int start = from; start < to; start += EVALUATION_BLOCK) {
+            int rows = Math.min(EVALUATION_BLOCK, to - start);
+            context.ensureBatchCapacity(rows);
+            double[] inputs = context.getBatchInputs();
+            double[] targets = context.getBatchTargets();
+            samples.copyBatch(start, start + rows, inputs, targets, inputNormalizer, outputNormalizer);
+            double[] predictions = network.predictBatch(inputs, rows, context);
+            total += lossFunction.computeBatch(predictions, targets, rows, outputSize, context.getBatchLossGradient());
+        }
+        return total;
     }
     
     public void shutdown() {
         this.threadPool.shutdown();
+        this.telemetry.unregister();
     }
 }
\ No newline at end of file
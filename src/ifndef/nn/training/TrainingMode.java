@@ -0,0 +1,13 @@
+package ifndef.nn.training;
+
+public enum TrainingMode {
+
+    /** Every mini-batch is split into fresh BatchTasks that are submitted and joined. */
+    TASK_PER_BATCH,
+
+    /**
+     * One long-lived worker per thread owns a fixed shard of the shuffled data for the whole
+     * epoch; workers meet at a barrier after each step instead of being resubmitted.
+     */
+    PERSISTENT_WORKERS
+}
\ No newline at end of file
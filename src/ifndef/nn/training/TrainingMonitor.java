@@ -0,0 +1,148 @@
+package ifndef.nn.training;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.optimizer.LearningRateSchedule;
+import ifndef.nn.optimizer.Optimizer;
+import ifndef.nn.telemetry.TrainingTelemetry;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Per-run bookkeeping shared by every training mode: applies the learning-rate schedule at
+ * the start of each epoch, prints progress, checks validation loss on the early-stopping
+ * cadence, keeps a copy of the best weights seen so far and hands checkpoints to the writer.
+ */
+class TrainingMonitor {
+
+    private final NeuralNetwork network;
+    private final Optimizer optimizer;
+    private final LearningRateSchedule schedule;
+    private final EarlyStopping earlyStopping;
+    private final DoubleSupplier validationLoss;
+    private final int epochs;
+    private final int printInterval;
+    private final int trainingSize;
+    private final double baseRate;
+    private final TrainingTelemetry telemetry;
+    private CheckpointWriter checkpoints;
+
+    private double bestLoss = Double.POSITIVE_INFINITY;
+    private double[] bestParameters;
+    private int badChecks;
+    private int stoppedAt;
+    private double lastValidationLoss;
+
+    TrainingMonitor(NeuralNetwork network, Optimizer optimizer, LearningRateSchedule schedule, double baseRate,
+                    EarlyStopping earlyStopping, DoubleSupplier validationLoss,
+                    int epochs, int printInterval, int trainingSize, TrainingTelemetry telemetry) {
+        this.network = network;
+        this.optimizer = optimizer;
+        this.schedule = schedule;
+        this.earlyStopping = earlyStopping;
+        this.validationLoss = validationLoss;
+        this.epochs = epochs;
+        this.printInterval = printInterval;
+        this.trainingSize = trainingSize;
+        this.baseRate = baseRate;
+        this.telemetry = telemetry;
+    }
+
+    void setCheckpoints(CheckpointWriter checkpoints) {
+        this.checkpoints = checkpoints;
+    }
+
+    /** Continues the schedule and the early-stopping search from where a checkpoint left them. */
+    void restore(Checkpoint checkpoint) {
+        if (schedule != null) {
+            schedule.setState(checkpoint.getScheduleState());
+        }
+        bestLoss = checkpoint.getBestLoss();
+        badChecks = checkpoint.getBadChecks();
+        bestParameters = checkpoint.getBestParameters();
+    }
+
+    void beginEpoch(int epoch) {
+        telemetry.beginEpoch(epoch);
+        if (schedule != null) {
+            optimizer.setLearningRate(schedule.learningRate(epoch, baseRate));
+        }
+    }
+
+    /** Returns true when training should stop after this epoch. */
+    boolean endEpoch(int epoch, double totalLoss) {
+        double averageLoss = totalLoss / trainingSize;
+        lastValidationLoss = Double.NaN;
+        boolean stop = checkEpoch(epoch, averageLoss);
+        telemetry.endEpoch(epoch, trainingSize, averageLoss, lastValidationLoss);
+        boolean last = stop || epoch == epochs;
+        if (checkpoints != null && (last || checkpoints.isDue(epoch))) {
+            // Only the final checkpoint may wait for the previous write
+            Checkpoint checkpoint = checkpoints.acquire(last);
+            if (checkpoint != null) {
+                checkpoint.capture(epoch, network, optimizer, schedule, bestLoss, badChecks, bestParameters);
+                checkpoints.submit(checkpoint);
+            }
+        }
+        return stop;
+    }
+
+    private boolean checkEpoch(int epoch, double averageLoss) {
+        // A print interval of 0 keeps the run silent
+        boolean print = printInterval > 0 && (epoch % printInterval == 0 || epoch == epochs);
+
+        if (earlyStopping == null) {
+            if (schedule != null) {
+                schedule.observeLoss(averageLoss);
+            }
+            if (print) {
+                System.out.printf("Epoch: %d/%d, Average Loss: %.8f\n", epoch, epochs, averageLoss);
+            }
+            return false;
+        }
+
+        if (epoch % earlyStopping.getCheckInterval() != 0 && epoch != epochs) {
+            if (print) {
+                System.out.printf("Epoch: %d/%d, Average Loss: %.8f\n", epoch, epochs, averageLoss);
+            }
+            return false;
+        }
+
+        double loss = validationLoss.getAsDouble();
+        lastValidationLoss = loss;
+        if (schedule != null) {
+            schedule.observeLoss(loss);
+        }
+        if (printInterval > 0) {
+            System.out.printf("Epoch: %d/%d, Average Loss: %.8f, Validation Loss: %.8f\n",
+                    epoch, epochs, averageLoss, loss);
+        }
+
+        if (loss < bestLoss - earlyStopping.getMinDelta()) {
+            bestLoss = loss;
+            badChecks = 0;
+            double[] parameters = network.getParameters();
+            if (bestParameters == null) {
+                bestParameters = new double[parameters.length];
+            }
+            System.arraycopy(parameters, 0, bestParameters, 0, parameters.length);
+        } else if (++badChecks >= earlyStopping.getPatience()) {
+            stoppedAt = epoch;
+            return true;
+        }
+        return false;
+    }
+
+    void finish() {
+        if (stoppedAt > 0 && printInterval > 0) {
+            System.out.printf("Early stopping at epoch %d: validation loss has not improved for %d checks.\n",
+                    stoppedAt, earlyStopping.getPatience());
+        }
+        if (bestParameters != null) {
+            double[] parameters = network.getParameters();
+            System.arraycopy(bestParameters, 0, parameters, 0, parameters.length);
+            if (printInterval > 0) {
+                System.out.printf("Restored best weights (validation loss %.8f).\n", bestLoss);
+            }
+        }
+    }
+}
\ No newline at end of file
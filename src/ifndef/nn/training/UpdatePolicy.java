@@ -0,0 +1,13 @@
+package ifndef.nn.training;
+
+public enum UpdatePolicy {
+
+    /**
+     * Plain unsynchronized read-modify-write of each parameter (classic Hogwild). Concurrent
+     * writers can occasionally overwrite each other's update to the same weight.
+     */
+    RACY,
+
+    /** Each parameter is updated with a compare-and-set loop, so no update is ever lost. */
+    ATOMIC
+}
\ No newline at end of file
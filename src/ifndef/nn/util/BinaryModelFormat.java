@@ -0,0 +1,298 @@
+package ifndef.nn.util;
+
+import ifndef.nn.activation.ActivationFunction;
+import ifndef.nn.activation.Activations;
+import ifndef.nn.core.DenseLayer;
+import ifndef.nn.core.Layer;
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.core.Precision;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned little-endian binary model format (.nnb). Layout:
+ *
+ * <pre>
+ * int    magic 'NNBM', int version, int flags (bit 0 = normalized, bit 1 = float weights,
+ *        bit 2 = double sums; bits 1 and 2 together are Precision.MIXED; bit 3 = fast activations)
+ * int    name length, byte[] UTF-8 function name
+ * int    input count n, int output count, double[n] input min, double[n] input max
+ * per normalizer, input then output (only when normalized):
+ *        int feature count (0 = one shared range), then min, max for each range
+ * int    layer count, then per layer: int inputSize, int outputSize, int activation id
+ * int    parameter count, zero padding to an 8-byte boundary
+ * double[parameter count] (float[parameter count] with float weights) in NeuralNetwork#getParameters() order
+ * </pre>
+ *
+ * Version 2 files are version 3 without the precision flags. Version 1 files (one input, one
+ * output, one min/max per normalizer) are still read.
+ * Files are written through a FileChannel and read through a read-only MappedByteBuffer. The
+ * network still owns its weights as a heap double[] (training and every kernel work on one), so
+ * loading is not a zero-copy view of the file: the layers are built from the header's shapes
+ * without a random init and bound to one array, which the parameter block fills with a single
+ * bulk get straight from the page cache. Every count in the header is checked against the file
+ * size, so a truncated or corrupt file fails with an IOException.
+ */
+public class BinaryModelFormat {
+
+    public static final String EXTENSION = ".nnb";
+
+    private static final int MAGIC = 0x4D424E4E; // "NNBM" read little-endian
+    private static final int VERSION = 3;
+    private static final int FLAG_NORMALIZED = 1;
+    private static final int FLAG_FLOAT_WEIGHTS = 2;
+    private static final int FLAG_DOUBLE_SUMS = 4;
+    private static final int FLAG_FAST_ACTIVATIONS = 8;
+
+    public static void save(TrainedModel model, String filename) throws IOException {
+        NeuralNetwork network = model.getNetwork();
+        FunctionInfo info = model.getFunctionInfo();
+        List<Layer> layers = network.getLayers();
+        boolean normalized = model.getInputNormalizer() != null && model.getOutputNormalizer() != null;
+        byte[] name = info.name.getBytes(StandardCharsets.UTF_8);
+
+        int inputs = info.getInputSize();
+        int headerSize = 3 * 4 + 4 + name.length + 2 * 4 + inputs * 2 * 8
+                + (normalized ? normalizerSize(model.getInputNormalizer()) + normalizerSize(model.getOutputNormalizer()) : 0)
+                + 4 + layers.size() * 3 * 4 + 4;
+        int paddedHeaderSize = (headerSize + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(paddedHeaderSize).order(ByteOrder.LITTLE_ENDIAN);
+        Precision precision = network.getPrecision();
+        int flags = normalized ? FLAG_NORMALIZED : 0;
+        if (precision.isFloat()) {
+            flags |= FLAG_FLOAT_WEIGHTS;
+        }
+        if (precision == Precision.MIXED) {
+            flags |= FLAG_DOUBLE_SUMS;
+        }
+        if (network.isFastActivations()) {
+            flags |= FLAG_FAST_ACTIVATIONS;
+        }
+        header.putInt(MAGIC).putInt(VERSION).putInt(flags);
+        header.putInt(name.length).put(name);
+        header.putInt(inputs).putInt(info.getOutputSize());
+        for (int i = 0; i < inputs; i++) {
+            header.putDouble(info.getMinX(i));
+        }
+        for (int i = 0; i < inputs; i++) {
+            header.putDouble(info.getMaxX(i));
+        }
+        if (normalized) {
+            writeNormalizer(header, model.getInputNormalizer());
+            writeNormalizer(header, model.getOutputNormalizer());
+        }
+        header.putInt(layers.size());
+        for (Layer layer : layers) {
+            if (!(layer instanceof DenseLayer)) {
+                throw new IllegalArgumentException("Binary format only supports DenseLayer, got "
+                        + layer.getClass().getSimpleName());
+            }
+            header.putInt(layer.getInputSize()).putInt(layer.getOutputSize())
+                    .putInt(Activations.idOf(((DenseLayer) layer).getActivation()));
+        }
+        double[] parameters = network.getParameters();
+        header.putInt(parameters.length);
+        header.position(paddedHeaderSize).flip();
+
+        ByteBuffer body;
+        if (precision.isFloat()) {
+            body = ByteBuffer.allocate(parameters.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            for (double parameter : parameters) {
+                body.putFloat((float) parameter);
+            }
+            body.flip();
+        } else {
+            body = ByteBuffer.allocate(parameters.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+            body.asDoubleBuffer().put(parameters);
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    private static int normalizerSize(DataNormalizer normalizer) {
+        return 4 + normalizer.getFeatureCount() * 2 * 8;
+    }
+
+    private static void writeNormalizer(ByteBuffer buffer, DataNormalizer normalizer) {
+        buffer.putInt(normalizer.isPerFeature() ? normalizer.getFeatureCount() : 0);
+        for (int f = 0; f < normalizer.getFeatureCount(); f++) {
+            buffer.putDouble(normalizer.getDataMin(f)).putDouble(normalizer.getDataMax(f));
+        }
+    }
+
+    private static DataNormalizer readNormalizer(ByteBuffer buffer) throws IOException {
+        int features = readCount(buffer, "normalizer feature count", 2 * 8);
+        if (features == 0) {
+            return new DataNormalizer(buffer.getDouble(), buffer.getDouble());
+        }
+        double[] min = new double[features];
+        double[] max = new double[features];
+        for (int f = 0; f < features; f++) {
+            min[f] = buffer.getDouble();
+            max[f] = buffer.getDouble();
+        }
+        return new DataNormalizer(min, max);
+    }
+
+    /** Reads a count and checks that the rest of the file can hold that many {@code bytesEach} items. */
+    private static int readCount(ByteBuffer buffer, String field, int bytesEach) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * bytesEach > buffer.remaining()) {
+            throw new IOException("Corrupt model file: " + field + " " + count + " does not fit in the file.");
+        }
+        return count;
+    }
+
+    public static TrainedModel load(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    static TrainedModel read(ByteBuffer buffer) throws IOException {
+        try {
+            return readModel(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Model file is truncated.", e);
+        } catch (IllegalArgumentException e) {
+            // Unknown activation ids and inconsistent ranges
+            throw new IOException("Corrupt model file: " + e.getMessage(), e);
+        }
+    }
+
+    private static TrainedModel readModel(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary model file (bad magic number).");
+        }
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported binary model version " + version + ".");
+        }
+        int flags = buffer.getInt();
+        boolean normalized = (flags & FLAG_NORMALIZED) != 0;
+        Precision precision = Precision.DOUBLE;
+        if ((flags & FLAG_FLOAT_WEIGHTS) != 0) {
+            precision = (flags & FLAG_DOUBLE_SUMS) != 0 ? Precision.MIXED : Precision.FLOAT;
+        }
+
+        byte[] name = new byte[readCount(buffer, "name length", 1)];
+        buffer.get(name);
+        int inputs = 1;
+        int outputs = 1;
+        if (version >= 2) {
+            inputs = readCount(buffer, "input count", 2 * 8);
+            outputs = buffer.getInt();
+            if (inputs < 1 || outputs < 1) {
+                throw new IOException("Corrupt model file: " + inputs + " inputs, " + outputs + " outputs.");
+            }
+        }
+        double[] minX = new double[inputs];
+        double[] maxX = new double[inputs];
+        if (version >= 2) {
+            buffer.asDoubleBuffer().get(minX).get(maxX);
+            buffer.position(buffer.position() + inputs * 2 * 8);
+        } else {
+            minX[0] = buffer.getDouble();
+            maxX[0] = buffer.getDouble();
+        }
+
+        DataNormalizer inputNormalizer = null;
+        DataNormalizer outputNormalizer = null;
+        if (normalized && version >= 2) {
+            inputNormalizer = readNormalizer(buffer);
+            outputNormalizer = readNormalizer(buffer);
+        } else if (normalized) {
+            inputNormalizer = new DataNormalizer(buffer.getDouble(), buffer.getDouble());
+            outputNormalizer = new DataNormalizer(buffer.getDouble(), buffer.getDouble());
+        }
+
+        // Shapes first, so a corrupt size is rejected before anything of that size is allocated
+        int layerCount = readCount(buffer, "layer count", 3 * 4);
+        int width = precision.isFloat() ? 4 : 8;
+        List<Layer> layers = new ArrayList<>(layerCount);
+        long expectedCount = 0;
+        for (int i = 0; i < layerCount; i++) {
+            int inputSize = buffer.getInt();
+            int outputSize = buffer.getInt();
+            ActivationFunction activation = Activations.fromId(buffer.getInt());
+            if (inputSize < 1 || outputSize < 1) {
+                throw new IOException("Corrupt model file: layer " + i + " is " + inputSize + "x" + outputSize + ".");
+            }
+            expectedCount += (long) inputSize * outputSize + outputSize;
+            if (expectedCount * width > buffer.remaining()) {
+                throw new IOException("Corrupt model file: layer " + i + " does not fit in the file.");
+            }
+            layers.add(DenseLayer.unbound(inputSize, outputSize, activation));
+        }
+
+        int parameterCount = buffer.getInt();
+        if (parameterCount != expectedCount) {
+            throw new IOException("Parameter count " + parameterCount + " does not match the layer shapes.");
+        }
+        buffer.position((buffer.position() + 7) & ~7);
+        if ((long) parameterCount * width > buffer.remaining()) {
+            throw new IOException("Model file is truncated.");
+        }
+        NeuralNetwork network = new NeuralNetwork(precision, layers);
+        network.setFastActivations((flags & FLAG_FAST_ACTIVATIONS) != 0);
+        if (layerCount > 0 && (network.getInputSize() != inputs || network.getOutputSize() != outputs)) {
+            throw new IOException("Corrupt model file: the layers do not take " + inputs + " inputs to "
+                    + outputs + " outputs.");
+        }
+
+        double[] parameters = network.getParameters();
+        if (precision.isFloat()) {
+            float[] values = new float[parameterCount];
+            buffer.asFloatBuffer().get(values);
+            for (int i = 0; i < parameterCount; i++) {
+                parameters[i] = values[i];
+            }
+        } else {
+            buffer.asDoubleBuffer().get(parameters);
+        }
+
+        FunctionInfo info = new FunctionInfo(new String(name, StandardCharsets.UTF_8), (VectorFunction) null,
+                minX, maxX, outputs, normalized);
+        return new TrainedModel(network, info, inputNormalizer, outputNormalizer);
+    }
+
+    /** Converts a Java-serialized .dat model (current or pre-flat-storage layout) to the binary format. */
+    public static void convert(String datFile, String binaryFile) throws IOException {
+        TrainedModel model = NetworkSerializer.load(datFile);
+        if (model == null) {
+            throw new IOException("Could not read " + datFile);
+        }
+        save(model, binaryFile);
+        System.out.println("Converted " + datFile + " -> " + binaryFile);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java -cp bin ifndef.nn.util.BinaryModelFormat <model.dat> <model.nnb>");
+            return;
+        }
+        convert(args[0], args[1]);
+    }
+}
\ No newline at end of file
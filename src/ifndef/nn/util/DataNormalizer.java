@@ -2,6 +2,11 @@ package ifndef.nn.util;
 
 import java.io.Serializable;
 
+/**
+ * Maps data into [-1, 1] and back. A normalizer either uses one range for every value, or
+ * one range per feature (column) when built from min/max arrays; the single-argument
+ * methods then refer to feature 0.
+ */
 public class DataNormalizer implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -12,26 +17,130 @@ public class DataNormalizer implements Serializable {
     private final double normalizedMin;
     private final double normalizedMax;
 
+    // Null for a single shared range (and for models saved before per-feature ranges existed)
+    private final double[] featureMin;
+    private final double[] featureMax;
+
     public DataNormalizer(double dataMin, double dataMax) {
         this.dataMin = dataMin;
         this.dataMax = dataMax;
         this.normalizedMin = -1.0;
         this.normalizedMax = 1.0;
+        this.featureMin = null;
+        this.featureMax = null;
+    }
+
+    public DataNormalizer(double[] featureMin, double[] featureMax) {
+        if (featureMin.length == 0 || featureMin.length != featureMax.length) {
+            throw new IllegalArgumentException("Need one min and one max per feature.");
+        }
+        this.featureMin = featureMin.clone();
+        this.featureMax = featureMax.clone();
+        this.dataMin = featureMin[0];
+        this.dataMax = featureMax[0];
+        this.normalizedMin = -1.0;
+        this.normalizedMax = 1.0;
     }
 
     public double normalize(double value) {
-        if (dataMax - dataMin == 0) {
+        return normalize(value, dataMin, dataMax);
+    }
+
+    public double normalize(double value, int feature) {
+        return normalize(value, getDataMin(feature), getDataMax(feature));
+    }
+
+    private double normalize(double value, double min, double max) {
+        if (max - min == 0) {
             return (normalizedMin + normalizedMax) / 2.0;
         }
         
-        return normalizedMin + (value - dataMin) * (normalizedMax - normalizedMin) / (dataMax - dataMin);
+        return normalizedMin + (value - min) * (normalizedMax - normalizedMin) / (max - min);
     }
 
     public double denormalize(double value) {
+        return denormalize(value, dataMin, dataMax);
+    }
+
+    public double denormalize(double value, int feature) {
+        return denormalize(value, getDataMin(feature), getDataMax(feature));
+    }
+
+    private double denormalize(double value, double min, double max) {
         if (normalizedMax - normalizedMin == 0) {
-            return dataMin;
+            return min;
         }
         
-        return dataMin + (value - normalizedMin) * (dataMax - dataMin) / (normalizedMax - normalizedMin);
+        return min + (value - normalizedMin) * (max - min) / (normalizedMax - normalizedMin);
+    }
+
+    /** normalize(v) == v * getNormalizeScale() + getNormalizeOffset() */
+    public double getNormalizeScale() {
+        return getNormalizeScale(0);
+    }
+
+    public double getNormalizeScale(int feature) {
+        double range = getDataMax(feature) - getDataMin(feature);
+        if (range == 0) {
+            return 0.0;
+        }
+        return (normalizedMax - normalizedMin) / range;
+    }
+
+    public double getNormalizeOffset() {
+        return getNormalizeOffset(0);
+    }
+
+    public double getNormalizeOffset(int feature) {
+        if (getDataMax(feature) - getDataMin(feature) == 0) {
+            return (normalizedMin + normalizedMax) / 2.0;
+        }
+        return normalizedMin - getDataMin(feature) * getNormalizeScale(feature);
+    }
+
+    /** denormalize(v) == v * getDenormalizeScale() + getDenormalizeOffset() */
+    public double getDenormalizeScale() {
+        return getDenormalizeScale(0);
+    }
+
+    public double getDenormalizeScale(int feature) {
+        if (normalizedMax - normalizedMin == 0) {
+            return 0.0;
+        }
+        return (getDataMax(feature) - getDataMin(feature)) / (normalizedMax - normalizedMin);
+    }
+
+    public double getDenormalizeOffset() {
+        return getDenormalizeOffset(0);
+    }
+
+    public double getDenormalizeOffset(int feature) {
+        return getDataMin(feature) - normalizedMin * getDenormalizeScale(feature);
+    }
+
+    /** True when each feature has its own range. */
+    public boolean isPerFeature() {
+        return featureMin != null;
+    }
+
+    /** Number of per-feature ranges, or 1 for a shared range. */
+    public int getFeatureCount() {
+        return featureMin == null ? 1 : featureMin.length;
+    }
+
+    public double getDataMin() {
+        return dataMin;
+    }
+
+    public double getDataMax() {
+        return dataMax;
+    }
+
+    public double getDataMin(int feature) {
+        return featureMin == null ? dataMin : featureMin[feature];
+    }
+
+    public double getDataMax(int feature) {
+        return featureMax == null ? dataMax : featureMax[feature];
     }
 }
\ No newline at end of file
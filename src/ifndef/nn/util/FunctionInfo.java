@@ -1,26 +1,76 @@
 package ifndef.nn.util;
 
 import java.io.Serializable;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
 public class FunctionInfo implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     public final String name;
-    public final double minX;
+    public final double minX;  // Range of the first input
     public final double maxX;
     
     public final boolean shouldNormalize;
+
+    // Per-input ranges and output count; null / 0 in models saved before multi-input support
+    private final double[] inputMin;
+    private final double[] inputMax;
+    private final int outputSize;
     
-    public transient Function<Double, Double> function;
+    public transient ScalarFunction function;  // Only set for scalar functions
+    public transient VectorFunction vectorFunction;
 
-    public FunctionInfo(String name, Function<Double, Double> function, 
+    public FunctionInfo(String name, DoubleUnaryOperator function, 
                         double minX, double maxX, boolean shouldNormalize) {
+        ScalarFunction scalar = ScalarFunction.of(function);
         this.name = name;
-        this.function = function;
+        this.function = scalar;
+        this.vectorFunction = scalar == null ? null : (in, out) -> out[0] = scalar.applyAsDouble(in[0]);
         this.minX = minX;
         this.maxX = maxX;
         this.shouldNormalize = shouldNormalize;
+        this.inputMin = new double[]{minX};
+        this.inputMax = new double[]{maxX};
+        this.outputSize = 1;
+    }
+
+    public FunctionInfo(String name, VectorFunction function, double[] inputMin, double[] inputMax,
+                        int outputSize, boolean shouldNormalize) {
+        if (inputMin.length == 0 || inputMin.length != inputMax.length || outputSize < 1) {
+            throw new IllegalArgumentException("Need a range for every input and at least one output.");
+        }
+        this.name = name;
+        this.vectorFunction = function;
+        this.minX = inputMin[0];
+        this.maxX = inputMax[0];
+        this.shouldNormalize = shouldNormalize;
+        this.inputMin = inputMin.clone();
+        this.inputMax = inputMax.clone();
+        this.outputSize = outputSize;
+    }
+
+    public int getInputSize() {
+        return inputMin == null ? 1 : inputMin.length;
+    }
+
+    public int getOutputSize() {
+        return outputSize == 0 ? 1 : outputSize;
+    }
+
+    public double getMinX(int input) {
+        return inputMin == null ? minX : inputMin[input];
+    }
+
+    public double getMaxX(int input) {
+        return inputMax == null ? maxX : inputMax[input];
+    }
+
+    public double[] getInputMin() {
+        return inputMin == null ? new double[]{minX} : inputMin.clone();
+    }
+
+    public double[] getInputMax() {
+        return inputMax == null ? new double[]{maxX} : inputMax.clone();
     }
 }
\ No newline at end of file
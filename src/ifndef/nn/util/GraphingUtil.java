@@ -6,12 +6,16 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Path2D;
-import java.util.ArrayList;
 import java.util.List;
 
 public class GraphingUtil {
 
     public static void plot(List<Double> xValues, List<Double> expected, List<Double> predicted, String title) {
+        plot(toArray(xValues), toArray(expected), toArray(predicted), title);
+    }
+
+    /** Plots without boxing: the panel redraws straight from the primitive arrays. */
+    public static void plot(double[] xValues, double[] expected, double[] predicted, String title) {
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame(title);
             frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE); // Close only this window
@@ -24,20 +28,28 @@ public class GraphingUtil {
             frame.setVisible(true);
         });
     }
+
+    private static double[] toArray(List<Double> values) {
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
 }
 
 class GraphPanel extends JPanel {
 
-    private final List<Double> xValues;
-    private final List<Double> expected;
-    private final List<Double> predicted;
+    private final double[] xValues;
+    private final double[] expected;
+    private final double[] predicted;
 
     private double panX = 0.0;
     private double panY = 0.0;
     private double scale = 20.0;
     private Point lastMousePos;
 
-    public GraphPanel(List<Double> xValues, List<Double> expected, List<Double> predicted) {
+    public GraphPanel(double[] xValues, double[] expected, double[] predicted) {
         this.xValues = xValues;
         this.expected = expected;
         this.predicted = predicted;
@@ -117,16 +129,16 @@ class GraphPanel extends JPanel {
         g2d.drawLine(0, (int) Math.floor(yMin), 0, (int) Math.ceil(yMax));
     }
 
-    private void drawPath(Graphics2D g2d, List<Double> xs, List<Double> ys, Color color) {
+    private void drawPath(Graphics2D g2d, double[] xs, double[] ys, Color color) {
         g2d.setColor(color);
         g2d.setStroke(new BasicStroke(2.0f / (float) scale)); // Thicker data line
 
         Path2D.Double path = new Path2D.Double();
-        if (xs.isEmpty() || ys.isEmpty()) return;
+        if (xs.length == 0 || ys.length == 0) return;
         
-        path.moveTo(xs.get(0), ys.get(0));
-        for (int i = 1; i < xs.size(); i++) {
-            path.lineTo(xs.get(i), ys.get(i));
+        path.moveTo(xs[0], ys[0]);
+        for (int i = 1; i < xs.length; i++) {
+            path.lineTo(xs[i], ys[i]);
         }
         g2d.draw(path);
     }
@@ -1,14 +1,27 @@
 package ifndef.nn.util;
 
+import ifndef.nn.util.legacy.LegacyModelReader;
+
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InvalidClassException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 
 public class NetworkSerializer {
 
     public static void save(TrainedModel model, String filename) {
+        if (filename.endsWith(BinaryModelFormat.EXTENSION)) {
+            try {
+                BinaryModelFormat.save(model, filename);
+                System.out.println("Model successfully saved to " + filename);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error saving model: " + e.getMessage());
+            }
+            return;
+        }
+
         try (FileOutputStream fos = new FileOutputStream(filename);
              ObjectOutputStream oos = new ObjectOutputStream(fos)) {
             
@@ -21,6 +34,17 @@ public class NetworkSerializer {
     }
 
     public static TrainedModel load(String filename) {
+        if (filename.endsWith(BinaryModelFormat.EXTENSION)) {
+            try {
+                TrainedModel model = BinaryModelFormat.load(filename);
+                System.out.println("Model successfully loaded from " + filename);
+                return model;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Error loading model: " + e.getMessage());
+                return null;
+            }
+        }
+
         TrainedModel model = null;
         try (FileInputStream fis = new FileInputStream(filename);
              ObjectInputStream ois = new ObjectInputStream(fis)) {
@@ -28,6 +52,14 @@ public class NetworkSerializer {
             model = (TrainedModel) ois.readObject();
             System.out.println("Model successfully loaded from " + filename);
 
+        } catch (InvalidClassException e) {
+            // Saved before parameters moved into one flat array
+            try {
+                model = LegacyModelReader.read(filename);
+                System.out.println("Model successfully loaded from " + filename + " (legacy format)");
+            } catch (IOException | ClassNotFoundException legacyError) {
+                System.err.println("Error loading model: " + legacyError.getMessage());
+            }
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading model: " + e.getMessage());
         }
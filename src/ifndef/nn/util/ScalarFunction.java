@@ -0,0 +1,29 @@
+package ifndef.nn.util;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Scalar target function on primitives. The bulk form lets a function evaluate a whole array
+ * in one tight loop (which the JIT can unroll or vectorize) instead of one call per point.
+ */
+@FunctionalInterface
+public interface ScalarFunction extends DoubleUnaryOperator {
+
+    /** ys[i] = f(xs[i]) for i in [from, to). */
+    default void apply(double[] xs, double[] ys, int from, int to) {
+        for (int i = from; i < to; i++) {
+            ys[i] = applyAsDouble(xs[i]);
+        }
+    }
+
+    default void apply(double[] xs, double[] ys) {
+        apply(xs, ys, 0, xs.length);
+    }
+
+    static ScalarFunction of(DoubleUnaryOperator function) {
+        if (function == null || function instanceof ScalarFunction) {
+            return (ScalarFunction) function;
+        }
+        return function::applyAsDouble;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,12 @@
+package ifndef.nn.util;
+
+/**
+ * Target function of several variables, f: R^n -> R^m, on primitive arrays so that
+ * sampling millions of points never boxes a value.
+ */
+@FunctionalInterface
+public interface VectorFunction {
+
+    /** Writes f(inputs) into {@code outputs}. Must be thread-safe; generation calls it from many threads. */
+    void apply(double[] inputs, double[] outputs);
+}
\ No newline at end of file
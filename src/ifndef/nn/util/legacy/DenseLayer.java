@@ -0,0 +1,40 @@
+package ifndef.nn.util.legacy;
+
+import ifndef.nn.activation.ActivationFunction;
+
+import java.io.Serializable;
+
+/**
+ * Field layout of {@code ifndef.nn.core.DenseLayer} before parameters moved into the
+ * network's flat array. Only used to read old .dat files; see {@link LegacyModelReader}.
+ */
+public class DenseLayer implements Serializable {
+
+    private static final long serialVersionUID = -7848837702817084960L;
+
+    private int inputSize;
+    private int outputSize;
+    private ActivationFunction activation;
+    private double[][] weights;
+    private double[] biases;
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    public ActivationFunction getActivation() {
+        return activation;
+    }
+
+    public double[][] getWeights() {
+        return weights;
+    }
+
+    public double[] getBiases() {
+        return biases;
+    }
+}
\ No newline at end of file
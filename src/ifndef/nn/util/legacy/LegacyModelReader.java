@@ -0,0 +1,70 @@
+package ifndef.nn.util.legacy;
+
+import ifndef.nn.core.NeuralNetwork;
+import ifndef.nn.util.TrainedModel;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads .dat models saved before parameters were stored in one flat array. The stream's
+ * TrainedModel, NeuralNetwork and DenseLayer classes are resolved to the look-alike classes
+ * in this package (Java serialization requires matching simple names), and the result is
+ * rebuilt as a current {@link TrainedModel}.
+ */
+public class LegacyModelReader extends ObjectInputStream {
+
+    private static final Map<String, Class<?>> LEGACY_CLASSES = Map.of(
+            "ifndef.nn.util.TrainedModel", ifndef.nn.util.legacy.TrainedModel.class,
+            "ifndef.nn.core.NeuralNetwork", ifndef.nn.util.legacy.NeuralNetwork.class,
+            "ifndef.nn.core.DenseLayer", ifndef.nn.util.legacy.DenseLayer.class);
+
+    public LegacyModelReader(InputStream in) throws IOException {
+        super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+        Class<?> legacy = LEGACY_CLASSES.get(desc.getName());
+        return legacy != null ? legacy : super.resolveClass(desc);
+    }
+
+    public static TrainedModel read(String filename) throws IOException, ClassNotFoundException {
+        try (LegacyModelReader in = new LegacyModelReader(new FileInputStream(filename))) {
+            ifndef.nn.util.legacy.TrainedModel legacy = (ifndef.nn.util.legacy.TrainedModel) in.readObject();
+            return new TrainedModel(convert(legacy.getNetwork()), legacy.getFunctionInfo(),
+                    legacy.getInputNormalizer(), legacy.getOutputNormalizer());
+        }
+    }
+
+    private static NeuralNetwork convert(ifndef.nn.util.legacy.NeuralNetwork legacy) throws IOException {
+        NeuralNetwork network = new NeuralNetwork();
+        List<Object> layers = legacy.getLayers();
+        for (Object layer : layers) {
+            if (!(layer instanceof DenseLayer)) {
+                throw new IOException("Unsupported legacy layer type " + layer.getClass().getName());
+            }
+            DenseLayer dense = (DenseLayer) layer;
+            network.add(new ifndef.nn.core.DenseLayer(dense.getInputSize(), dense.getOutputSize(),
+                    dense.getActivation()));
+        }
+
+        double[] parameters = network.getParameters();
+        int offset = 0;
+        for (Object layer : layers) {
+            DenseLayer dense = (DenseLayer) layer;
+            for (double[] row : dense.getWeights()) {
+                System.arraycopy(row, 0, parameters, offset, row.length);
+                offset += row.length;
+            }
+            System.arraycopy(dense.getBiases(), 0, parameters, offset, dense.getBiases().length);
+            offset += dense.getBiases().length;
+        }
+        return network;
+    }
+}
\ No newline at end of file
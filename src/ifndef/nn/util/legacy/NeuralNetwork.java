@@ -0,0 +1,16 @@
+package ifndef.nn.util.legacy;
+
+import java.io.Serializable;
+import java.util.List;
+
+/** Field layout of {@code ifndef.nn.core.NeuralNetwork} before flat parameter storage. */
+public class NeuralNetwork implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Object> layers;
+
+    public List<Object> getLayers() {
+        return layers;
+    }
+}
\ No newline at end of file
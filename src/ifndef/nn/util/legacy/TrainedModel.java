@@ -0,0 +1,33 @@
+package ifndef.nn.util.legacy;
+
+import ifndef.nn.util.DataNormalizer;
+import ifndef.nn.util.FunctionInfo;
+
+import java.io.Serializable;
+
+/** {@code ifndef.nn.util.TrainedModel} as written by versions with per-row weight arrays. */
+public class TrainedModel implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private NeuralNetwork network;
+    private FunctionInfo functionInfo;
+    private DataNormalizer inputNormalizer;
+    private DataNormalizer outputNormalizer;
+
+    public NeuralNetwork getNetwork() {
+        return network;
+    }
+
+    public FunctionInfo getFunctionInfo() {
+        return functionInfo;
+    }
+
+    public DataNormalizer getInputNormalizer() {
+        return inputNormalizer;
+    }
+
+    public DataNormalizer getOutputNormalizer() {
+        return outputNormalizer;
+    }
+}
\ No newline at end of file